@@ -8,6 +8,14 @@ repositories {
     mavenCentral()
 }
 
+val jmh: SourceSet by sourceSets.creating {
+    compileClasspath += sourceSets.main.get().output
+    runtimeClasspath += sourceSets.main.get().output
+}
+
+configurations[jmh.implementationConfigurationName].extendsFrom(configurations.implementation.get())
+configurations[jmh.runtimeOnlyConfigurationName].extendsFrom(configurations.runtimeOnly.get())
+
 dependencies {
     testImplementation("org.junit.jupiter:junit-jupiter:5.+")
     testImplementation("org.junit.jupiter:junit-jupiter-params:5.+")
@@ -19,6 +27,9 @@ dependencies {
 
     implementation("org.apache.commons:commons-math3:3.6.1")
     implementation("com.google.guava:guava:33.4.8-jre")
+
+    "jmhImplementation"("org.openjdk.jmh:jmh-core:1.37")
+    "jmhAnnotationProcessor"("org.openjdk.jmh:jmh-generator-annprocess:1.37")
 }
 
 java {
@@ -31,6 +42,33 @@ tasks.named<Test>("test") {
     useJUnitPlatform()
 }
 
+// ./gradlew jmh [-PjmhArgs="CorpusBenchmark -p corpus=hard"]
+tasks.register<JavaExec>("jmh") {
+    group = "benchmark"
+    description = "Runs the JMH benchmarks with the GC profiler."
+    classpath = jmh.runtimeClasspath
+    mainClass.set("org.openjdk.jmh.Main")
+
+    val results = layout.buildDirectory.file("reports/jmh/results.json")
+    outputs.file(results)
+    outputs.upToDateWhen { false }
+    doFirst {
+        results.get().asFile.parentFile.mkdirs()
+    }
+
+    args("-prof", "gc", "-rf", "json", "-rff", results.get().asFile.path)
+    (project.findProperty("jmhArgs") as String?)?.let { args(it.split(" ")) }
+}
+
+// ./gradlew solve --args="--solver trail --threads 8 puzzles.txt"
+tasks.register<JavaExec>("solve") {
+    group = "application"
+    description = "Solves a file of puzzles, or standard input, writing solutions to standard output."
+    classpath = sourceSets.main.get().runtimeClasspath
+    mainClass.set("com.tagadvance.sudoku.cli.SolveCommand")
+    standardInput = System.`in`
+}
+
 group = "com.tagadvance"
 version = "1.0.0"
 
@@ -0,0 +1,30 @@
+plugins {
+    `java-library`
+    application
+}
+
+repositories {
+    mavenCentral()
+}
+
+dependencies {
+    implementation(rootProject)
+    implementation("com.google.guava:guava:33.4.8-jre")
+
+    testImplementation("org.junit.jupiter:junit-jupiter:5.+")
+    testRuntimeOnly("org.junit.platform:junit-platform-launcher")
+}
+
+java {
+    toolchain {
+        languageVersion.set(JavaLanguageVersion.of(17))
+    }
+}
+
+application {
+    mainClass.set("com.tagadvance.sudoku.service.SolveServer")
+}
+
+tasks.named<Test>("test") {
+    useJUnitPlatform()
+}
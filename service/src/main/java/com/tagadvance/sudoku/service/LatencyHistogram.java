@@ -0,0 +1,73 @@
+package com.tagadvance.sudoku.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts latencies in power-of-two buckets of nanoseconds. Recording is lock-free and safe for any
+ * number of threads; percentiles are reported as the upper bound of the bucket they fall in, so
+ * they are accurate to within a factor of two.
+ */
+final class LatencyHistogram {
+
+	private final AtomicLongArray buckets = new AtomicLongArray(Long.SIZE);
+
+	private final LongAdder errors = new LongAdder(), totalNanos = new LongAdder();
+
+	private final AtomicLong maxNanos = new AtomicLong();
+
+	/**
+	 * @param nanos latency of one request
+	 * @param error {@code true} if the request failed
+	 */
+	void record(long nanos, final boolean error) {
+		nanos = Math.max(nanos, 0);
+		// bucket i holds latencies from 2^i to 2^(i + 1) - 1, and bucket 0 also holds 0
+		buckets.incrementAndGet(nanos == 0 ? 0 : Long.SIZE - 1 - Long.numberOfLeadingZeros(nanos));
+		if (error) {
+			errors.increment();
+		}
+		totalNanos.add(nanos);
+		if (nanos > maxNanos.get()) {
+			maxNanos.accumulateAndGet(nanos, Math::max);
+		}
+	}
+
+	LatencySnapshot snapshot() {
+		final var counts = new long[buckets.length()];
+		long total = 0;
+		for (int i = 0; i < counts.length; i++) {
+			counts[i] = buckets.get(i);
+			total += counts[i];
+		}
+
+		final var max = maxNanos.get();
+		final var mean = total == 0 ? 0 : totalNanos.sum() / total;
+
+		return new LatencySnapshot(total, errors.sum(), mean, percentile(counts, total, 0.5, max),
+			percentile(counts, total, 0.99, max), max);
+	}
+
+	/**
+	 * @return the upper bound of the bucket holding the percentile, capped at the maximum
+	 */
+	private static long percentile(final long[] counts, final long total, final double percentile,
+		final long max) {
+		if (total == 0) {
+			return 0;
+		}
+
+		final var rank = (long) Math.ceil(total * percentile);
+		long seen = 0;
+		for (int i = 0; i < counts.length; i++) {
+			seen += counts[i];
+			if (seen >= rank) {
+				return Math.min(i == Long.SIZE - 1 ? Long.MAX_VALUE : (2L << i) - 1, max);
+			}
+		}
+
+		return max;
+	}
+
+}
@@ -0,0 +1,28 @@
+package com.tagadvance.sudoku.service;
+
+import com.google.common.base.MoreObjects;
+
+/**
+ * @param requests   number of requests completed
+ * @param errors     number of those requests answered with an error status
+ * @param meanNanos  mean latency
+ * @param p50Nanos   median latency, rounded up to a power of two
+ * @param p99Nanos   99th percentile latency, rounded up to a power of two
+ * @param maxNanos   latency of the slowest request
+ */
+public record LatencySnapshot(long requests, long errors, long meanNanos, long p50Nanos,
+							  long p99Nanos, long maxNanos) {
+
+	@Override
+	public String toString() {
+		return MoreObjects.toStringHelper(LatencySnapshot.class)
+			.add("requests", requests)
+			.add("errors", errors)
+			.add("meanNanos", meanNanos)
+			.add("p50Nanos", p50Nanos)
+			.add("p99Nanos", p99Nanos)
+			.add("maxNanos", maxNanos)
+			.toString();
+	}
+
+}
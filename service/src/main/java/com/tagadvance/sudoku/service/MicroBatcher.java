@@ -0,0 +1,210 @@
+package com.tagadvance.sudoku.service;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.tagadvance.sudoku.BatchSudokuSolver;
+import com.tagadvance.sudoku.Grid;
+import com.tagadvance.sudoku.Sudoku;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Admits grids into a bounded queue and hands them to a {@link BatchSudokuSolver} in batches. A
+ * dispatcher thread takes the first waiting grid and then keeps collecting until either the batch is
+ * full or the batch delay has passed since the first grid was taken, so that a burst of requests
+ * costs one handoff rather than one per grid while a lone request waits at most the batch delay.
+ * <p>
+ * No more than a fixed number of batches are solved at a time. Once that many are running the
+ * dispatcher stops taking grids, so the queue fills up and further grids are rejected rather than
+ * piling up in the solver. Grids whose futures are already done, because the caller cancelled them
+ * or gave up waiting, are dropped instead of being batched.
+ */
+final class MicroBatcher<V> implements AutoCloseable {
+
+	private static final long IDLE_POLL_MILLIS = 100;
+
+	private final Sudoku<V> sudoku;
+
+	private final BatchSudokuSolver solver;
+
+	private final Executor executor;
+
+	private final BlockingQueue<Request<V>> queue;
+
+	private final int maxBatchSize;
+
+	private final long maxBatchDelayNanos;
+
+	private final Semaphore batchPermits;
+
+	private final Thread dispatcher;
+
+	private final LongAdder batchCount = new LongAdder();
+
+	private volatile boolean closed;
+
+	/**
+	 * @param sudoku
+	 * @param solver        solver to solve each batch with
+	 * @param executor      executor on which the results of each batch are collected
+	 * @param queueCapacity number of grids that may wait for a batch
+	 * @param maxBatchSize  largest number of grids in a batch
+	 * @param maxBatchDelay longest time to wait for a batch to fill
+	 * @param maxBatches    number of batches that may be solved at a time
+	 */
+	MicroBatcher(final Sudoku<V> sudoku, final BatchSudokuSolver solver, final Executor executor,
+		final int queueCapacity, final int maxBatchSize, final Duration maxBatchDelay,
+		final int maxBatches) {
+		super();
+		this.sudoku = checkNotNull(sudoku, "sudoku must not be null");
+		this.solver = checkNotNull(solver, "solver must not be null");
+		this.executor = checkNotNull(executor, "executor must not be null");
+		checkArgument(queueCapacity > 0, "queueCapacity must be a positive integer");
+		checkArgument(maxBatchSize > 0, "maxBatchSize must be a positive integer");
+		checkNotNull(maxBatchDelay, "maxBatchDelay must not be null");
+		checkArgument(!maxBatchDelay.isNegative(), "maxBatchDelay must not be negative");
+		checkArgument(maxBatches > 0, "maxBatches must be a positive integer");
+		this.batchPermits = new Semaphore(maxBatches);
+		this.queue = new ArrayBlockingQueue<>(queueCapacity);
+		this.maxBatchSize = maxBatchSize;
+		this.maxBatchDelayNanos = maxBatchDelay.toNanos();
+		this.dispatcher = new Thread(this::dispatch, "sudoku-service-dispatcher");
+		this.dispatcher.setDaemon(true);
+		this.dispatcher.start();
+	}
+
+	/**
+	 * @param grid grid to solve, which is not modified
+	 * @return the solution, or {@code null} if the grid has no solution; cancelled if the batcher is
+	 * closed before the grid is batched. Cancelling the future before the grid is batched keeps it
+	 * from being solved.
+	 * @throws RejectedExecutionException if the queue is full or the batcher is closed
+	 */
+	CompletableFuture<Grid<V>> submit(final Grid<V> grid) {
+		checkNotNull(grid, "grid must not be null");
+
+		final var request = new Request<>(grid, new CompletableFuture<Grid<V>>());
+		if (closed || !queue.offer(request)) {
+			throw new RejectedExecutionException(closed ? "closed" : "queue is full");
+		} else if (closed && queue.remove(request)) {
+			// close() may have drained the queue before the request was added
+			throw new RejectedExecutionException("closed");
+		}
+
+		return request.future;
+	}
+
+	/**
+	 * @return number of grids waiting for a batch
+	 */
+	int getQueueSize() {
+		return queue.size();
+	}
+
+	/**
+	 * @return number of batches handed to the solver
+	 */
+	long getBatchCount() {
+		return batchCount.sum();
+	}
+
+	private void dispatch() {
+		final var batch = new ArrayList<Request<V>>(maxBatchSize);
+		while (!closed) {
+			try {
+				batchPermits.acquire();
+				final var first = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+				if (first == null || first.future.isDone()) {
+					batchPermits.release();
+					continue;
+				}
+
+				batch.add(first);
+				final var deadline = System.nanoTime() + maxBatchDelayNanos;
+				while (batch.size() < maxBatchSize) {
+					final var next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+					if (next == null) {
+						break;
+					} else if (!next.future.isDone()) {
+						batch.add(next);
+					}
+				}
+			} catch (final InterruptedException e) {
+				break;
+			}
+
+			final var requests = List.copyOf(batch);
+			batch.clear();
+			try {
+				executor.execute(() -> complete(requests));
+				batchCount.increment();
+			} catch (final RejectedExecutionException e) {
+				batchPermits.release();
+				requests.forEach(request -> request.future.completeExceptionally(e));
+			}
+		}
+
+		batch.forEach(request -> request.future.cancel(false));
+	}
+
+	/**
+	 * Solves a batch and completes its futures in order. Futures are completed exceptionally if the
+	 * batch cannot be solved, so that no caller waits for a result that will not come.
+	 */
+	private void complete(final List<Request<V>> requests) {
+		RuntimeException failure = null;
+		try (final var results = solver.solve(sudoku,
+			requests.stream().map(Request::grid).iterator())) {
+			for (final var request : requests) {
+				try {
+					request.future.complete(results.next());
+				} catch (final RuntimeException e) {
+					request.future.completeExceptionally(e);
+				}
+			}
+		} catch (final RuntimeException e) {
+			failure = e;
+		} finally {
+			batchPermits.release();
+			for (final var request : requests) {
+				if (!request.future.isDone()) {
+					request.future.completeExceptionally(
+						failure != null ? failure : new IllegalStateException("batch was not solved"));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Stops the dispatcher and cancels every grid that has not been batched yet.
+	 */
+	@Override
+	public void close() {
+		closed = true;
+		dispatcher.interrupt();
+		try {
+			dispatcher.join();
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+
+		for (Request<V> request; (request = queue.poll()) != null; ) {
+			request.future.cancel(false);
+		}
+	}
+
+	private record Request<V>(Grid<V> grid, CompletableFuture<Grid<V>> future) {
+
+	}
+
+}
@@ -0,0 +1,49 @@
+package com.tagadvance.sudoku.service;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.lang.reflect.InvocationTargetException;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Executors for handling requests. The service is built for JDK 17, so virtual threads are looked
+ * up reflectively and only used when the running JDK has them.
+ */
+public final class ServiceExecutors {
+
+	private ServiceExecutors() {
+		super();
+	}
+
+	/**
+	 * @return an executor starting a virtual thread per task, or empty if the JDK does not support
+	 * virtual threads
+	 */
+	public static Optional<ExecutorService> newVirtualThreadPerTaskExecutor() {
+		try {
+			final var method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+
+			return Optional.of((ExecutorService) method.invoke(null));
+		} catch (final NoSuchMethodException | IllegalAccessException e) {
+			return Optional.empty();
+		} catch (final InvocationTargetException e) {
+			// virtual threads are a preview feature on some JDKs and fail unless it is enabled
+			if (e.getCause() instanceof UnsupportedOperationException) {
+				return Optional.empty();
+			}
+
+			throw new IllegalStateException(e.getCause());
+		}
+	}
+
+	/**
+	 * @return an executor of virtual threads if the JDK supports them, otherwise a cached pool of
+	 * daemon platform threads
+	 */
+	public static ExecutorService newDefaultExecutor() {
+		return newVirtualThreadPerTaskExecutor().orElseGet(() -> Executors.newCachedThreadPool(
+			new ThreadFactoryBuilder().setNameFormat("sudoku-service-%d").setDaemon(true).build()));
+	}
+
+}
@@ -0,0 +1,392 @@
+package com.tagadvance.sudoku.service;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.collect.ImmutableMap;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.tagadvance.sudoku.BatchSudokuSolver;
+import com.tagadvance.sudoku.Grid;
+import com.tagadvance.sudoku.IntegerSudokuParser;
+import com.tagadvance.sudoku.SudokuBuilder;
+import com.tagadvance.sudoku.SudokuBuilder.SudokuFactory;
+import com.tagadvance.sudoku.SudokuSolver;
+import com.tagadvance.sudoku.TrailSudokuSolver;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Serves a {@link SudokuSolver} over HTTP using the JDK's built-in server. Puzzles are admitted into
+ * a bounded queue and solved in micro-batches by a {@link BatchSudokuSolver}.
+ * <ul>
+ *     <li>{@code POST /solve} takes one puzzle in any format understood by
+ *     {@link IntegerSudokuParser} and answers {@code 200} with the solution written by
+ *     {@link IntegerSudokuParser#format(Grid)}, {@code 422} if it has no solution, {@code 400} if
+ *     it cannot be parsed, {@code 503} if the queue is full and {@code 504} if it is not solved
+ *     within the request timeout.</li>
+ *     <li>{@code GET /metrics} answers with the latency of every endpoint, one line per endpoint,
+ *     followed by the size of the queue and the number of batches.</li>
+ * </ul>
+ * The server binds to the loopback address unless told otherwise.
+ */
+public class SolveServer implements AutoCloseable {
+
+	private static final int MAX_BODY_BYTES = 1 << 16;
+
+	private final HttpServer server;
+
+	private final ExecutorService executor;
+
+	private final boolean ownsExecutor;
+
+	private final BatchSudokuSolver batchSolver;
+
+	private final MicroBatcher<Integer> batcher;
+
+	private final SudokuFactory<Integer> factory;
+
+	private final IntegerSudokuParser parser = new IntegerSudokuParser();
+
+	private final Duration requestTimeout;
+
+	private final Map<String, LatencyHistogram> latencies = new LinkedHashMap<>();
+
+	private SolveServer(final Builder builder) throws IOException {
+		super();
+		// bind before starting anything that would have to be stopped if the address is taken
+		this.server = HttpServer.create(builder.address, 0);
+		this.factory = SudokuBuilder.newBuilder().createBitmaskSudokuFactory(builder.size);
+		this.ownsExecutor = builder.executor == null;
+		this.executor = ownsExecutor ? ServiceExecutors.newDefaultExecutor() : builder.executor;
+		this.requestTimeout = builder.requestTimeout;
+		this.batchSolver = new BatchSudokuSolver(builder.solverFactory, executor,
+			builder.parallelism);
+		this.batcher = new MicroBatcher<>(factory.createSudoku(), batchSolver, executor,
+			builder.queueCapacity, builder.maxBatchSize, builder.maxBatchDelay, builder.parallelism);
+
+		server.setExecutor(executor);
+		context("/solve", "POST", this::solve);
+		context("/metrics", "GET", this::metrics);
+		server.start();
+	}
+
+	public static Builder newBuilder() {
+		return new Builder();
+	}
+
+	/**
+	 * Starts a server on the loopback address, by default on port {@code 8080}.
+	 *
+	 * @param args optional port
+	 */
+	public static void main(final String[] args) throws IOException {
+		final var port = args.length > 0 ? Integer.parseInt(args[0]) : 8080;
+		final var server = newBuilder().port(port).start();
+		System.out.println("listening on " + server.getAddress());
+	}
+
+	private void context(final String path, final String method, final Handler handler) {
+		final var histogram = new LatencyHistogram();
+		latencies.put(path, histogram);
+		server.createContext(path, exchange -> {
+			final var start = System.nanoTime();
+			var status = 500;
+			try (exchange) {
+				if (!exchange.getRequestMethod().equals(method)) {
+					exchange.getResponseHeaders().set("Allow", method);
+					status = respond(exchange, 405, "method not allowed");
+				} else {
+					status = handler.handle(exchange);
+				}
+			} finally {
+				histogram.record(System.nanoTime() - start, status >= 400);
+			}
+		});
+	}
+
+	private int solve(final HttpExchange exchange) throws IOException {
+		final var body = exchange.getRequestBody().readNBytes(MAX_BODY_BYTES + 1);
+		if (body.length > MAX_BODY_BYTES) {
+			return respond(exchange, 413, "puzzle is too large");
+		}
+
+		final Grid<Integer> grid;
+		try {
+			grid = parse(new String(body, StandardCharsets.UTF_8));
+		} catch (final IllegalArgumentException | IndexOutOfBoundsException e) {
+			return respond(exchange, 400, "puzzle cannot be parsed");
+		}
+
+		final CompletableFuture<Grid<Integer>> future;
+		try {
+			future = batcher.submit(grid);
+		} catch (final RejectedExecutionException e) {
+			exchange.getResponseHeaders().set("Retry-After", "1");
+
+			return respond(exchange, 503, "server is busy");
+		}
+
+		final Grid<Integer> solution;
+		try {
+			solution = future.get(requestTimeout.toNanos(), TimeUnit.NANOSECONDS);
+		} catch (final TimeoutException e) {
+			// keep the puzzle from being solved if it has not been batched yet
+			future.cancel(false);
+
+			return respond(exchange, 504, "puzzle was not solved in time");
+		} catch (final CancellationException e) {
+			return respond(exchange, 503, "server is shutting down");
+		} catch (final InterruptedException e) {
+			future.cancel(false);
+			Thread.currentThread().interrupt();
+
+			return respond(exchange, 503, "server is shutting down");
+		} catch (final ExecutionException e) {
+			if (e.getCause() instanceof RejectedExecutionException) {
+				return respond(exchange, 503, "server is shutting down");
+			}
+
+			return respond(exchange, 500, "puzzle could not be solved");
+		}
+
+		if (solution == null) {
+			return respond(exchange, 422, "puzzle has no solution");
+		}
+
+		return respond(exchange, 200, parser.format(solution));
+	}
+
+	private Grid<Integer> parse(final String puzzle) {
+		final var grid = factory.createEmptyGrid();
+		checkArgument(!puzzle.isBlank(), "puzzle must not be empty");
+		parser.populateSudokuFromString(grid, puzzle);
+
+		return grid;
+	}
+
+	private int metrics(final HttpExchange exchange) throws IOException {
+		final var builder = new StringBuilder();
+		getMetrics().forEach((path, snapshot) -> builder.append(path)
+			.append(" requests=").append(snapshot.requests())
+			.append(" errors=").append(snapshot.errors())
+			.append(" meanNanos=").append(snapshot.meanNanos())
+			.append(" p50Nanos=").append(snapshot.p50Nanos())
+			.append(" p99Nanos=").append(snapshot.p99Nanos())
+			.append(" maxNanos=").append(snapshot.maxNanos())
+			.append('\n'));
+		builder.append("queue size=").append(getQueueSize()).append('\n');
+		builder.append("batches count=").append(getBatchCount()).append('\n');
+
+		return respond(exchange, 200, builder.toString());
+	}
+
+	private static int respond(final HttpExchange exchange, final int status, final String body)
+		throws IOException {
+		final var bytes = (body.endsWith("\n") ? body : body + "\n").getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+		exchange.sendResponseHeaders(status, bytes.length);
+		exchange.getResponseBody().write(bytes);
+
+		return status;
+	}
+
+	/**
+	 * @return the address the server is listening on
+	 */
+	public InetSocketAddress getAddress() {
+		return server.getAddress();
+	}
+
+	/**
+	 * @return number of puzzles waiting for a batch
+	 */
+	public int getQueueSize() {
+		return batcher.getQueueSize();
+	}
+
+	/**
+	 * @return number of batches of puzzles handed to the solver
+	 */
+	public long getBatchCount() {
+		return batcher.getBatchCount();
+	}
+
+	/**
+	 * @return the latency of every endpoint keyed on its path
+	 */
+	public ImmutableMap<String, LatencySnapshot> getMetrics() {
+		return latencies.entrySet()
+			.stream()
+			.collect(ImmutableMap.toImmutableMap(Map.Entry::getKey,
+				entry -> entry.getValue().snapshot()));
+	}
+
+	/**
+	 * Stops accepting requests, cancels the puzzles still waiting for a batch and shuts down the
+	 * executor if it was created by the server.
+	 */
+	@Override
+	public void close() {
+		server.stop(0);
+		batcher.close();
+		batchSolver.close();
+		if (ownsExecutor) {
+			executor.shutdownNow();
+		}
+	}
+
+	@FunctionalInterface
+	private interface Handler {
+
+		/**
+		 * @return the status of the response that was sent
+		 */
+		int handle(HttpExchange exchange) throws IOException;
+
+	}
+
+	public static class Builder {
+
+		private InetSocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), 0);
+
+		private int size = 9;
+
+		private Supplier<? extends SudokuSolver> solverFactory = TrailSudokuSolver::new;
+
+		private ExecutorService executor;
+
+		private int parallelism = Runtime.getRuntime().availableProcessors();
+
+		private int queueCapacity = 1024;
+
+		private int maxBatchSize = 64;
+
+		private Duration maxBatchDelay = Duration.ofMillis(1);
+
+		private Duration requestTimeout = Duration.ofSeconds(30);
+
+		private Builder() {
+			super();
+		}
+
+		/**
+		 * @param address address to bind to, which defaults to an ephemeral port on the loopback
+		 *                address
+		 */
+		public Builder address(final InetSocketAddress address) {
+			this.address = checkNotNull(address, "address must not be null");
+
+			return this;
+		}
+
+		/**
+		 * @param port port to bind to on the loopback address
+		 */
+		public Builder port(final int port) {
+			return address(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+		}
+
+		/**
+		 * @param size width and height of the puzzles served, which defaults to {@code 9}
+		 */
+		public Builder size(final int size) {
+			checkArgument(size > 0 && size <= Long.SIZE, "size must be between 1 and %s", Long.SIZE);
+			this.size = size;
+
+			return this;
+		}
+
+		/**
+		 * @param solverFactory creates the solver of each worker, which defaults to
+		 *                      {@link TrailSudokuSolver}
+		 */
+		public Builder solverFactory(final Supplier<? extends SudokuSolver> solverFactory) {
+			this.solverFactory = checkNotNull(solverFactory, "solverFactory must not be null");
+
+			return this;
+		}
+
+		/**
+		 * @param executor executor to handle requests and solve batches on, which the server will not
+		 *                 shut down; defaults to {@link ServiceExecutors#newDefaultExecutor()}. Request
+		 *                 handlers block until their puzzle is solved, so the executor must be able to
+		 *                 run more tasks than there are concurrent requests.
+		 */
+		public Builder executor(final ExecutorService executor) {
+			this.executor = checkNotNull(executor, "executor must not be null");
+
+			return this;
+		}
+
+		/**
+		 * @param parallelism number of puzzles solved at a time and of batches solved at a time, which
+		 *                    defaults to the number of available processors
+		 */
+		public Builder parallelism(final int parallelism) {
+			checkArgument(parallelism > 0, "parallelism must be a positive integer");
+			this.parallelism = parallelism;
+
+			return this;
+		}
+
+		/**
+		 * @param queueCapacity number of puzzles that may wait for a batch before requests are
+		 *                      rejected
+		 */
+		public Builder queueCapacity(final int queueCapacity) {
+			checkArgument(queueCapacity > 0, "queueCapacity must be a positive integer");
+			this.queueCapacity = queueCapacity;
+
+			return this;
+		}
+
+		/**
+		 * @param maxBatchSize  largest number of puzzles in a batch
+		 * @param maxBatchDelay longest time to wait for a batch to fill
+		 */
+		public Builder batching(final int maxBatchSize, final Duration maxBatchDelay) {
+			checkArgument(maxBatchSize > 0, "maxBatchSize must be a positive integer");
+			checkNotNull(maxBatchDelay, "maxBatchDelay must not be null");
+			checkArgument(!maxBatchDelay.isNegative(), "maxBatchDelay must not be negative");
+			this.maxBatchSize = maxBatchSize;
+			this.maxBatchDelay = maxBatchDelay;
+
+			return this;
+		}
+
+		/**
+		 * @param requestTimeout longest time a request waits for its solution
+		 */
+		public Builder requestTimeout(final Duration requestTimeout) {
+			checkNotNull(requestTimeout, "requestTimeout must not be null");
+			checkArgument(!requestTimeout.isNegative(), "requestTimeout must not be negative");
+			this.requestTimeout = requestTimeout;
+
+			return this;
+		}
+
+		/**
+		 * @return a running server
+		 * @throws IOException if the address cannot be bound
+		 */
+		public SolveServer start() throws IOException {
+			return new SolveServer(this);
+		}
+
+	}
+
+}
@@ -0,0 +1,212 @@
+package com.tagadvance.sudoku.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.tagadvance.sudoku.Grid;
+import com.tagadvance.sudoku.Sudoku;
+import com.tagadvance.sudoku.SudokuSolver;
+import com.tagadvance.sudoku.TrailSudokuSolver;
+import java.io.IOException;
+import java.net.BindException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class SolveServerTest {
+
+	private static final String PUZZLE = "?4?6??2?3153?????????3??????158??9??23?1?5?46??9??452??????8?????????6593?1??9?7?";
+
+	private static final String SOLUTION = "748651293153982764962347185415826937237195846689734521596478312874213659321569478";
+
+	private final HttpClient client = HttpClient.newHttpClient();
+
+	@Test
+	void solveAnswersWithSolution() throws Exception {
+		try (final var server = SolveServer.newBuilder().start()) {
+			final var response = post(server, PUZZLE);
+
+			assertEquals(200, response.statusCode());
+			assertEquals(SOLUTION, response.body().strip());
+		}
+	}
+
+	@Test
+	void errorsAreReportedWithStatus() throws Exception {
+		try (final var server = SolveServer.newBuilder().start()) {
+			assertEquals(422, post(server, "11").statusCode());
+			assertEquals(400, post(server, "").statusCode());
+			assertEquals(400, post(server, PUZZLE + PUZZLE).statusCode());
+
+			final var request = HttpRequest.newBuilder(uri(server, "/solve")).GET().build();
+			assertEquals(405, client.send(request, BodyHandlers.ofString()).statusCode());
+		}
+	}
+
+	@Test
+	void concurrentRequestsAreBatched() throws Exception {
+		try (final var server = SolveServer.newBuilder()
+			.batching(16, Duration.ofMillis(5))
+			.start()) {
+			final var responses = new CompletableFuture<?>[32];
+			for (int i = 0; i < responses.length; i++) {
+				responses[i] = client.sendAsync(solveRequest(server, PUZZLE), BodyHandlers.ofString())
+					.thenAccept(response -> {
+						assertEquals(200, response.statusCode());
+						assertEquals(SOLUTION, response.body().strip());
+					});
+			}
+			CompletableFuture.allOf(responses).get(30, TimeUnit.SECONDS);
+
+			assertEquals(32, server.getMetrics().get("/solve").requests());
+			assertTrue(server.getBatchCount() < 32, "batches: " + server.getBatchCount());
+		}
+	}
+
+	@Test
+	void fullQueueRejectsRequests() throws Exception {
+		final var started = new CountDownLatch(1);
+		final var release = new CountDownLatch(1);
+		final var solver = new BlockingSudokuSolver(started, release);
+		try (final var server = SolveServer.newBuilder()
+			.solverFactory(() -> solver)
+			.parallelism(1)
+			.queueCapacity(1)
+			.batching(1, Duration.ZERO)
+			.start()) {
+			// the first puzzle occupies the only batch and the second fills the queue
+			final var first = client.sendAsync(solveRequest(server, PUZZLE), BodyHandlers.ofString());
+			assertTrue(started.await(10, TimeUnit.SECONDS));
+			final var second = client.sendAsync(solveRequest(server, PUZZLE), BodyHandlers.ofString());
+			while (server.getQueueSize() == 0) {
+				Thread.sleep(1);
+			}
+
+			final var rejected = post(server, PUZZLE);
+			assertEquals(503, rejected.statusCode());
+
+			release.countDown();
+			assertEquals(200, first.get(10, TimeUnit.SECONDS).statusCode());
+			assertEquals(200, second.get(10, TimeUnit.SECONDS).statusCode());
+
+			final var metrics = server.getMetrics().get("/solve");
+			assertEquals(3, metrics.requests());
+			assertEquals(1, metrics.errors());
+		}
+	}
+
+	@Test
+	void timedOutRequestIsNotSolved() throws Exception {
+		final var started = new CountDownLatch(1);
+		final var release = new CountDownLatch(1);
+		final var solver = new BlockingSudokuSolver(started, release);
+		try (final var server = SolveServer.newBuilder()
+			.solverFactory(() -> solver)
+			.parallelism(1)
+			.batching(1, Duration.ZERO)
+			.requestTimeout(Duration.ofMillis(200))
+			.start()) {
+			// the first puzzle occupies the only batch so the second times out in the queue
+			final var first = client.sendAsync(solveRequest(server, PUZZLE), BodyHandlers.ofString());
+			assertTrue(started.await(10, TimeUnit.SECONDS));
+			assertEquals(504, post(server, PUZZLE).statusCode());
+			assertEquals(504, first.get(10, TimeUnit.SECONDS).statusCode());
+
+			release.countDown();
+			assertEquals(200, post(server, PUZZLE).statusCode());
+			assertEquals(2, server.getBatchCount());
+		}
+	}
+
+	@Test
+	void portInUseStartsNothing() throws Exception {
+		try (final var server = SolveServer.newBuilder().start()) {
+			final var dispatchers = countDispatchers();
+
+			assertThrows(BindException.class,
+				() -> SolveServer.newBuilder().address(server.getAddress()).start());
+			assertEquals(dispatchers, countDispatchers());
+		}
+	}
+
+	@Test
+	void metricsListEveryEndpoint() throws Exception {
+		try (final var server = SolveServer.newBuilder().start()) {
+			post(server, PUZZLE);
+
+			final var request = HttpRequest.newBuilder(uri(server, "/metrics")).GET().build();
+			final var response = client.send(request, BodyHandlers.ofString());
+
+			assertEquals(200, response.statusCode());
+			assertTrue(response.body().contains("/solve requests=1 errors=0"), response.body());
+			assertTrue(response.body().contains("/metrics requests=0"), response.body());
+		}
+	}
+
+	private static long countDispatchers() {
+		return Thread.getAllStackTraces()
+			.keySet()
+			.stream()
+			.filter(thread -> thread.getName().equals("sudoku-service-dispatcher"))
+			.count();
+	}
+
+	private HttpResponse<String> post(final SolveServer server, final String puzzle)
+		throws IOException, InterruptedException {
+		return client.send(solveRequest(server, puzzle), BodyHandlers.ofString());
+	}
+
+	private static HttpRequest solveRequest(final SolveServer server, final String puzzle) {
+		return HttpRequest.newBuilder(uri(server, "/solve"))
+			.POST(BodyPublishers.ofString(puzzle))
+			.build();
+	}
+
+	private static URI uri(final SolveServer server, final String path) {
+		final var address = server.getAddress();
+
+		return URI.create(
+			"http://" + address.getHostString() + ":" + address.getPort() + path);
+	}
+
+	/**
+	 * Waits to be released before solving.
+	 */
+	private static class BlockingSudokuSolver implements SudokuSolver {
+
+		private final CountDownLatch started, release;
+
+		private final SudokuSolver solver = new TrailSudokuSolver();
+
+		public BlockingSudokuSolver(final CountDownLatch started, final CountDownLatch release) {
+			super();
+			this.started = started;
+			this.release = release;
+		}
+
+		@Override
+		public <V> Grid<V> solve(final Sudoku<V> sudoku, final Grid<V> grid) {
+			started.countDown();
+			try {
+				release.await();
+			} catch (final InterruptedException e) {
+				Thread.currentThread().interrupt();
+
+				return null;
+			}
+
+			return solver.solve(sudoku, grid);
+		}
+
+	}
+
+}
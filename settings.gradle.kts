@@ -1 +1,2 @@
 rootProject.name = "Sudoku"
+include("service")
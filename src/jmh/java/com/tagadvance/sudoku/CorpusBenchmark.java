@@ -0,0 +1,149 @@
+package com.tagadvance.sudoku;
+
+import com.google.common.collect.ImmutableList;
+import com.tagadvance.geometry.Dimension;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks over the 9x9 puzzle corpora in {@code /corpus}. Each invocation processes every puzzle
+ * of the corpus once.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CorpusBenchmark {
+
+	@Param({"easy", "medium", "hard", "17-clue"})
+	private String corpus;
+
+	private ImmutableList<String> puzzles;
+
+	private Sudoku<Integer> sudoku;
+
+	private Grid<Integer> emptyGrid;
+
+	private ImmutableList<Grid<Integer>> grids;
+
+	private ImmutableList<Grid<Integer>> solutions;
+
+	private ByteBuffer binaryPuzzles;
+
+	private final IntegerSudokuParser parser = new IntegerSudokuParser();
+
+	private final SimpleSudokuSolver simpleSolver = new SimpleSudokuSolver();
+	private final ForkJoinSudokuSolver forkJoinSolver = new ForkJoinSudokuSolver();
+	private final DlxSudokuSolver dlxSolver = new DlxSudokuSolver();
+	private final PropagatingSudokuSolver propagatingSolver = new PropagatingSudokuSolver();
+	private final TrailSudokuSolver trailSolver = new TrailSudokuSolver();
+
+	@Setup
+	public void setUp() {
+		puzzles = Puzzles.load(corpus);
+		sudoku = Puzzles.createSudoku(9);
+		emptyGrid = new FixedSizeGrid<>(new Dimension(9, 9));
+		grids = puzzles.stream().map(puzzle -> {
+			final var grid = emptyGrid.copy();
+			parser.populateSudokuFromString(grid, puzzle);
+
+			return grid;
+		}).collect(ImmutableList.toImmutableList());
+		solutions = grids.stream()
+			.map(grid -> dlxSolver.solve(sudoku, grid))
+			.collect(ImmutableList.toImmutableList());
+		binaryPuzzles = ByteBuffer.allocate(
+			grids.size() * BinaryGridCodec.encodedSize(emptyGrid.getSize()));
+		grids.forEach(grid -> BinaryGridCodec.encode(grid, binaryPuzzles));
+		binaryPuzzles.flip();
+	}
+
+	@Benchmark
+	public void simpleSolve(final Blackhole blackhole) {
+		for (final var grid : grids) {
+			blackhole.consume(simpleSolver.solve(sudoku, grid));
+		}
+	}
+
+	@Benchmark
+	public void forkJoinSolve(final Blackhole blackhole) {
+		for (final var grid : grids) {
+			blackhole.consume(forkJoinSolver.solve(sudoku, grid));
+		}
+	}
+
+	@Benchmark
+	public void dlxSolve(final Blackhole blackhole) {
+		for (final var grid : grids) {
+			blackhole.consume(dlxSolver.solve(sudoku, grid));
+		}
+	}
+
+	@Benchmark
+	public void propagatingSolve(final Blackhole blackhole) {
+		for (final var grid : grids) {
+			blackhole.consume(propagatingSolver.solve(sudoku, grid));
+		}
+	}
+
+	@Benchmark
+	public void trailSolve(final Blackhole blackhole) {
+		for (final var grid : grids) {
+			blackhole.consume(trailSolver.solve(sudoku, grid));
+		}
+	}
+
+	@Benchmark
+	public void dlxIsUnique(final Blackhole blackhole) {
+		for (final var grid : grids) {
+			blackhole.consume(dlxSolver.isUnique(sudoku, grid));
+		}
+	}
+
+	@Benchmark
+	public void getPotentialValuesForCell(final Blackhole blackhole) {
+		for (final var grid : grids) {
+			for (final var cell : grid.getCells()) {
+				if (cell.isEmpty()) {
+					blackhole.consume(sudoku.getPotentialValuesForCell(grid, cell));
+				}
+			}
+		}
+	}
+
+	@Benchmark
+	public void populateSudokuFromString(final Blackhole blackhole) {
+		for (final var puzzle : puzzles) {
+			final var grid = emptyGrid.copy();
+			parser.populateSudokuFromString(grid, puzzle);
+			blackhole.consume(grid);
+		}
+	}
+
+	@Benchmark
+	public void decodeBinary(final Blackhole blackhole) {
+		BinaryGridCodec.readAll(binaryPuzzles.duplicate(), emptyGrid::copy, blackhole::consume);
+	}
+
+	@Benchmark
+	public void isSolved(final Blackhole blackhole) {
+		for (final var solution : solutions) {
+			blackhole.consume(sudoku.isSolved(solution));
+		}
+	}
+
+}
@@ -0,0 +1,109 @@
+package com.tagadvance.sudoku;
+
+import com.tagadvance.geometry.Dimension;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks over generated puzzles of different sizes. Puzzles are a patterned solution with half
+ * of the cells emptied, so they are easy but not trivial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GridSizeBenchmark {
+
+	private static final double EMPTY_FRACTION = 0.5;
+
+	private static final long SEED = 2012;
+
+	@Param({"4", "9", "16"})
+	private int size;
+
+	private Sudoku<Integer> sudoku;
+
+	private FixedSizeGrid<Integer> emptyGrid;
+
+	private FixedSizeGrid<Integer> solution;
+
+	private FixedSizeGrid<Integer> puzzle;
+
+	private PackedGrid packedPuzzle;
+
+	private String puzzleString;
+
+	private final IntegerSudokuParser parser = new IntegerSudokuParser();
+
+	private final SimpleSudokuSolver simpleSolver = new SimpleSudokuSolver();
+	private final ForkJoinSudokuSolver forkJoinSolver = new ForkJoinSudokuSolver();
+
+	@Setup
+	public void setUp() {
+		sudoku = Puzzles.createSudoku(size);
+		emptyGrid = new FixedSizeGrid<>(new Dimension(size, size));
+		solution = emptyGrid.copy();
+		Puzzles.fillSolution(solution);
+		puzzle = solution.copy();
+		Puzzles.removeClues(puzzle, EMPTY_FRACTION, SEED);
+		puzzleString = Puzzles.format(puzzle);
+		packedPuzzle = new PackedGrid(emptyGrid.getSize());
+		parser.populateSudokuFromString(packedPuzzle, puzzleString);
+	}
+
+	@Benchmark
+	public Grid<Integer> simpleSolve() {
+		return simpleSolver.solve(sudoku, puzzle);
+	}
+
+	@Benchmark
+	public Grid<Integer> forkJoinSolve() {
+		return forkJoinSolver.solve(sudoku, puzzle);
+	}
+
+	@Benchmark
+	public void getPotentialValuesForCell(final Blackhole blackhole) {
+		for (final var cell : puzzle.getCells()) {
+			if (cell.isEmpty()) {
+				blackhole.consume(sudoku.getPotentialValuesForCell(puzzle, cell));
+			}
+		}
+	}
+
+	@Benchmark
+	public FixedSizeGrid<Integer> copy() {
+		return puzzle.copy();
+	}
+
+	@Benchmark
+	public PackedGrid packedCopy() {
+		return packedPuzzle.copy();
+	}
+
+	@Benchmark
+	public Grid<Integer> populateSudokuFromString() {
+		final var grid = emptyGrid.copy();
+		parser.populateSudokuFromString(grid, puzzleString);
+
+		return grid;
+	}
+
+	@Benchmark
+	public boolean isSolved() {
+		return sudoku.isSolved(solution);
+	}
+
+}
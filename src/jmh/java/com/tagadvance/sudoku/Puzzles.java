@@ -0,0 +1,110 @@
+package com.tagadvance.sudoku;
+
+import static java.util.function.Predicate.not;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.io.CharStreams;
+import com.tagadvance.geometry.Dimension;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+/**
+ * Puzzles and sudokus shared by the benchmarks.
+ */
+final class Puzzles {
+
+	private Puzzles() {
+	}
+
+	/**
+	 * @param corpus name of a file in {@code /corpus} without its extension
+	 * @return puzzles in the format of {@link IntegerSudokuParser}
+	 */
+	static ImmutableList<String> load(final String corpus) {
+		final var path = "/corpus/" + corpus + ".txt";
+		try (final var is = Puzzles.class.getResourceAsStream(path)) {
+			if (is == null) {
+				throw new IllegalArgumentException("unknown corpus " + corpus);
+			}
+
+			try (final var in = new InputStreamReader(is, StandardCharsets.UTF_8)) {
+				return CharStreams.readLines(in)
+					.stream()
+					.map(String::trim)
+					.filter(not(line -> line.isEmpty() || line.startsWith("#")))
+					.collect(ImmutableList.toImmutableList());
+			}
+		} catch (final IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * @param size width and height of the grid, which must be a perfect square
+	 * @return a sudoku over the values {@code 1..size}
+	 */
+	static Sudoku<Integer> createSudoku(final int size) {
+		final var values = IntStream.rangeClosed(1, size)
+			.boxed()
+			.collect(ImmutableSet.toImmutableSet());
+		final var grid = new FixedSizeGrid<Integer>(new Dimension(size, size));
+		final var scopes = new SquareRootScopeFactory().createScopes(grid);
+
+		return new CompositeSudoku<>(values, scopes);
+	}
+
+	/**
+	 * Fills a grid with a solution built from a shifted pattern of the first row.
+	 *
+	 * @param grid square grid whose width is a perfect square
+	 */
+	static void fillSolution(final Grid<Integer> grid) {
+		final var size = grid.getSize().width();
+		final var blockSize = (int) Math.sqrt(size);
+		for (int y = 0; y < size; y++) {
+			for (int x = 0; x < size; x++) {
+				final var value = (blockSize * (y % blockSize) + y / blockSize + x) % size + 1;
+				grid.getCellAt(x, y).setValue(value);
+			}
+		}
+	}
+
+	/**
+	 * Empties a fraction of the cells of a grid.
+	 *
+	 * @param grid
+	 * @param fraction fraction of cells to empty
+	 * @param seed
+	 */
+	static void removeClues(final Grid<Integer> grid, final double fraction, final long seed) {
+		final var random = new Random(seed);
+		for (final var cell : grid.getCells()) {
+			if (random.nextDouble() < fraction) {
+				cell.setValue(null);
+			}
+		}
+	}
+
+	/**
+	 * @return the grid in the format of {@link IntegerSudokuParser}, with values above nine written
+	 * as letters
+	 */
+	static String format(final Grid<Integer> grid) {
+		final var sb = new StringBuilder();
+		for (final var cell : grid.getCells()) {
+			if (cell.isEmpty()) {
+				sb.append('?');
+			} else {
+				sb.append(Character.toUpperCase(Character.forDigit(cell.getValue(), Character.MAX_RADIX)));
+			}
+		}
+
+		return sb.toString();
+	}
+
+}
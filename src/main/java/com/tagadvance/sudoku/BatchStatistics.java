@@ -0,0 +1,37 @@
+package com.tagadvance.sudoku;
+
+import com.google.common.base.MoreObjects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @param puzzles         number of puzzles whose results have been consumed
+ * @param unsolved        number of those puzzles without a solution
+ * @param elapsedNanos    wall clock time from the start of the batch until its last result, or until
+ *                        now if it is still running
+ * @param totalSolveNanos time spent solving summed over those puzzles
+ * @param maxSolveNanos   time spent solving the slowest of those puzzles
+ */
+public record BatchStatistics(long puzzles, long unsolved, long elapsedNanos, long totalSolveNanos,
+							  long maxSolveNanos) {
+
+	public double puzzlesPerSecond() {
+		return elapsedNanos == 0 ? 0 : puzzles * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+	}
+
+	public long meanSolveNanos() {
+		return puzzles == 0 ? 0 : totalSolveNanos / puzzles;
+	}
+
+	@Override
+	public String toString() {
+		return MoreObjects.toStringHelper(BatchStatistics.class)
+			.add("puzzles", puzzles)
+			.add("unsolved", unsolved)
+			.add("elapsedNanos", elapsedNanos)
+			.add("puzzlesPerSecond", puzzlesPerSecond())
+			.add("meanSolveNanos", meanSolveNanos())
+			.add("maxSolveNanos", maxSolveNanos)
+			.toString();
+	}
+
+}
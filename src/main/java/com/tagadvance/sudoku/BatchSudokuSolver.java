@@ -0,0 +1,212 @@
+package com.tagadvance.sudoku;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.collect.Streams;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Solves many grids of the same sudoku concurrently, one grid per task, while returning solutions in
+ * the order the grids were supplied. Each worker thread gets its own solver from the factory and
+ * reuses it for every grid it solves.
+ * <p>
+ * Grids are pulled from the source lazily and at most {@code parallelism * 4} are in flight at a
+ * time, so arbitrarily long streams can be solved in bounded memory.
+ */
+public class BatchSudokuSolver implements AutoCloseable {
+
+	private static final int IN_FLIGHT_PER_THREAD = 4;
+
+	private final ThreadLocal<SudokuSolver> solvers;
+
+	private final ExecutorService executor;
+
+	private final boolean ownsExecutor;
+
+	private final int maxInFlight;
+
+	/**
+	 * Creates a solver with one worker thread per available processor.
+	 *
+	 * @param solverFactory
+	 */
+	public BatchSudokuSolver(final Supplier<? extends SudokuSolver> solverFactory) {
+		this(solverFactory, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * @param solverFactory
+	 * @param parallelism   number of worker threads
+	 */
+	public BatchSudokuSolver(final Supplier<? extends SudokuSolver> solverFactory,
+		final int parallelism) {
+		this(solverFactory, Executors.newFixedThreadPool(checkParallelism(parallelism),
+			new ThreadFactoryBuilder().setNameFormat("sudoku-batch-%d").setDaemon(true).build()),
+			parallelism, true);
+	}
+
+	/**
+	 * @param solverFactory
+	 * @param executor      executor to run solves on, which will not be shut down by
+	 *                      {@link #close()}
+	 * @param parallelism   number of threads the executor is expected to use
+	 */
+	public BatchSudokuSolver(final Supplier<? extends SudokuSolver> solverFactory,
+		final ExecutorService executor, final int parallelism) {
+		this(solverFactory, executor, parallelism, false);
+	}
+
+	private BatchSudokuSolver(final Supplier<? extends SudokuSolver> solverFactory,
+		final ExecutorService executor, final int parallelism, final boolean ownsExecutor) {
+		super();
+		checkNotNull(solverFactory, "solverFactory must not be null");
+		this.solvers = ThreadLocal.withInitial(
+			() -> checkNotNull(solverFactory.get(), "solverFactory must not return null"));
+		this.executor = checkNotNull(executor, "executor must not be null");
+		this.maxInFlight = checkParallelism(parallelism) * IN_FLIGHT_PER_THREAD;
+		this.ownsExecutor = ownsExecutor;
+	}
+
+	private static int checkParallelism(final int parallelism) {
+		checkArgument(parallelism > 0, "parallelism must be a positive integer");
+
+		return parallelism;
+	}
+
+	/**
+	 * @param sudoku
+	 * @param grids  grids to solve, which are not modified
+	 * @return solutions in the order of the grids, {@code null} where a grid has no solution
+	 */
+	public <V> Batch<V> solve(final Sudoku<V> sudoku, final Iterator<? extends Grid<V>> grids) {
+		checkNotNull(sudoku, "sudoku must not be null");
+		checkNotNull(grids, "grids must not be null");
+
+		return new Batch<>(sudoku, grids);
+	}
+
+	/**
+	 * @param sudoku
+	 * @param grids  grids to solve, which are not modified
+	 * @return solutions in the order of the grids, {@code null} where a grid has no solution
+	 */
+	public <V> Stream<Grid<V>> solve(final Sudoku<V> sudoku, final Stream<? extends Grid<V>> grids) {
+		checkNotNull(grids, "grids must not be null");
+
+		return solve(sudoku, grids.iterator()).stream().onClose(grids::close);
+	}
+
+	/**
+	 * Shuts down the executor if it was created by this solver.
+	 */
+	@Override
+	public void close() {
+		if (ownsExecutor) {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * @param solution the solution, or {@code null} if the grid has none
+	 * @param nanos    time spent solving the grid
+	 */
+	private record Solved<V>(Grid<V> solution, long nanos) {
+	}
+
+	/**
+	 * The ordered results of a batch. Instances are not thread-safe; consume them from one thread.
+	 */
+	public final class Batch<V> implements Iterator<Grid<V>>, AutoCloseable {
+
+		private final Sudoku<V> sudoku;
+
+		private final Iterator<? extends Grid<V>> source;
+
+		private final Deque<Future<Solved<V>>> pending = new ArrayDeque<>();
+
+		private final long startNanos = System.nanoTime();
+
+		private long endNanos;
+
+		/**
+		 * counted as results are consumed so that every statistic covers the same puzzles
+		 */
+		private long puzzles, unsolved, totalSolveNanos, maxSolveNanos;
+
+		private Batch(final Sudoku<V> sudoku, final Iterator<? extends Grid<V>> source) {
+			super();
+			this.sudoku = sudoku;
+			this.source = source;
+		}
+
+		@Override
+		public boolean hasNext() {
+			while (pending.size() < maxInFlight && source.hasNext()) {
+				final Grid<V> grid = source.next();
+				pending.add(executor.submit(() -> solve(grid)));
+			}
+
+			return !pending.isEmpty();
+		}
+
+		private Solved<V> solve(final Grid<V> grid) {
+			final var start = System.nanoTime();
+			final var solution = solvers.get().solve(sudoku, grid);
+
+			return new Solved<>(solution, System.nanoTime() - start);
+		}
+
+		@Override
+		public Grid<V> next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+
+			final var solved = Futures.getUnchecked(pending.remove());
+			puzzles++;
+			if (solved.solution() == null) {
+				unsolved++;
+			}
+			totalSolveNanos += solved.nanos();
+			maxSolveNanos = Math.max(maxSolveNanos, solved.nanos());
+			if (!hasNext()) {
+				endNanos = System.nanoTime();
+			}
+
+			return solved.solution();
+		}
+
+		public Stream<Grid<V>> stream() {
+			return Streams.stream(this).onClose(this::close);
+		}
+
+		public BatchStatistics getStatistics() {
+			final var end = endNanos == 0 ? System.nanoTime() : endNanos;
+
+			return new BatchStatistics(puzzles, unsolved, end - startNanos, totalSolveNanos,
+				maxSolveNanos);
+		}
+
+		/**
+		 * Cancels every grid that has been submitted but not yet consumed.
+		 */
+		@Override
+		public void close() {
+			pending.forEach(future -> future.cancel(true));
+			pending.clear();
+		}
+
+	}
+
+}
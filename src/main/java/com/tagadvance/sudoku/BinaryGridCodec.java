@@ -0,0 +1,273 @@
+package com.tagadvance.sudoku;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.tagadvance.geometry.Dimension;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Iterator;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * A compact binary encoding of integer grids. Each record is a two byte header holding the width and
+ * height of the grid followed by its cells in row-major order, packed least significant bit first
+ * with just enough bits per cell for the larger of the width and height and {@code 0} for an empty
+ * cell. A 9x9 grid takes 4 bits per cell and 43 bytes in all.
+ * <p>
+ * Records are written to and read from buffers without allocating per cell, and whole sequences of
+ * grids are streamed to and from channels through a single buffer.
+ */
+public final class BinaryGridCodec {
+
+	/**
+	 * bytes before the cells of each record
+	 */
+	public static final int HEADER_SIZE = 2;
+
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	private BinaryGridCodec() {
+		super();
+	}
+
+	/**
+	 * @return number of bits used per cell of a grid of the size
+	 */
+	public static int bitsPerCell(final Dimension size) {
+		checkSize(size);
+
+		return Integer.SIZE - Integer.numberOfLeadingZeros(Math.max(size.width(), size.height()));
+	}
+
+	/**
+	 * @return number of bytes in the record of a grid of the size, including its header
+	 */
+	public static int encodedSize(final Dimension size) {
+		return HEADER_SIZE + (size.width() * size.height() * bitsPerCell(size) + Byte.SIZE - 1)
+			/ Byte.SIZE;
+	}
+
+	private static void checkSize(final Dimension size) {
+		checkNotNull(size, "size must not be null");
+		checkArgument(size.width() >= FixedSizeGrid.MIN_SIZE && size.width() <= FixedSizeGrid.MAX_SIZE
+				&& size.height() >= FixedSizeGrid.MIN_SIZE && size.height() <= FixedSizeGrid.MAX_SIZE,
+			"width and height must be between %s and %s", FixedSizeGrid.MIN_SIZE,
+			FixedSizeGrid.MAX_SIZE);
+	}
+
+	/**
+	 * Writes the record of a grid at the position of the buffer. If the grid cannot be written the
+	 * position of the buffer is left where it was.
+	 *
+	 * @param grid   grid whose values are between {@code 1} and the larger of its width and height
+	 * @param buffer
+	 * @throws BufferOverflowException  if the buffer does not have room for the whole record
+	 * @throws IllegalArgumentException if a value does not fit in the bits of a cell
+	 */
+	public static void encode(final Grid<Integer> grid, final ByteBuffer buffer) {
+		checkNotNull(grid, "grid must not be null");
+		checkNotNull(buffer, "buffer must not be null");
+
+		final var size = grid.getSize();
+		if (buffer.remaining() < encodedSize(size)) {
+			throw new BufferOverflowException();
+		}
+
+		final var width = size.width();
+		final var bits = bitsPerCell(size);
+		final var maxValue = (1 << bits) - 1;
+		final var intGrid = grid instanceof final IntGrid g ? g : null;
+		final var start = buffer.position();
+		buffer.put((byte) width).put((byte) size.height());
+
+		long pending = 0;
+		int pendingBits = 0;
+		for (int index = 0, cellCount = width * size.height(); index < cellCount; index++) {
+			final int value;
+			if (intGrid != null) {
+				value = intGrid.getInt(index);
+			} else {
+				final var cell = grid.getCellAt(index % width, index / width);
+				value = cell.isEmpty() ? 0 : cell.getValue();
+			}
+			if (value < 0 || value > maxValue) {
+				buffer.position(start);
+				throw new IllegalArgumentException(
+					String.format("value %s does not fit in %s bits", value, bits));
+			}
+
+			pending |= (long) value << pendingBits;
+			pendingBits += bits;
+			while (pendingBits >= Byte.SIZE) {
+				buffer.put((byte) pending);
+				pending >>>= Byte.SIZE;
+				pendingBits -= Byte.SIZE;
+			}
+		}
+		if (pendingBits > 0) {
+			buffer.put((byte) pending);
+		}
+	}
+
+	/**
+	 * @return the size of the grid in the record at the position of the buffer, which is not moved
+	 * @throws BufferUnderflowException if the buffer does not hold a whole header
+	 */
+	public static Dimension peekSize(final ByteBuffer buffer) {
+		checkNotNull(buffer, "buffer must not be null");
+		if (buffer.remaining() < HEADER_SIZE) {
+			throw new BufferUnderflowException();
+		}
+
+		final var position = buffer.position();
+
+		return new Dimension(Byte.toUnsignedInt(buffer.get(position)),
+			Byte.toUnsignedInt(buffer.get(position + 1)));
+	}
+
+	/**
+	 * Reads the record at the position of the buffer into a grid, overwriting every cell.
+	 *
+	 * @param buffer
+	 * @param grid   grid of the size in the record
+	 * @return the grid
+	 * @throws BufferUnderflowException if the buffer does not hold the whole record, in which case
+	 *                                  nothing is read
+	 */
+	public static <G extends Grid<Integer>> G decode(final ByteBuffer buffer, final G grid) {
+		checkNotNull(grid, "grid must not be null");
+
+		final var size = peekSize(buffer);
+		checkArgument(size.equals(grid.getSize()),
+			"record of size %s cannot be read into a grid of size %s", size, grid.getSize());
+		if (buffer.remaining() < encodedSize(size)) {
+			throw new BufferUnderflowException();
+		}
+		buffer.position(buffer.position() + HEADER_SIZE);
+
+		final var width = size.width();
+		final var bits = bitsPerCell(size);
+		final var mask = (1 << bits) - 1;
+		final var intGrid = grid instanceof final IntGrid g ? g : null;
+
+		long pending = 0;
+		int pendingBits = 0;
+		for (int index = 0, cellCount = width * size.height(); index < cellCount; index++) {
+			while (pendingBits < bits) {
+				pending |= (long) Byte.toUnsignedInt(buffer.get()) << pendingBits;
+				pendingBits += Byte.SIZE;
+			}
+			final var value = (int) pending & mask;
+			pending >>>= bits;
+			pendingBits -= bits;
+
+			if (intGrid != null) {
+				intGrid.setInt(index, value);
+			} else {
+				grid.getCellAt(index % width, index / width).setValue(value == 0 ? null : value);
+			}
+		}
+
+		return grid;
+	}
+
+	/**
+	 * Writes the records of grids to a channel through a single buffer.
+	 *
+	 * @param channel
+	 * @param grids
+	 * @return number of grids written
+	 */
+	public static long writeAll(final WritableByteChannel channel,
+		final Iterator<? extends Grid<Integer>> grids) throws IOException {
+		checkNotNull(channel, "channel must not be null");
+		checkNotNull(grids, "grids must not be null");
+
+		final var buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+		long count = 0;
+		while (grids.hasNext()) {
+			final var grid = grids.next();
+			if (buffer.remaining() < encodedSize(grid.getSize())) {
+				flush(channel, buffer);
+			}
+			encode(grid, buffer);
+			count++;
+		}
+		flush(channel, buffer);
+
+		return count;
+	}
+
+	private static void flush(final WritableByteChannel channel, final ByteBuffer buffer)
+		throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+
+	/**
+	 * Reads every record from a channel through a single buffer.
+	 *
+	 * @param channel
+	 * @param gridFactory creates an empty grid for each record
+	 * @param action      receives each grid in order
+	 * @return number of grids read
+	 * @throws EOFException if the channel ends part way through a record
+	 */
+	public static <G extends Grid<Integer>> long readAll(final ReadableByteChannel channel,
+		final Supplier<? extends G> gridFactory, final Consumer<? super G> action)
+		throws IOException {
+		checkNotNull(channel, "channel must not be null");
+
+		final var buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+		long count = 0;
+		while (true) {
+			final var end = channel.read(buffer) < 0;
+			buffer.flip();
+			count += readAll(buffer, gridFactory, action);
+			if (end) {
+				if (buffer.hasRemaining()) {
+					throw new EOFException("channel ends part way through a record");
+				}
+
+				return count;
+			}
+			buffer.compact();
+		}
+	}
+
+	/**
+	 * Reads every whole record from the position of a buffer, for example a mapped file, leaving any
+	 * incomplete record at the end.
+	 *
+	 * @param buffer
+	 * @param gridFactory creates an empty grid for each record
+	 * @param action      receives each grid in order
+	 * @return number of grids read
+	 */
+	public static <G extends Grid<Integer>> long readAll(final ByteBuffer buffer,
+		final Supplier<? extends G> gridFactory, final Consumer<? super G> action) {
+		checkNotNull(buffer, "buffer must not be null");
+		checkNotNull(gridFactory, "gridFactory must not be null");
+		checkNotNull(action, "action must not be null");
+
+		long count = 0;
+		while (buffer.remaining() >= HEADER_SIZE
+			&& buffer.remaining() >= encodedSize(peekSize(buffer))) {
+			action.accept(decode(buffer, gridFactory.get()));
+			count++;
+		}
+
+		return count;
+	}
+
+}
@@ -0,0 +1,164 @@
+package com.tagadvance.sudoku;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * A grid of integers that keeps a bit mask of the values used by each scope of a
+ * {@link SudokuTopology}. Masks are updated as cells are set so that candidates never have to be
+ * recomputed from the cells.
+ * <p>
+ * The grid also counts how often each value appears in each scope, so setting a cell only touches the
+ * scopes containing it and whether the grid is valid or solved is known without looking at any cell.
+ */
+public class BitmaskGrid extends PackedGrid {
+
+	private final SudokuTopology topology;
+
+	/**
+	 * bit mask of used values per scope
+	 */
+	private final long[] usedMasks;
+
+	private final int maxValue;
+
+	/**
+	 * number of times each value appears in each scope, indexed {@code scope * maxValue + value - 1}
+	 */
+	private final byte[] valueCounts;
+
+	/**
+	 * number of assigned cells per scope
+	 */
+	private final int[] assignedCounts;
+
+	/**
+	 * number of assigned cells per scope whose value appears earlier in the scope
+	 */
+	private final int[] duplicateCounts;
+
+	/**
+	 * sum of duplicateCounts
+	 */
+	private int duplicates;
+
+	/**
+	 * number of scopes that are not full of distinct values
+	 */
+	private int unsolvedScopes;
+
+	BitmaskGrid(final SudokuTopology topology, final int maxValue) {
+		super(checkNotNull(topology, "topology must not be null").getSize(), maxValue);
+		checkArgument(maxValue <= Long.SIZE, "maxValue must be between 1 and %s", Long.SIZE);
+		this.topology = topology;
+		this.maxValue = maxValue;
+		this.usedMasks = new long[topology.getScopeCount()];
+		this.valueCounts = new byte[topology.getScopeCount() * maxValue];
+		this.assignedCounts = new int[topology.getScopeCount()];
+		this.duplicateCounts = new int[topology.getScopeCount()];
+		for (int scope = 0; scope < topology.getScopeCount(); scope++) {
+			if (!isSolved(scope)) {
+				unsolvedScopes++;
+			}
+		}
+	}
+
+	private BitmaskGrid(final BitmaskGrid grid) {
+		super(grid);
+		this.topology = grid.topology;
+		this.maxValue = grid.maxValue;
+		this.usedMasks = grid.usedMasks.clone();
+		this.valueCounts = grid.valueCounts.clone();
+		this.assignedCounts = grid.assignedCounts.clone();
+		this.duplicateCounts = grid.duplicateCounts.clone();
+		this.duplicates = grid.duplicates;
+		this.unsolvedScopes = grid.unsolvedScopes;
+	}
+
+	@Override
+	public BitmaskGrid copy() {
+		return new BitmaskGrid(this);
+	}
+
+	SudokuTopology getTopology() {
+		return topology;
+	}
+
+	@Override
+	protected void store(final int index, final int value) {
+		final int oldValue = getInt(index);
+		if (oldValue == value) {
+			return;
+		}
+
+		super.store(index, value);
+
+		for (final var scope : topology.getScopesOfCell(index)) {
+			final var wasSolved = isSolved(scope);
+			if (oldValue != 0) {
+				remove(scope, oldValue);
+			}
+			if (value != 0) {
+				add(scope, value);
+			}
+
+			final var solved = isSolved(scope);
+			if (wasSolved != solved) {
+				unsolvedScopes += solved ? -1 : 1;
+			}
+		}
+	}
+
+	private void add(final int scope, final int value) {
+		assignedCounts[scope]++;
+		if (++valueCounts[scope * maxValue + value - 1] == 1) {
+			usedMasks[scope] |= CandidateSet.bitOf(value);
+		} else {
+			duplicateCounts[scope]++;
+			duplicates++;
+		}
+	}
+
+	private void remove(final int scope, final int value) {
+		assignedCounts[scope]--;
+		if (--valueCounts[scope * maxValue + value - 1] == 0) {
+			usedMasks[scope] &= ~CandidateSet.bitOf(value);
+		} else {
+			duplicateCounts[scope]--;
+			duplicates--;
+		}
+	}
+
+	private boolean isSolved(final int scope) {
+		return duplicateCounts[scope] == 0
+			&& assignedCounts[scope] == topology.getCellsOfScope(scope).length;
+	}
+
+	/**
+	 * @return {@code true} if no scope holds a value more than once
+	 */
+	boolean isValid() {
+		return duplicates == 0;
+	}
+
+	/**
+	 * @return {@code true} if every scope is full of distinct values
+	 */
+	boolean isSolved() {
+		return unsolvedScopes == 0;
+	}
+
+	/**
+	 * @param index cell index
+	 * @return bit mask of the values used by every scope containing the cell
+	 */
+	long getUsedMask(final int index) {
+		long mask = 0;
+		for (final var scope : topology.getScopesOfCell(index)) {
+			mask |= usedMasks[scope];
+		}
+
+		return mask;
+	}
+
+}
@@ -0,0 +1,142 @@
+package com.tagadvance.sudoku;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.collect.ImmutableSet;
+import java.util.Set;
+
+/**
+ * A {@link Sudoku} over the values {@code 1..n} that answers candidate queries from the bit masks
+ * maintained by {@link BitmaskGrid}, which also answers {@link #isValid(Grid)} and
+ * {@link #isSolved(Grid)} in constant time. Other grid implementations are supported but fall back
+ * to reading the peers of the cell and scanning the scopes.
+ */
+public class BitmaskSudoku implements Sudoku<Integer> {
+
+	private final ImmutableSet<Integer> values;
+	private final ImmutableSet<Scope<Integer>> scopeSet;
+	private final SudokuTopology topology;
+
+	/**
+	 * bit mask of every value
+	 */
+	private final long allValues;
+
+	/**
+	 * @param values   contiguous values starting with 1
+	 * @param scopeSet
+	 * @param topology topology compiled from scopeSet
+	 */
+	protected BitmaskSudoku(final ImmutableSet<Integer> values,
+		final ImmutableSet<Scope<Integer>> scopeSet, final SudokuTopology topology) {
+		super();
+		this.values = checkNotNull(values, "values must not be null");
+		this.scopeSet = checkNotNull(scopeSet, "scopeSet must not be null");
+		this.topology = checkNotNull(topology, "topology must not be null");
+
+		final int size = values.size();
+		checkArgument(size > 0, "values must not be empty");
+		checkArgument(size <= Long.SIZE, "values must not contain more than %s elements",
+			Long.SIZE);
+		for (int value = 1; value <= size; value++) {
+			checkArgument(values.contains(value), "values must be contiguous starting with 1");
+		}
+		this.allValues = CandidateSet.allValues(size);
+	}
+
+	@Override
+	public Sudoku<Integer> copy() {
+		// don't bother as this class is immutable
+		return this;
+	}
+
+	/**
+	 * @return a new empty grid whose masks are maintained for this sudoku
+	 */
+	public BitmaskGrid createEmptyGrid() {
+		return new BitmaskGrid(topology, values.size());
+	}
+
+	@Override
+	public ImmutableSet<Integer> getValues() {
+		return values;
+	}
+
+	@Override
+	public ImmutableSet<Scope<Integer>> getScopes() {
+		return scopeSet;
+	}
+
+	@Override
+	public Set<Integer> getPotentialValuesForCell(final Grid<Integer> grid,
+		final Cell<Integer> cell) {
+		return new CandidateSet(getCandidateMask(grid, cell));
+	}
+
+	@Override
+	public int countPotentialValuesForCell(final Grid<Integer> grid, final Cell<Integer> cell) {
+		return Long.bitCount(getCandidateMask(grid, cell));
+	}
+
+	@Override
+	public boolean isValid(final Grid<Integer> grid) {
+		if (grid instanceof final BitmaskGrid bitmaskGrid && bitmaskGrid.getTopology() == topology) {
+			return bitmaskGrid.isValid();
+		}
+
+		return Sudoku.super.isValid(grid);
+	}
+
+	@Override
+	public boolean isSolved(final Grid<Integer> grid) {
+		if (grid instanceof final BitmaskGrid bitmaskGrid && bitmaskGrid.getTopology() == topology) {
+			return bitmaskGrid.isSolved();
+		}
+
+		return Sudoku.super.isSolved(grid);
+	}
+
+	/**
+	 * @param grid
+	 * @param cell
+	 * @return bit mask where bit {@code n} is set if {@code n + 1} may be assigned to the cell
+	 */
+	public long getCandidateMask(final Grid<Integer> grid, final Cell<Integer> cell) {
+		if (grid instanceof final BitmaskGrid bitmaskGrid && bitmaskGrid.getTopology() == topology
+			&& cell instanceof final PackedGrid.PackedCell packedCell
+			&& packedCell.getGrid() == grid) {
+			return allValues & ~bitmaskGrid.getUsedMask(packedCell.getIndex());
+		}
+
+		long used = 0;
+		final var index = grid.indexOf(cell);
+		if (index >= 0 && topology.getSize().equals(grid.getSize())) {
+			if (!cell.isEmpty()) {
+				used = CandidateSet.bitOf(cell.getValue());
+			}
+			for (final var peer : topology.getPeers(index)) {
+				final var value = grid.getCellAt(peer).getValue();
+				if (value != null) {
+					used |= CandidateSet.bitOf(value);
+				}
+			}
+
+			return allValues & ~used;
+		}
+
+		for (final var scope : scopeSet) {
+			final var cells = scope.getCells(grid);
+			if (cells.contains(cell)) {
+				for (final var c : cells) {
+					if (!c.isEmpty()) {
+						used |= CandidateSet.bitOf(c.getValue());
+					}
+				}
+			}
+		}
+
+		return allValues & ~used;
+	}
+
+}
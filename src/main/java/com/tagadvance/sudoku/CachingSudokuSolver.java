@@ -0,0 +1,225 @@
+package com.tagadvance.sudoku;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import java.util.Arrays;
+
+/**
+ * Remembers the solutions found by another solver. Grids are {@link GridCanonicalizer canonicalized}
+ * before being looked up, so a grid that is equivalent to one solved earlier is answered from the
+ * cache by transforming the earlier solution back into the orientation of the grid. Grids without a
+ * solution are remembered too, but solves that are cancelled or exceed their limits are not.
+ * <p>
+ * The cache is bounded and evicts the least recently used entries first. Instances are thread-safe
+ * if the solver they decorate is.
+ */
+public class CachingSudokuSolver implements SudokuSolver {
+
+	/**
+	 * cached in place of the solution of a grid that has none
+	 */
+	private static final int[] NO_SOLUTION = new int[0];
+
+	private final SudokuSolver solver;
+
+	private final GridCanonicalizer canonicalizer;
+
+	private final Cache<Key, int[]> cache;
+
+	/**
+	 * Creates a cache that recognizes grids which differ by any {@link SymmetryCanonicalizer symmetry}
+	 * of the standard layout, or only by relabelling their values for other layouts.
+	 *
+	 * @param solver      solver to find solutions that are not cached
+	 * @param maximumSize number of grids to remember
+	 */
+	public CachingSudokuSolver(final SudokuSolver solver, final long maximumSize) {
+		this(solver, new SymmetryCanonicalizer(), maximumSize);
+	}
+
+	/**
+	 * @param solver        solver to find solutions that are not cached
+	 * @param canonicalizer
+	 * @param maximumSize   number of grids to remember
+	 */
+	public CachingSudokuSolver(final SudokuSolver solver, final GridCanonicalizer canonicalizer,
+		final long maximumSize) {
+		this(solver, canonicalizer,
+			CacheBuilder.newBuilder().maximumSize(checkMaximum(maximumSize, "maximumSize")));
+	}
+
+	private CachingSudokuSolver(final SudokuSolver solver, final GridCanonicalizer canonicalizer,
+		final CacheBuilder<? super Key, ? super int[]> cacheBuilder) {
+		super();
+		this.solver = checkNotNull(solver, "solver must not be null");
+		this.canonicalizer = checkNotNull(canonicalizer, "canonicalizer must not be null");
+		this.cache = cacheBuilder.recordStats().build();
+	}
+
+	/**
+	 * Creates a cache bounded by the memory its grids take up rather than their number, for callers
+	 * that solve grids of very different sizes.
+	 *
+	 * @param solver        solver to find solutions that are not cached
+	 * @param canonicalizer
+	 * @param maximumCells  number of cells, summed over every remembered grid and solution
+	 * @return the solver
+	 */
+	public static CachingSudokuSolver withMaximumCells(final SudokuSolver solver,
+		final GridCanonicalizer canonicalizer, final long maximumCells) {
+		final var cacheBuilder = CacheBuilder.newBuilder()
+			.maximumWeight(checkMaximum(maximumCells, "maximumCells"))
+			.<Key, int[]>weigher((key, solution) -> key.values.length + solution.length);
+
+		return new CachingSudokuSolver(solver, canonicalizer, cacheBuilder);
+	}
+
+	private static long checkMaximum(final long maximum, final String name) {
+		checkArgument(maximum >= 0, "%s must not be negative", name);
+
+		return maximum;
+	}
+
+	@Override
+	public <V> Grid<V> solve(final Sudoku<V> sudoku, final Grid<V> grid) {
+		return solve(sudoku, grid, SolveLimits.NONE, CancellationToken.NONE).solution();
+	}
+
+	@Override
+	public <V> SolveResult<V> solve(final Sudoku<V> sudoku, final Grid<V> grid,
+		final SolveLimits limits, final CancellationToken token) {
+		checkNotNull(sudoku, "sudoku must not be null");
+		checkNotNull(grid, "grid must not be null");
+		checkNotNull(limits, "limits must not be null");
+		checkNotNull(token, "token must not be null");
+
+		final var topology = SudokuTopology.of(sudoku, grid.getSize());
+		final var values = encode(sudoku, grid);
+		if (values == null) {
+			// the grid holds a value the sudoku does not know about so let the solver reject it
+			return solver.solve(sudoku, grid, limits, token);
+		}
+
+		final var valueCount = sudoku.getValues().size();
+		final var transform = canonicalizer.canonicalize(topology, valueCount, values);
+		final var key = new Key(topology, valueCount, transform.apply(values));
+		final var cached = cache.getIfPresent(key);
+		if (cached == NO_SOLUTION) {
+			return SolveResult.of(SolveResult.Status.UNSOLVABLE);
+		} else if (cached != null) {
+			return SolveResult.solved(decode(sudoku, grid, transform.revert(cached)));
+		}
+
+		final var result = solver.solve(sudoku, grid, limits, token);
+		if (result.isSolved()) {
+			final var solution = encode(sudoku, result.solution());
+			if (solution != null) {
+				cache.put(key, transform.apply(solution));
+			}
+		} else if (result.status() == SolveResult.Status.UNSOLVABLE) {
+			cache.put(key, NO_SOLUTION);
+		}
+
+		return result;
+	}
+
+	/**
+	 * @return counts of hits, misses and evictions since this solver was created
+	 */
+	public CacheStats getStatistics() {
+		return cache.stats();
+	}
+
+	/**
+	 * @return approximate number of remembered grids
+	 */
+	public long size() {
+		return cache.size();
+	}
+
+	/**
+	 * Forgets every remembered grid.
+	 */
+	public void clear() {
+		cache.invalidateAll();
+	}
+
+	/**
+	 * @return the values of the grid numbered by their position in the sudoku's values, or
+	 * {@code null} if the grid holds a value that is not one of them
+	 */
+	private static <V> int[] encode(final Sudoku<V> sudoku, final Grid<V> grid) {
+		final var values = sudoku.getValues().asList();
+		final var size = grid.getSize();
+		final var encoded = new int[size.width() * size.height()];
+		for (int i = 0; i < encoded.length; i++) {
+			final var cell = grid.getCellAt(i);
+			if (!cell.isEmpty()) {
+				encoded[i] = values.indexOf(cell.getValue()) + 1;
+				if (encoded[i] == 0) {
+					return null;
+				}
+			}
+		}
+
+		return encoded;
+	}
+
+	/**
+	 * @return a copy of the grid with its empty cells filled in from the solution
+	 */
+	private static <V> Grid<V> decode(final Sudoku<V> sudoku, final Grid<V> grid,
+		final int[] solution) {
+		final var values = sudoku.getValues().asList();
+		final var copy = grid.copy();
+		for (int i = 0; i < solution.length; i++) {
+			final var cell = copy.getCellAt(i);
+			if (cell.isEmpty()) {
+				cell.setValue(values.get(solution[i] - 1));
+			}
+		}
+
+		return copy;
+	}
+
+	/**
+	 * A canonical grid of one layout. The topology and number of values stand in for the sudoku, so
+	 * that grids of separately created sudokus with the same layout share their entries, without
+	 * keeping the sudoku reachable.
+	 */
+	private static final class Key {
+
+		private final SudokuTopology topology;
+
+		private final int valueCount;
+
+		private final int[] values;
+
+		private final int hashCode;
+
+		private Key(final SudokuTopology topology, final int valueCount, final int[] values) {
+			super();
+			this.topology = topology;
+			this.valueCount = valueCount;
+			this.values = values;
+			this.hashCode = (31 * topology.hashCode() + valueCount) * 31 + Arrays.hashCode(values);
+		}
+
+		@Override
+		public boolean equals(final Object o) {
+			return o instanceof final Key that && valueCount == that.valueCount
+				&& topology.equals(that.topology) && Arrays.equals(values, that.values);
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+
+	}
+
+}
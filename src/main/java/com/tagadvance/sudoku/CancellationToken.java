@@ -0,0 +1,36 @@
+package com.tagadvance.sudoku;
+
+/**
+ * Lets one thread ask solvers running on other threads to stop. Solvers poll the token as they
+ * search and return {@link SolveResult.Status#CANCELLED} soon after it is cancelled. A token cannot
+ * be reset.
+ */
+public class CancellationToken {
+
+	/**
+	 * a token that is never cancelled
+	 */
+	public static final CancellationToken NONE = new CancellationToken() {
+
+		@Override
+		public void cancel() {
+			throw new UnsupportedOperationException("NONE cannot be cancelled");
+		}
+
+	};
+
+	private volatile boolean cancelled;
+
+	public CancellationToken() {
+		super();
+	}
+
+	public void cancel() {
+		cancelled = true;
+	}
+
+	public boolean isCancelled() {
+		return cancelled;
+	}
+
+}
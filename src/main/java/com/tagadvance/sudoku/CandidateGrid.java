@@ -0,0 +1,270 @@
+package com.tagadvance.sudoku;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The candidates of every cell of a grid stored as bit masks, where bit {@code n} represents the
+ * {@code n}th value of the sudoku. Values are numbered from {@code 1}; {@code 0} means unassigned.
+ * Cells and scopes are addressed by index, cells in row-major order.
+ * <p>
+ * Assigning a value removes it from the candidates of every peer. A cell losing its last candidate
+ * puts the grid into a contradiction, after which its contents are meaningless.
+ */
+public class CandidateGrid implements Copyable<CandidateGrid> {
+
+	private final SudokuTopology topology;
+
+	private final int valueCount;
+
+	/**
+	 * bit mask of every value
+	 */
+	private final long allValues;
+
+	private final long[] candidates;
+
+	private final byte[] values;
+
+	/**
+	 * bit mask of the values assigned in each scope
+	 */
+	private final long[] placed;
+
+	private int assignedCount;
+
+	private boolean contradiction;
+
+	CandidateGrid(final SudokuTopology topology, final int valueCount) {
+		super();
+		this.topology = checkNotNull(topology, "topology must not be null");
+		checkArgument(valueCount > 0 && valueCount <= Long.SIZE,
+			"valueCount must be between 1 and %s", Long.SIZE);
+		this.valueCount = valueCount;
+		this.allValues = CandidateSet.allValues(valueCount);
+		this.candidates = new long[topology.getCellCount()];
+		this.values = new byte[topology.getCellCount()];
+		this.placed = new long[topology.getScopeCount()];
+		Arrays.fill(candidates, allValues);
+	}
+
+	private CandidateGrid(final CandidateGrid grid) {
+		super();
+		this.topology = grid.topology;
+		this.valueCount = grid.valueCount;
+		this.allValues = grid.allValues;
+		this.candidates = grid.candidates.clone();
+		this.values = grid.values.clone();
+		this.placed = grid.placed.clone();
+		this.assignedCount = grid.assignedCount;
+		this.contradiction = grid.contradiction;
+	}
+
+	/**
+	 * Creates the candidates of a grid by assigning each of its clues.
+	 *
+	 * @param sudoku
+	 * @param grid
+	 * @return candidates of the grid, which may be in contradiction
+	 */
+	public static <V> CandidateGrid of(final Sudoku<V> sudoku, final Grid<V> grid) {
+		checkNotNull(sudoku, "sudoku must not be null");
+		checkNotNull(grid, "grid must not be null");
+
+		final var size = grid.getSize();
+		final var candidateGrid = new CandidateGrid(SudokuTopology.of(sudoku, size),
+			sudoku.getValues().size());
+		final var values = sudoku.getValues().asList();
+		for (int cell = 0; cell < candidateGrid.getCellCount(); cell++) {
+			final var c = grid.getCellAt(cell % size.width(), cell / size.width());
+			if (!c.isEmpty()) {
+				final var value = values.indexOf(c.getValue()) + 1;
+				if (value == 0 || !candidateGrid.isCandidate(cell, value)) {
+					candidateGrid.contradiction = true;
+
+					return candidateGrid;
+				}
+				candidateGrid.assign(cell, value);
+			}
+		}
+
+		return candidateGrid;
+	}
+
+	@Override
+	public CandidateGrid copy() {
+		return new CandidateGrid(this);
+	}
+
+	/**
+	 * Writes every assigned value into the grid.
+	 *
+	 * @param grid   grid of the same size
+	 * @param values values of the sudoku in order
+	 */
+	public <V> void writeTo(final Grid<V> grid, final List<V> values) {
+		final var width = grid.getSize().width();
+		for (int cell = 0; cell < this.values.length; cell++) {
+			final var value = this.values[cell];
+			if (value != 0) {
+				grid.getCellAt(cell % width, cell / width).setValue(values.get(value - 1));
+			}
+		}
+	}
+
+	public int getCellCount() {
+		return candidates.length;
+	}
+
+	public int getScopeCount() {
+		return placed.length;
+	}
+
+	public int getValueCount() {
+		return valueCount;
+	}
+
+	/**
+	 * @return bit mask of every value
+	 */
+	public long getAllValues() {
+		return allValues;
+	}
+
+	/**
+	 * @return indices of the cells of a scope; the array must not be modified
+	 */
+	public int[] getCellsOfScope(final int scope) {
+		return topology.getCellsOfScope(scope);
+	}
+
+	/**
+	 * @return indices of the scopes containing a cell; the array must not be modified
+	 */
+	public int[] getScopesOfCell(final int cell) {
+		return topology.getScopesOfCell(cell);
+	}
+
+	/**
+	 * @return indices of the scopes sharing at least two cells with a scope; the array must not be
+	 * modified
+	 */
+	public int[] getOverlappingScopes(final int scope) {
+		return topology.getOverlappingScopes(scope);
+	}
+
+	/**
+	 * @return {@code true} if the scope has a cell for every value, in which case every value must
+	 * appear in it exactly once
+	 */
+	public boolean isComplete(final int scope) {
+		return topology.getCellsOfScope(scope).length == valueCount;
+	}
+
+	public long getCandidates(final int cell) {
+		return candidates[cell];
+	}
+
+	public boolean isCandidate(final int cell, final int value) {
+		return (candidates[cell] & CandidateSet.bitOf(value)) != 0;
+	}
+
+	/**
+	 * @return the value of the cell or {@code 0} if it is unassigned
+	 */
+	public int getValue(final int cell) {
+		return values[cell];
+	}
+
+	public boolean isAssigned(final int cell) {
+		return values[cell] != 0;
+	}
+
+	/**
+	 * @return bit mask of the values assigned in the scope
+	 */
+	public long getPlaced(final int scope) {
+		return placed[scope];
+	}
+
+	public boolean isContradiction() {
+		return contradiction;
+	}
+
+	public boolean isSolved() {
+		return !contradiction && assignedCount == values.length;
+	}
+
+	/**
+	 * Records that a rule has proven the grid to be unsolvable.
+	 */
+	public void markContradiction() {
+		contradiction = true;
+	}
+
+	/**
+	 * Assigns a value to an unassigned cell and removes it from the candidates of its peers.
+	 *
+	 * @param cell
+	 * @param value value between {@code 1} and {@link #getValueCount()}
+	 */
+	public void assign(final int cell, final int value) {
+		checkArgument(value > 0 && value <= valueCount, "value must be between 1 and %s",
+			valueCount);
+		checkArgument(values[cell] == 0, "cell %s is already assigned", cell);
+
+		final var bit = CandidateSet.bitOf(value);
+		if ((candidates[cell] & bit) == 0) {
+			contradiction = true;
+
+			return;
+		}
+
+		values[cell] = (byte) value;
+		candidates[cell] = bit;
+		assignedCount++;
+
+		for (final var scope : topology.getScopesOfCell(cell)) {
+			placed[scope] |= bit;
+		}
+		for (final var peer : topology.getPeers(cell)) {
+			eliminate(peer, bit);
+		}
+	}
+
+	/**
+	 * Removes candidates from a cell.
+	 *
+	 * @param cell
+	 * @param mask bit mask of the values to remove
+	 * @return {@code true} if any candidate was removed
+	 */
+	public boolean eliminate(final int cell, final long mask) {
+		final var remaining = candidates[cell] & ~mask;
+		if (remaining == candidates[cell]) {
+			return false;
+		}
+
+		candidates[cell] = remaining;
+		if (remaining == 0) {
+			contradiction = true;
+		}
+
+		return true;
+	}
+
+	/**
+	 * Removes every candidate except the given ones from a cell.
+	 *
+	 * @param cell
+	 * @param mask bit mask of the values to keep
+	 * @return {@code true} if any candidate was removed
+	 */
+	public boolean retain(final int cell, final long mask) {
+		return eliminate(cell, allValues & ~mask);
+	}
+
+}
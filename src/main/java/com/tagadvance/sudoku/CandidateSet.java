@@ -0,0 +1,77 @@
+package com.tagadvance.sudoku;
+
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Immutable set of integers backed by a bit mask where bit {@code n} represents the value
+ * {@code n + 1}.
+ */
+final class CandidateSet extends AbstractSet<Integer> {
+
+	private final long mask;
+
+	CandidateSet(final long mask) {
+		super();
+		this.mask = mask;
+	}
+
+	static long bitOf(final int value) {
+		return 1L << (value - 1);
+	}
+
+	static int valueOf(final long bit) {
+		return Long.numberOfTrailingZeros(bit) + 1;
+	}
+
+	/**
+	 * @param valueCount number of values, up to {@link Long#SIZE}
+	 * @return bit mask of the values {@code 1..valueCount}
+	 */
+	static long allValues(final int valueCount) {
+		return -1L >>> (Long.SIZE - valueCount);
+	}
+
+	long mask() {
+		return mask;
+	}
+
+	@Override
+	public boolean contains(final Object o) {
+		return o instanceof final Integer value && value > 0 && value <= Long.SIZE
+			&& (mask & bitOf(value)) != 0;
+	}
+
+	@Override
+	public int size() {
+		return Long.bitCount(mask);
+	}
+
+	@Override
+	public Iterator<Integer> iterator() {
+		return new Iterator<>() {
+
+			private long remaining = mask;
+
+			@Override
+			public boolean hasNext() {
+				return remaining != 0;
+			}
+
+			@Override
+			public Integer next() {
+				if (remaining == 0) {
+					throw new NoSuchElementException();
+				}
+
+				final var bit = Long.lowestOneBit(remaining);
+				remaining ^= bit;
+
+				return valueOf(bit);
+			}
+
+		};
+	}
+
+}
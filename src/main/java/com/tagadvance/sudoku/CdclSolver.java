@@ -0,0 +1,825 @@
+package com.tagadvance.sudoku;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * A conflict-driven clause learning SAT solver. Variables are numbered from {@code 0} and the
+ * literals of variable {@code v} are {@code 2 * v} (true) and {@code 2 * v + 1} (false).
+ * <p>
+ * Besides clauses, which are propagated with two watched literals, the formula may hold at-most-one
+ * groups of variables. A group is equivalent to a binary clause for every pair of its variables but
+ * is propagated directly, so that constraints such as "each cell holds at most one value" do not
+ * have to be expanded into a number of clauses quadratic in their size.
+ * <p>
+ * A conflict is analysed to its first unique implication point and the learned clause is kept.
+ * Decisions follow variable activity with saved phases and the search restarts after a Luby
+ * sequence of conflicts. Assumptions are decided before anything else, so every learned clause
+ * follows from the formula alone and may be kept from one solve to the next. Solvers are not thread
+ * safe.
+ */
+final class CdclSolver {
+
+	private static final int NO_REASON = -1;
+
+	private static final int SATISFIABLE = 1, UNSATISFIABLE = -1, UNKNOWN = 0;
+
+	/**
+	 * number of conflicts in the shortest run between restarts
+	 */
+	private static final int RESTART_UNIT = 64;
+
+	private static final double ACTIVITY_DECAY = 0.95;
+
+	private static final double ACTIVITY_LIMIT = 1e100;
+
+	private static final int MIN_LEARNT_LIMIT = 4_000;
+
+	/**
+	 * learned clauses whose literals span this many decision levels or fewer are kept in preference
+	 * to the others
+	 */
+	private static final int GLUE_LBD = 2;
+
+	private final int varCount;
+
+	/**
+	 * variables of each at-most-one group
+	 */
+	private final int[][] groups;
+
+	/**
+	 * groups of each variable
+	 */
+	private final int[][] varGroups;
+
+	/**
+	 * literals of each clause, of which the first two are watched; the clauses of the formula come
+	 * first and are followed by the learned clauses
+	 */
+	private final List<int[]> clauses = new ArrayList<>();
+
+	/**
+	 * number of clauses of the formula, which are never deleted
+	 */
+	private final int formulaSize;
+
+	/**
+	 * number of decision levels spanned by each clause when it was learned, {@code 0} if it was not
+	 */
+	private final IntVector lbds = new IntVector();
+
+	/**
+	 * indices of the learned clauses that have not been deleted
+	 */
+	private final IntVector learnts = new IntVector();
+
+	/**
+	 * clauses watching each literal
+	 */
+	private final IntVector[] watches;
+
+	/**
+	 * {@code 1} if a variable is true, {@code -1} if it is false or {@code 0} if it is unassigned
+	 */
+	private final byte[] values;
+
+	private final int[] levels;
+
+	/**
+	 * index of the clause that implied each variable, {@code -2 - p} if the at-most-one group of the
+	 * true literal {@code p} did or {@link #NO_REASON} for decisions
+	 */
+	private final int[] reasons;
+
+	private final int[] trail;
+
+	private int trailSize, propagated;
+
+	/**
+	 * length of the trail at the start of each decision level
+	 */
+	private final IntVector trailLimits = new IntVector();
+
+	private final boolean[] phases;
+
+	private final double[] activity;
+
+	private double activityIncrement = 1;
+
+	private final VariableHeap heap;
+
+	private final boolean[] seen;
+
+	private final IntVector learnt = new IntVector(), analyzed = new IntVector();
+
+	/**
+	 * the decision level at which each level was last counted by {@link #lbd(IntVector)}
+	 */
+	private final int[] levelStamps;
+
+	private int stamp;
+
+	/**
+	 * number of learned clauses at which a solve starts deleting them
+	 */
+	private final int initialLearntLimit;
+
+	private int learntLimit;
+
+	/**
+	 * the formula has no solution whatever the assumptions
+	 */
+	private boolean unsatisfiable;
+
+	/**
+	 * @param varCount number of variables
+	 * @param groups   variables of each at-most-one group, which are not modified
+	 * @param clauses  literals of each clause, which are copied
+	 */
+	CdclSolver(final int varCount, final int[][] groups, final List<int[]> clauses) {
+		super();
+		checkArgument(varCount >= 0, "varCount must not be negative");
+		checkNotNull(groups, "groups must not be null");
+		checkNotNull(clauses, "clauses must not be null");
+		this.varCount = varCount;
+		this.groups = groups;
+
+		final var groupCounts = new int[varCount];
+		for (final var group : groups) {
+			for (final var v : group) {
+				checkArgument(v >= 0 && v < varCount, "variable %s is out of range", v);
+				groupCounts[v]++;
+			}
+		}
+		this.varGroups = new int[varCount][];
+		for (int v = 0; v < varCount; v++) {
+			varGroups[v] = new int[groupCounts[v]];
+		}
+		for (int g = 0; g < groups.length; g++) {
+			for (final var v : groups[g]) {
+				varGroups[v][--groupCounts[v]] = g;
+			}
+		}
+
+		this.watches = new IntVector[varCount * 2];
+		for (int lit = 0; lit < watches.length; lit++) {
+			watches[lit] = new IntVector();
+		}
+		this.values = new byte[varCount];
+		this.levels = new int[varCount];
+		this.reasons = new int[varCount];
+		this.trail = new int[varCount];
+		this.phases = new boolean[varCount];
+		this.activity = new double[varCount];
+		this.seen = new boolean[varCount];
+		// every decision level either assigns a variable or holds an assumption that already was
+		this.levelStamps = new int[2 * varCount + 1];
+		this.heap = new VariableHeap();
+		Arrays.fill(reasons, NO_REASON);
+		for (int v = 0; v < varCount; v++) {
+			heap.insert(v);
+		}
+
+		for (final var clause : clauses) {
+			addClause(clause);
+		}
+		this.formulaSize = this.clauses.size();
+		this.initialLearntLimit = Math.max(MIN_LEARNT_LIMIT, clauses.size() / 3);
+		this.learntLimit = initialLearntLimit;
+		if (!unsatisfiable && propagate() != null) {
+			unsatisfiable = true;
+		}
+	}
+
+	static int literal(final int var, final boolean value) {
+		return value ? var << 1 : var << 1 | 1;
+	}
+
+	private void addClause(final int[] clause) {
+		for (final var lit : clause) {
+			checkArgument(lit >= 0 && lit < watches.length, "literal %s is out of range", lit);
+		}
+
+		if (clause.length == 0) {
+			unsatisfiable = true;
+		} else if (clause.length == 1) {
+			final var value = valueOf(clause[0]);
+			if (value < 0) {
+				unsatisfiable = true;
+			} else if (value == 0) {
+				assign(clause[0], NO_REASON);
+			}
+		} else {
+			attach(clause.clone(), 0);
+		}
+	}
+
+	private int attach(final int[] clause, final int lbd) {
+		final var index = clauses.size();
+		clauses.add(clause);
+		lbds.add(lbd);
+		watches[clause[0]].add(index);
+		watches[clause[1]].add(index);
+
+		return index;
+	}
+
+	/**
+	 * Looks for an assignment that satisfies the formula and every assumption. The solver is back at
+	 * decision level {@code 0} when this method returns or throws.
+	 *
+	 * @param assumptions literals that must be true, no more than there are variables
+	 * @param budget      counts decisions as nodes and conflicts as backtracks
+	 * @return the value of every variable, or {@code null} if there is no such assignment
+	 * @throws SolveBudget.AbortedException if the budget runs out
+	 */
+	boolean[] solve(final int[] assumptions, final SolveBudget budget) {
+		checkArgument(assumptions.length <= varCount, "too many assumptions");
+		for (final var lit : assumptions) {
+			checkArgument(lit >= 0 && lit < watches.length, "literal %s is out of range", lit);
+		}
+		if (unsatisfiable) {
+			return null;
+		}
+
+		// the limit grows during a solve but not from one solve to the next
+		learntLimit = initialLearntLimit;
+		try {
+			for (int run = 0; ; run++) {
+				final var status = search(assumptions, budget, luby(run) * RESTART_UNIT);
+				if (status == SATISFIABLE) {
+					final var model = new boolean[varCount];
+					for (int v = 0; v < varCount; v++) {
+						model[v] = values[v] > 0;
+					}
+
+					return model;
+				} else if (status == UNSATISFIABLE) {
+					return null;
+				}
+			}
+		} finally {
+			backtrack(0);
+		}
+	}
+
+	/**
+	 * @return the status, or {@link #UNKNOWN} once the number of conflicts reaches the limit
+	 */
+	private int search(final int[] assumptions, final SolveBudget budget, final long conflictLimit) {
+		long conflicts = 0;
+		while (true) {
+			final var conflict = propagate();
+			if (conflict != null) {
+				if (decisionLevel() == 0) {
+					unsatisfiable = true;
+
+					return UNSATISFIABLE;
+				}
+
+				conflicts++;
+				budget.backtrack();
+				learn(conflict);
+				continue;
+			}
+
+			if (conflicts >= conflictLimit) {
+				backtrack(0);
+
+				return UNKNOWN;
+			}
+			if (learnts.size() - trailSize >= learntLimit) {
+				reduceLearnts();
+			}
+
+			var next = -1;
+			while (next < 0 && decisionLevel() < assumptions.length) {
+				final var assumption = assumptions[decisionLevel()];
+				final var value = valueOf(assumption);
+				if (value < 0) {
+					return UNSATISFIABLE;
+				} else if (value > 0) {
+					// keep one level per assumption so that their indices line up
+					trailLimits.add(trailSize);
+				} else {
+					next = assumption;
+				}
+			}
+
+			if (next < 0) {
+				final var v = nextVariable();
+				if (v < 0) {
+					return SATISFIABLE;
+				}
+				budget.node();
+				next = literal(v, phases[v]);
+			}
+			trailLimits.add(trailSize);
+			assign(next, NO_REASON);
+		}
+	}
+
+	private int decisionLevel() {
+		return trailLimits.size();
+	}
+
+	/**
+	 * @return {@code 1} if the literal is true, {@code -1} if it is false or {@code 0}
+	 */
+	private int valueOf(final int lit) {
+		final var value = values[lit >> 1];
+
+		return (lit & 1) == 0 ? value : -value;
+	}
+
+	private void assign(final int lit, final int reason) {
+		final var v = lit >> 1;
+		values[v] = (byte) ((lit & 1) == 0 ? 1 : -1);
+		levels[v] = decisionLevel();
+		reasons[v] = reason;
+		trail[trailSize++] = lit;
+	}
+
+	/**
+	 * Assigns every literal implied by the trail.
+	 *
+	 * @return the literals of a clause made false, or {@code null} if there is no conflict
+	 */
+	private int[] propagate() {
+		while (propagated < trailSize) {
+			final var lit = trail[propagated++];
+
+			if ((lit & 1) == 0) {
+				final var v = lit >> 1;
+				for (final var group : varGroups[v]) {
+					for (final var other : groups[group]) {
+						if (other == v) {
+							continue;
+						}
+
+						final var value = values[other];
+						if (value > 0) {
+							propagated = trailSize;
+
+							return new int[]{lit ^ 1, literal(other, false)};
+						} else if (value == 0) {
+							assign(literal(other, false), -2 - lit);
+						}
+					}
+				}
+			}
+
+			final var conflict = propagateClauses(lit ^ 1);
+			if (conflict != null) {
+				propagated = trailSize;
+
+				return conflict;
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 * Visits the clauses watching a literal that has just been made false.
+	 */
+	private int[] propagateClauses(final int falseLit) {
+		final var watching = watches[falseLit];
+		final var indices = watching.elements;
+		final var size = watching.size();
+		int i = 0, j = 0;
+		try {
+			next:
+			while (i < size) {
+				final var index = indices[i++];
+				final var clause = clauses.get(index);
+				if (clause[0] == falseLit) {
+					clause[0] = clause[1];
+					clause[1] = falseLit;
+				}
+				if (valueOf(clause[0]) > 0) {
+					indices[j++] = index;
+					continue;
+				}
+
+				for (int k = 2; k < clause.length; k++) {
+					if (valueOf(clause[k]) >= 0) {
+						clause[1] = clause[k];
+						clause[k] = falseLit;
+						watches[clause[1]].add(index);
+						continue next;
+					}
+				}
+
+				indices[j++] = index;
+				if (valueOf(clause[0]) < 0) {
+					return clause;
+				}
+				assign(clause[0], index);
+			}
+
+			return null;
+		} finally {
+			while (i < size) {
+				indices[j++] = indices[i++];
+			}
+			watching.shrink(j);
+		}
+	}
+
+	/**
+	 * @return the literals of the reason of an implied variable, its own true literal first
+	 */
+	private int[] reasonOf(final int v) {
+		final var reason = reasons[v];
+		if (reason >= 0) {
+			return clauses.get(reason);
+		}
+
+		return new int[]{literal(v, values[v] > 0), (-2 - reason) ^ 1};
+	}
+
+	/**
+	 * Learns the first unique implication point clause of a conflict, backjumps and asserts it.
+	 */
+	private void learn(final int[] conflict) {
+		learnt.clear();
+		learnt.add(-1);
+
+		var lits = conflict;
+		var pending = 0;
+		var lit = -1;
+		var index = trailSize - 1;
+		while (true) {
+			for (int k = lit < 0 ? 0 : 1; k < lits.length; k++) {
+				final var q = lits[k];
+				final var v = q >> 1;
+				if (!seen[v] && levels[v] > 0) {
+					bump(v);
+					seen[v] = true;
+					if (levels[v] >= decisionLevel()) {
+						pending++;
+					} else {
+						learnt.add(q);
+					}
+				}
+			}
+
+			while (!seen[trail[index] >> 1]) {
+				index--;
+			}
+			lit = trail[index--];
+			seen[lit >> 1] = false;
+			if (--pending == 0) {
+				break;
+			}
+			lits = reasonOf(lit >> 1);
+		}
+		learnt.set(0, lit ^ 1);
+
+		// drop literals implied by the others
+		analyzed.clear();
+		var size = 1;
+		for (int k = 1; k < learnt.size(); k++) {
+			final var q = learnt.get(k);
+			analyzed.add(q);
+			if (reasons[q >> 1] == NO_REASON || !isRedundant(q >> 1)) {
+				learnt.set(size++, q);
+			}
+		}
+		learnt.shrink(size);
+		for (int k = 0; k < analyzed.size(); k++) {
+			seen[analyzed.get(k) >> 1] = false;
+		}
+
+		var backjumpLevel = 0;
+		if (learnt.size() > 1) {
+			var max = 1;
+			for (int k = 2; k < learnt.size(); k++) {
+				if (levels[learnt.get(k) >> 1] > levels[learnt.get(max) >> 1]) {
+					max = k;
+				}
+			}
+			final var q = learnt.get(max);
+			learnt.set(max, learnt.get(1));
+			learnt.set(1, q);
+			backjumpLevel = levels[q >> 1];
+		}
+
+		final var lbd = lbd(learnt);
+		backtrack(backjumpLevel);
+		if (learnt.size() == 1) {
+			assign(learnt.get(0), NO_REASON);
+		} else {
+			final var clause = learnt.toArray();
+			final var clauseIndex = attach(clause, lbd);
+			learnts.add(clauseIndex);
+			assign(clause[0], clauseIndex);
+		}
+
+		activityIncrement /= ACTIVITY_DECAY;
+	}
+
+	/**
+	 * @return {@code true} if every other literal of the reason of the variable is already in the
+	 * learned clause or fixed at level {@code 0}
+	 */
+	private boolean isRedundant(final int v) {
+		final var reason = reasonOf(v);
+		for (int k = 1; k < reason.length; k++) {
+			final var u = reason[k] >> 1;
+			if (!seen[u] && levels[u] > 0) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * @return number of distinct decision levels among the literals
+	 */
+	private int lbd(final IntVector lits) {
+		stamp++;
+		var count = 0;
+		for (int k = 0; k < lits.size(); k++) {
+			final var level = levels[lits.get(k) >> 1];
+			if (levelStamps[level] != stamp) {
+				levelStamps[level] = stamp;
+				count++;
+			}
+		}
+
+		return count;
+	}
+
+	/**
+	 * Deletes the half of the learned clauses spanning the most decision levels, keeping those that
+	 * are the reason of an assigned variable and up to half the initial limit of those spanning no
+	 * more than {@link #GLUE_LBD} levels. The remaining learned clauses are moved down over the
+	 * deleted ones so that storage does not grow across solves.
+	 */
+	private void reduceLearnts() {
+		final var candidates = new ArrayList<Integer>();
+		final var keep = new boolean[learnts.size()];
+		var glueCount = 0;
+		for (int k = 0; k < learnts.size(); k++) {
+			final var index = learnts.get(k);
+			final var clause = clauses.get(index);
+			final var v = clause[0] >> 1;
+			if (reasons[v] == index && valueOf(clause[0]) > 0) {
+				keep[k] = true;
+			} else {
+				candidates.add(k);
+				if (lbds.get(index) <= GLUE_LBD) {
+					glueCount++;
+				}
+			}
+		}
+
+		candidates.sort(Comparator.<Integer>comparingInt(k -> lbds.get(learnts.get(k)))
+			.thenComparingInt(k -> clauses.get(learnts.get(k)).length));
+		final var glueKept = Math.min(glueCount, initialLearntLimit / 2);
+		final var othersKept = (candidates.size() - glueCount) / 2;
+		for (int c = 0; c < candidates.size(); c++) {
+			// glue clauses sort first
+			keep[candidates.get(c)] = c < glueKept || (c >= glueCount && c < glueCount + othersKept);
+		}
+
+		// move the kept clauses down in their order of learning, numbering them afresh
+		final var renumbered = new int[clauses.size() - formulaSize];
+		Arrays.fill(renumbered, NO_REASON);
+		var size = formulaSize;
+		for (int k = 0; k < learnts.size(); k++) {
+			final var index = learnts.get(k);
+			if (keep[k]) {
+				renumbered[index - formulaSize] = size;
+				clauses.set(size, clauses.get(index));
+				lbds.set(size, lbds.get(index));
+				learnts.set(size - formulaSize, size);
+				size++;
+			}
+		}
+		clauses.subList(size, clauses.size()).clear();
+		lbds.shrink(size);
+		learnts.shrink(size - formulaSize);
+
+		for (int k = 0; k < trailSize; k++) {
+			final var v = trail[k] >> 1;
+			if (reasons[v] >= formulaSize) {
+				reasons[v] = renumbered[reasons[v] - formulaSize];
+			}
+		}
+		for (final var watching : watches) {
+			var j = 0;
+			for (int i = 0; i < watching.size(); i++) {
+				final var index = watching.get(i);
+				final var renumberedIndex = index < formulaSize ? index
+					: renumbered[index - formulaSize];
+				if (renumberedIndex >= 0) {
+					watching.set(j++, renumberedIndex);
+				}
+			}
+			watching.shrink(j);
+		}
+		learntLimit += learntLimit / 10;
+	}
+
+	private void backtrack(final int level) {
+		if (decisionLevel() <= level) {
+			return;
+		}
+
+		final var limit = trailLimits.get(level);
+		for (int k = trailSize - 1; k >= limit; k--) {
+			final var v = trail[k] >> 1;
+			phases[v] = values[v] > 0;
+			values[v] = 0;
+			reasons[v] = NO_REASON;
+			heap.insert(v);
+		}
+		trailSize = limit;
+		propagated = limit;
+		trailLimits.shrink(level);
+	}
+
+	/**
+	 * @return the unassigned variable with the highest activity, or {@code -1} if there is none
+	 */
+	private int nextVariable() {
+		while (!heap.isEmpty()) {
+			final var v = heap.removeMax();
+			if (values[v] == 0) {
+				return v;
+			}
+		}
+
+		return -1;
+	}
+
+	private void bump(final int v) {
+		activity[v] += activityIncrement;
+		if (activity[v] > ACTIVITY_LIMIT) {
+			for (int u = 0; u < varCount; u++) {
+				activity[u] /= ACTIVITY_LIMIT;
+			}
+			activityIncrement /= ACTIVITY_LIMIT;
+		}
+		heap.increased(v);
+	}
+
+	/**
+	 * @param run index of the run from {@code 0}
+	 * @return the run'th element of the Luby sequence 1, 1, 2, 1, 1, 2, 4, ...
+	 */
+	static long luby(int run) {
+		int size = 1, exponent = 0;
+		while (size < run + 1) {
+			exponent++;
+			size = 2 * size + 1;
+		}
+		while (size - 1 != run) {
+			size = (size - 1) >> 1;
+			exponent--;
+			run %= size;
+		}
+
+		return 1L << exponent;
+	}
+
+	/**
+	 * A binary max heap of variables ordered by activity.
+	 */
+	private final class VariableHeap {
+
+		private final int[] heap = new int[varCount];
+
+		/**
+		 * index of each variable in the heap or {@code -1} if it is not in it
+		 */
+		private final int[] positions = new int[varCount];
+
+		private int size;
+
+		private VariableHeap() {
+			super();
+			Arrays.fill(positions, -1);
+		}
+
+		boolean isEmpty() {
+			return size == 0;
+		}
+
+		void insert(final int v) {
+			if (positions[v] < 0) {
+				heap[size] = v;
+				positions[v] = size;
+				up(size++);
+			}
+		}
+
+		void increased(final int v) {
+			if (positions[v] >= 0) {
+				up(positions[v]);
+			}
+		}
+
+		int removeMax() {
+			final var max = heap[0];
+			positions[max] = -1;
+			if (--size > 0) {
+				heap[0] = heap[size];
+				positions[heap[0]] = 0;
+				down(0);
+			}
+
+			return max;
+		}
+
+		private void up(int i) {
+			final var v = heap[i];
+			while (i > 0) {
+				final var parent = (i - 1) >> 1;
+				if (activity[heap[parent]] >= activity[v]) {
+					break;
+				}
+				heap[i] = heap[parent];
+				positions[heap[i]] = i;
+				i = parent;
+			}
+			heap[i] = v;
+			positions[v] = i;
+		}
+
+		private void down(int i) {
+			final var v = heap[i];
+			while (true) {
+				var child = 2 * i + 1;
+				if (child >= size) {
+					break;
+				}
+				if (child + 1 < size && activity[heap[child + 1]] > activity[heap[child]]) {
+					child++;
+				}
+				if (activity[heap[child]] <= activity[v]) {
+					break;
+				}
+				heap[i] = heap[child];
+				positions[heap[i]] = i;
+				i = child;
+			}
+			heap[i] = v;
+			positions[v] = i;
+		}
+
+	}
+
+	/**
+	 * A growable array of {@code int}s.
+	 */
+	private static final class IntVector {
+
+		private int[] elements = new int[4];
+
+		private int size;
+
+		int size() {
+			return size;
+		}
+
+		int get(final int index) {
+			return elements[index];
+		}
+
+		void set(final int index, final int element) {
+			elements[index] = element;
+		}
+
+		void add(final int element) {
+			if (size == elements.length) {
+				elements = Arrays.copyOf(elements, size * 2);
+			}
+			elements[size++] = element;
+		}
+
+		void shrink(final int size) {
+			this.size = size;
+		}
+
+		void clear() {
+			size = 0;
+		}
+
+		int[] toArray() {
+			return Arrays.copyOf(elements, size);
+		}
+
+	}
+
+}
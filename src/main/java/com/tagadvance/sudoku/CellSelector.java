@@ -0,0 +1,315 @@
+package com.tagadvance.sudoku;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.Arrays;
+
+/**
+ * Keeps the unassigned cells of a grid in buckets by number of candidates so that a search can pick
+ * the cell with the fewest candidates without looking at every empty cell. The candidates of a cell
+ * are the values held by none of its peers, as {@link CompositeSudoku} computes them, stored as bit
+ * masks where bit {@code n} represents value {@code n + 1}. Values are numbered from {@code 1};
+ * {@code 0} means unassigned. Cells and scopes are addressed by index, cells in row-major order.
+ * <p>
+ * Assigning or unassigning a cell only moves its peers between buckets. Ties between cells with the
+ * same number of candidates may be broken by degree, the number of unassigned peers, preferring the
+ * cell that constrains the most others. Selectors are not thread safe.
+ */
+final class CellSelector implements Copyable<CellSelector> {
+
+	private final SudokuTopology topology;
+
+	private final int valueCount;
+
+	private final long allValues;
+
+	/**
+	 * number of buckets per candidate count, {@code 1} unless ties are broken by degree
+	 */
+	private final int degreeRange;
+
+	private final byte[] values;
+
+	private final long[] candidates;
+
+	/**
+	 * number of unassigned peers of each cell
+	 */
+	private final int[] degrees;
+
+	/**
+	 * number of cells of each scope holding each value, indexed {@code scope * valueCount + value - 1}
+	 */
+	private final int[] valueCounts;
+
+	/**
+	 * bit mask of the values held by at least one cell of each scope
+	 */
+	private final long[] placed;
+
+	/**
+	 * bucket of each unassigned cell or {@code -1} if it is assigned
+	 */
+	private final int[] keys;
+
+	/**
+	 * first cell of each bucket or {@code -1} if it is empty
+	 */
+	private final int[] heads;
+
+	private final int[] next, previous;
+
+	/**
+	 * no bucket below this one holds a cell
+	 */
+	private int minKey;
+
+	private int unassignedCount;
+
+	/**
+	 * Creates a selector for an empty grid.
+	 *
+	 * @param topology
+	 * @param valueCount        number of values, up to {@link Long#SIZE}
+	 * @param breakTiesByDegree {@code true} to prefer the cell with the most unassigned peers among
+	 *                          those with the fewest candidates
+	 */
+	CellSelector(final SudokuTopology topology, final int valueCount,
+		final boolean breakTiesByDegree) {
+		super();
+		this.topology = checkNotNull(topology, "topology must not be null");
+		checkArgument(valueCount > 0 && valueCount <= Long.SIZE,
+			"valueCount must be between 1 and %s", Long.SIZE);
+		this.valueCount = valueCount;
+		this.allValues = CandidateSet.allValues(valueCount);
+
+		final var cellCount = topology.getCellCount();
+		var maxDegree = 0;
+		for (int cell = 0; cell < cellCount; cell++) {
+			maxDegree = Math.max(maxDegree, topology.getPeers(cell).length);
+		}
+		this.degreeRange = breakTiesByDegree ? maxDegree + 1 : 1;
+
+		this.values = new byte[cellCount];
+		this.candidates = new long[cellCount];
+		this.degrees = new int[cellCount];
+		this.valueCounts = new int[topology.getScopeCount() * valueCount];
+		this.placed = new long[topology.getScopeCount()];
+		this.keys = new int[cellCount];
+		this.heads = new int[(valueCount + 1) * degreeRange];
+		this.next = new int[cellCount];
+		this.previous = new int[cellCount];
+		Arrays.fill(heads, -1);
+		this.minKey = heads.length;
+
+		for (int cell = 0; cell < cellCount; cell++) {
+			candidates[cell] = allValues;
+			degrees[cell] = topology.getPeers(cell).length;
+			link(cell, key(cell));
+		}
+		this.unassignedCount = cellCount;
+	}
+
+	private CellSelector(final CellSelector selector) {
+		super();
+		this.topology = selector.topology;
+		this.valueCount = selector.valueCount;
+		this.allValues = selector.allValues;
+		this.degreeRange = selector.degreeRange;
+		this.values = selector.values.clone();
+		this.candidates = selector.candidates.clone();
+		this.degrees = selector.degrees.clone();
+		this.valueCounts = selector.valueCounts.clone();
+		this.placed = selector.placed.clone();
+		this.keys = selector.keys.clone();
+		this.heads = selector.heads.clone();
+		this.next = selector.next.clone();
+		this.previous = selector.previous.clone();
+		this.minKey = selector.minKey;
+		this.unassignedCount = selector.unassignedCount;
+	}
+
+	/**
+	 * Creates a selector for a grid by assigning each of its values.
+	 *
+	 * @param sudoku
+	 * @param grid
+	 * @param breakTiesByDegree {@code true} to prefer the cell with the most unassigned peers among
+	 *                          those with the fewest candidates
+	 * @return the selector
+	 * @throws IllegalArgumentException if the grid holds a value that is not a value of the sudoku
+	 */
+	static <V> CellSelector of(final Sudoku<V> sudoku, final Grid<V> grid,
+		final boolean breakTiesByDegree) {
+		final var values = sudoku.getValues().asList();
+		final var selector = new CellSelector(SudokuTopology.of(sudoku, grid.getSize()),
+			values.size(), breakTiesByDegree);
+		for (int cell = 0; cell < selector.values.length; cell++) {
+			final var c = grid.getCellAt(cell);
+			if (!c.isEmpty()) {
+				final var value = values.indexOf(c.getValue()) + 1;
+				checkArgument(value > 0, "%s is not a value of the sudoku", c.getValue());
+				selector.assign(cell, value);
+			}
+		}
+
+		return selector;
+	}
+
+	/**
+	 * Copies the assignments and buckets so that the copy can follow a grid of its own.
+	 */
+	@Override
+	public CellSelector copy() {
+		return new CellSelector(this);
+	}
+
+	/**
+	 * @return the unassigned cell with the fewest candidates, or {@code -1} if every cell is assigned
+	 */
+	int select() {
+		while (minKey < heads.length && heads[minKey] < 0) {
+			minKey++;
+		}
+
+		return minKey < heads.length ? heads[minKey] : -1;
+	}
+
+	int getUnassignedCount() {
+		return unassignedCount;
+	}
+
+	/**
+	 * @return the value of the cell or {@code 0} if it is unassigned
+	 */
+	int getValue(final int cell) {
+		return values[cell];
+	}
+
+	/**
+	 * @return bit mask of the values held by none of the peers of an unassigned cell
+	 */
+	long getCandidates(final int cell) {
+		return candidates[cell];
+	}
+
+	int countCandidates(final int cell) {
+		return Long.bitCount(candidates[cell]);
+	}
+
+	/**
+	 * Assigns a value to an unassigned cell and removes it from the candidates of its peers.
+	 *
+	 * @param cell
+	 * @param value value between {@code 1} and the number of values
+	 */
+	void assign(final int cell, final int value) {
+		unlink(cell);
+		values[cell] = (byte) value;
+		unassignedCount--;
+
+		final var bit = CandidateSet.bitOf(value);
+		for (final var scope : topology.getScopesOfCell(cell)) {
+			if (valueCounts[scope * valueCount + value - 1]++ == 0) {
+				placed[scope] |= bit;
+			}
+		}
+		for (final var peer : topology.getPeers(cell)) {
+			degrees[peer]--;
+			if (values[peer] == 0) {
+				candidates[peer] &= ~bit;
+				move(peer);
+			}
+		}
+	}
+
+	/**
+	 * Removes the value of an assigned cell, giving it back to the peers that no other cell denies
+	 * it.
+	 *
+	 * @param cell
+	 */
+	void unassign(final int cell) {
+		final var value = values[cell];
+		values[cell] = 0;
+		unassignedCount++;
+
+		final var bit = CandidateSet.bitOf(value);
+		for (final var scope : topology.getScopesOfCell(cell)) {
+			if (--valueCounts[scope * valueCount + value - 1] == 0) {
+				placed[scope] &= ~bit;
+			}
+		}
+		for (final var peer : topology.getPeers(cell)) {
+			degrees[peer]++;
+			if (values[peer] == 0) {
+				if ((candidates[peer] & bit) == 0) {
+					refresh(peer);
+				}
+				move(peer);
+			}
+		}
+		refresh(cell);
+		link(cell, key(cell));
+	}
+
+	/**
+	 * Recomputes the candidates of an unassigned cell from the values placed in its scopes.
+	 */
+	private void refresh(final int cell) {
+		long used = 0;
+		for (final var scope : topology.getScopesOfCell(cell)) {
+			used |= placed[scope];
+		}
+		candidates[cell] = allValues & ~used;
+	}
+
+	private int key(final int cell) {
+		final var count = Long.bitCount(candidates[cell]);
+		if (degreeRange == 1) {
+			return count;
+		}
+
+		// more unassigned peers sort first within the same number of candidates
+		return count * degreeRange + degreeRange - 1 - degrees[cell];
+	}
+
+	private void move(final int cell) {
+		final var key = key(cell);
+		if (key != keys[cell]) {
+			unlink(cell);
+			link(cell, key);
+		}
+	}
+
+	private void link(final int cell, final int key) {
+		final var head = heads[key];
+		keys[cell] = key;
+		previous[cell] = -1;
+		next[cell] = head;
+		if (head >= 0) {
+			previous[head] = cell;
+		}
+		heads[key] = cell;
+		if (key < minKey) {
+			minKey = key;
+		}
+	}
+
+	private void unlink(final int cell) {
+		final var key = keys[cell];
+		final var before = previous[cell];
+		final var after = next[cell];
+		if (before >= 0) {
+			next[before] = after;
+		} else {
+			heads[key] = after;
+		}
+		if (after >= 0) {
+			previous[after] = before;
+		}
+		keys[cell] = -1;
+	}
+
+}
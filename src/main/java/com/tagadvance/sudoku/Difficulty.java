@@ -0,0 +1,28 @@
+package com.tagadvance.sudoku;
+
+/**
+ * How hard a puzzle is for a person, judged by the techniques needed to solve it.
+ */
+public enum Difficulty {
+
+	/**
+	 * solvable with naked and hidden singles
+	 */
+	EASY,
+
+	/**
+	 * solvable with every {@link StandardPropagationRule standard rule} but not with singles alone
+	 */
+	MEDIUM,
+
+	/**
+	 * needs a few guesses on top of the standard rules
+	 */
+	HARD,
+
+	/**
+	 * needs many guesses on top of the standard rules
+	 */
+	EXPERT
+
+}
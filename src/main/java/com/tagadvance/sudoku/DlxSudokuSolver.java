@@ -0,0 +1,462 @@
+package com.tagadvance.sudoku;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.MapMaker;
+import com.tagadvance.geometry.Dimension;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Solves a sudoku as an exact cover problem using Knuth's Dancing Links (Algorithm X).
+ * <p>
+ * Each (cell, value) pair is a row of the matrix. Every cell must hold exactly one value and every
+ * scope must hold each value exactly once, unless the scope has fewer cells than there are values
+ * in which case each value may appear at most once. The matrix is compiled once per sudoku and grid
+ * size, and the link arrays are reused across solves on the same thread.
+ * <p>
+ * Counting starts sequentially; if it has not finished after a fixed number of search nodes it
+ * starts over with the branches of the first choice counted in parallel, so that easy grids avoid
+ * the cost of parallelism.
+ */
+public class DlxSudokuSolver implements SudokuSolver, SolutionCounter {
+
+	private static final long DEFAULT_SEQUENTIAL_NODE_LIMIT = 10_000;
+
+	/**
+	 * compiled matrices keyed on the identity of the sudoku so that they are released along with it
+	 */
+	private final ConcurrentMap<Sudoku<?>, Matrix> matrices = new MapMaker().weakKeys().makeMap();
+
+	/**
+	 * number of search nodes a count may visit before it is restarted in parallel
+	 */
+	private final long sequentialNodeLimit;
+
+	public DlxSudokuSolver() {
+		this(DEFAULT_SEQUENTIAL_NODE_LIMIT);
+	}
+
+	DlxSudokuSolver(final long sequentialNodeLimit) {
+		super();
+		this.sequentialNodeLimit = sequentialNodeLimit;
+	}
+
+	@Override
+	public <V> Grid<V> solve(final Sudoku<V> sudoku, final Grid<V> grid) {
+		checkNotNull(sudoku, "sudoku must not be null");
+		checkNotNull(grid, "grid must not be null");
+
+		final var matrix = getMatrix(sudoku, grid.getSize());
+		final var values = sudoku.getValues().asList();
+
+		final var links = matrix.links.get();
+		links.reset(matrix);
+		if (!links.select(matrix.getClueRows(grid, values)) || !links.search(0)) {
+			return null;
+		}
+
+		final var solution = grid.copy();
+		final var width = grid.getSize().width();
+		final var rows = links.solution;
+		for (int k = 0; k < links.solutionSize; k++) {
+			final var cell = rows[k] / values.size();
+			final var value = values.get(rows[k] % values.size());
+			solution.getCellAt(cell % width, cell / width).setValue(value);
+		}
+
+		return solution;
+	}
+
+	@Override
+	public <V> long countSolutions(final Sudoku<V> sudoku, final Grid<V> grid, final long limit) {
+		checkNotNull(sudoku, "sudoku must not be null");
+		checkNotNull(grid, "grid must not be null");
+		checkArgument(limit > 0, "limit must be a positive integer");
+
+		final var matrix = getMatrix(sudoku, grid.getSize());
+		final var clueRows = matrix.getClueRows(grid, sudoku.getValues().asList());
+
+		final var links = matrix.links.get();
+		links.reset(matrix);
+		if (!links.select(clueRows)) {
+			return 0;
+		}
+
+		final var counted = new AtomicLong();
+		if (links.count(counted, limit, sequentialNodeLimit)) {
+			return counted.get();
+		}
+
+		// start over, counting each row of the first column chosen on its own
+		counted.set(0);
+		links.reset(matrix);
+		links.select(clueRows);
+		Arrays.stream(links.getRowsOfBestColumn()).parallel().forEach(row -> {
+			final var branch = matrix.links.get();
+			branch.reset(matrix);
+			if (branch.select(clueRows) && branch.select(new int[]{row})) {
+				branch.count(counted, limit, Long.MAX_VALUE);
+			}
+		});
+
+		return Math.min(counted.get(), limit);
+	}
+
+	private Matrix getMatrix(final Sudoku<?> sudoku, final Dimension size) {
+		final var matrix = matrices.computeIfAbsent(sudoku, s -> new Matrix(s, size));
+		if (matrix.gridSize.equals(size)) {
+			return matrix;
+		}
+
+		// the same sudoku is rarely used with more than one grid size so keep the latest
+		final var replacement = new Matrix(sudoku, size);
+		matrices.put(sudoku, replacement);
+
+		return replacement;
+	}
+
+	/**
+	 * The immutable template of a sparse exact cover matrix. Node {@code 0} is the root, nodes
+	 * {@code 1..columnCount} are column headers and the remaining nodes belong to rows.
+	 */
+	private static class Matrix {
+
+		private final Dimension gridSize;
+
+		private final int cellCount, valueCount;
+
+		private final int[] left, right, up, down, size;
+
+		/**
+		 * column header and matrix row of each node
+		 */
+		private final int[] column, row;
+
+		/**
+		 * first node of each matrix row
+		 */
+		private final int[] rowHead;
+
+		private final ThreadLocal<Links> links = ThreadLocal.withInitial(() -> new Links(this));
+
+		private <V> Matrix(final Sudoku<V> sudoku, final Dimension gridSize) {
+			super();
+			this.gridSize = gridSize;
+			final var topology = SudokuTopology.compile(gridSize, sudoku.getScopes());
+			this.cellCount = topology.getCellCount();
+			this.valueCount = sudoku.getValues().size();
+
+			final var scopeCount = topology.getScopeCount();
+			final var columnCount = cellCount + scopeCount * valueCount;
+			final var rowCount = cellCount * valueCount;
+			var nodeCount = 1 + columnCount;
+			for (int cell = 0; cell < cellCount; cell++) {
+				nodeCount += (1 + topology.getScopesOfCell(cell).length) * valueCount;
+			}
+
+			this.left = new int[nodeCount];
+			this.right = new int[nodeCount];
+			this.up = new int[nodeCount];
+			this.down = new int[nodeCount];
+			this.size = new int[columnCount + 1];
+			this.column = new int[nodeCount];
+			this.row = new int[nodeCount];
+			this.rowHead = new int[rowCount];
+
+			// link primary columns into the header list and leave secondary columns on their own
+			left[0] = right[0] = 0;
+			for (int c = 1; c <= columnCount; c++) {
+				up[c] = down[c] = column[c] = c;
+				final var scope = c - 1 - cellCount;
+				if (scope < 0 || topology.getCellsOfScope(scope / valueCount).length == valueCount) {
+					left[c] = left[0];
+					right[c] = 0;
+					right[left[0]] = c;
+					left[0] = c;
+				} else {
+					left[c] = right[c] = c;
+				}
+			}
+
+			var node = 1 + columnCount;
+			for (int cell = 0; cell < cellCount; cell++) {
+				final var scopes = topology.getScopesOfCell(cell);
+				for (int value = 0; value < valueCount; value++) {
+					final var r = cell * valueCount + value;
+					final var head = node;
+					rowHead[r] = head;
+					left[head] = right[head] = head;
+					append(head, head, 1 + cell, r);
+					node++;
+					for (final var scope : scopes) {
+						append(head, node, 1 + cellCount + scope * valueCount + value, r);
+						node++;
+					}
+				}
+			}
+		}
+
+		private void append(final int head, final int node, final int c, final int r) {
+			column[node] = c;
+			row[node] = r;
+
+			up[node] = up[c];
+			down[node] = c;
+			down[up[c]] = node;
+			up[c] = node;
+			size[c]++;
+
+			if (node != head) {
+				left[node] = left[head];
+				right[node] = head;
+				right[left[head]] = node;
+				left[head] = node;
+			}
+		}
+
+		/**
+		 * @return matrix rows of the clues or {@code null} if a clue is not a legal value
+		 */
+		private <V> int[] getClueRows(final Grid<V> grid, final ImmutableList<V> values) {
+			final var width = grid.getSize().width();
+			final var rows = new int[cellCount];
+			var count = 0;
+			for (int cell = 0; cell < cellCount; cell++) {
+				final var c = grid.getCellAt(cell % width, cell / width);
+				if (!c.isEmpty()) {
+					final var value = values.indexOf(c.getValue());
+					if (value < 0) {
+						return null;
+					}
+					rows[count++] = cell * valueCount + value;
+				}
+			}
+
+			return Arrays.copyOf(rows, count);
+		}
+
+	}
+
+	/**
+	 * Mutable link arrays for a single thread. Links share the immutable arrays of their matrix but
+	 * not the matrix itself, which would keep its thread local reachable from the value stored in
+	 * every thread and prevent either from being released.
+	 */
+	private static class Links {
+
+		private final int[] column, row, rowHead;
+
+		private final int[] left, right, up, down, size;
+
+		private final boolean[] covered;
+
+		private final int[] solution;
+		private int solutionSize;
+
+		/**
+		 * solutions found by every thread counting the same grid
+		 */
+		private AtomicLong counted;
+		private long limit, nodes, maxNodes;
+
+		private Links(final Matrix matrix) {
+			super();
+			this.column = matrix.column;
+			this.row = matrix.row;
+			this.rowHead = matrix.rowHead;
+			this.left = new int[matrix.left.length];
+			this.right = new int[matrix.right.length];
+			this.up = new int[matrix.up.length];
+			this.down = new int[matrix.down.length];
+			this.size = new int[matrix.size.length];
+			this.covered = new boolean[matrix.size.length];
+			this.solution = new int[matrix.cellCount];
+		}
+
+		private void reset(final Matrix matrix) {
+			System.arraycopy(matrix.left, 0, left, 0, left.length);
+			System.arraycopy(matrix.right, 0, right, 0, right.length);
+			System.arraycopy(matrix.up, 0, up, 0, up.length);
+			System.arraycopy(matrix.down, 0, down, 0, down.length);
+			System.arraycopy(matrix.size, 0, size, 0, size.length);
+			Arrays.fill(covered, false);
+			solutionSize = 0;
+		}
+
+		/**
+		 * Removes the given rows from the matrix as if they had been chosen by the search.
+		 *
+		 * @return {@code false} if the rows conflict with each other
+		 */
+		private boolean select(final int[] rows) {
+			if (rows == null) {
+				return false;
+			}
+
+			for (final var r : rows) {
+				final var head = rowHead[r];
+				var node = head;
+				do {
+					if (covered[column[node]]) {
+						return false;
+					}
+					cover(column[node]);
+					node = right[node];
+				} while (node != head);
+			}
+
+			return true;
+		}
+
+		private boolean search(final int depth) {
+			if (right[0] == 0) {
+				solutionSize = depth;
+
+				return true;
+			}
+
+			final var c = chooseColumn();
+			if (size[c] == 0) {
+				return false;
+			}
+
+			cover(c);
+			for (int r = down[c]; r != c; r = down[r]) {
+				solution[depth] = row[r];
+				for (int j = right[r]; j != r; j = right[j]) {
+					cover(column[j]);
+				}
+
+				if (search(depth + 1)) {
+					return true;
+				}
+
+				for (int j = left[r]; j != r; j = left[j]) {
+					uncover(column[j]);
+				}
+			}
+			uncover(c);
+
+			return false;
+		}
+
+		/**
+		 * Counts solutions, adding them to a counter that may be shared with other threads counting
+		 * other branches of the same grid. The links are left in an undefined state.
+		 *
+		 * @param counted  counter of solutions found so far
+		 * @param limit    number of solutions at which every thread stops
+		 * @param maxNodes number of search nodes after which to give up
+		 * @return {@code false} if the search gave up before finishing
+		 */
+		private boolean count(final AtomicLong counted, final long limit, final long maxNodes) {
+			this.counted = counted;
+			this.limit = limit;
+			this.nodes = 0;
+			this.maxNodes = maxNodes;
+			count();
+			this.counted = null;
+
+			return nodes <= maxNodes;
+		}
+
+		/**
+		 * @return {@code false} if the search must stop
+		 */
+		private boolean count() {
+			if (right[0] == 0) {
+				return counted.incrementAndGet() < limit;
+			} else if (++nodes > maxNodes || counted.get() >= limit) {
+				return false;
+			}
+
+			final var c = chooseColumn();
+			if (size[c] == 0) {
+				return true;
+			}
+
+			cover(c);
+			for (int r = down[c]; r != c; r = down[r]) {
+				for (int j = right[r]; j != r; j = right[j]) {
+					cover(column[j]);
+				}
+
+				// there is no need to restore the links after stopping
+				if (!count()) {
+					return false;
+				}
+
+				for (int j = left[r]; j != r; j = left[j]) {
+					uncover(column[j]);
+				}
+			}
+			uncover(c);
+
+			return true;
+		}
+
+		/**
+		 * @return matrix rows of the primary column with the fewest rows
+		 */
+		private int[] getRowsOfBestColumn() {
+			if (right[0] == 0) {
+				return new int[0];
+			}
+
+			final var c = chooseColumn();
+			final var rows = new int[size[c]];
+			var i = 0;
+			for (int r = down[c]; r != c; r = down[r]) {
+				rows[i++] = row[r];
+			}
+
+			return rows;
+		}
+
+		/**
+		 * @return the primary column with the fewest rows
+		 */
+		private int chooseColumn() {
+			var best = right[0];
+			for (int c = right[best]; c != 0 && size[best] > 1; c = right[c]) {
+				if (size[c] < size[best]) {
+					best = c;
+				}
+			}
+
+			return best;
+		}
+
+		private void cover(final int c) {
+			covered[c] = true;
+			right[left[c]] = right[c];
+			left[right[c]] = left[c];
+			for (int i = down[c]; i != c; i = down[i]) {
+				for (int j = right[i]; j != i; j = right[j]) {
+					down[up[j]] = down[j];
+					up[down[j]] = up[j];
+					size[column[j]]--;
+				}
+			}
+		}
+
+		private void uncover(final int c) {
+			for (int i = up[c]; i != c; i = up[i]) {
+				for (int j = left[i]; j != i; j = left[j]) {
+					size[column[j]]++;
+					down[up[j]] = j;
+					up[down[j]] = j;
+				}
+			}
+			right[left[c]] = c;
+			left[right[c]] = c;
+			covered[c] = false;
+		}
+
+	}
+
+}
@@ -1,24 +1,29 @@
 package com.tagadvance.sudoku;
 
 import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkElementIndex;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 import com.google.common.base.StandardSystemProperty;
 import com.google.common.collect.ImmutableCollection;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.tagadvance.geometry.Dimension;
 import com.tagadvance.geometry.Point;
-import java.util.Map.Entry;
-import java.util.function.Function;
 
 public class FixedSizeGrid<V> implements Grid<V> {
 
-	public static final byte MIN_SIZE = 1, MAX_SIZE = 25;
+	public static final byte MIN_SIZE = 1, MAX_SIZE = 64;
 
 	private final Dimension size;
 
 	private final ImmutableMap<Point, Cell<V>> cellMap;
 
+	/**
+	 * the values of cellMap, indexed {@code y * width + x}
+	 */
+	private final ImmutableList<Cell<V>> cells;
+
 	public FixedSizeGrid(final Dimension size) {
 		super();
 		this.size = checkNotNull(size, "size must not be null");
@@ -28,27 +33,34 @@ public class FixedSizeGrid<V> implements Grid<V> {
 		checkArgument(size.height() >= MIN_SIZE, "height must be >= %d", MIN_SIZE);
 		checkArgument(size.height() <= MAX_SIZE, "height must be <= %d", MAX_SIZE);
 
-		this.cellMap = size.stream()
-			.collect(ImmutableMap.toImmutableMap(Function.identity(), p -> new MutableCell<>()));
+		final var builder = ImmutableMap.<Point, Cell<V>>builderWithExpectedSize(
+			size.width() * size.height());
+		for (int y = 0, i = 0; y < size.height(); y++) {
+			for (int x = 0; x < size.width(); x++, i++) {
+				builder.put(new Point(x, y), new MutableCell<>(i));
+			}
+		}
+		this.cellMap = builder.build();
+		this.cells = cellMap.values().asList();
 	}
 
-	private FixedSizeGrid(final Dimension size, final ImmutableMap<Point, Cell<V>> cellMap) {
+	private FixedSizeGrid(final FixedSizeGrid<V> grid) {
 		super();
-		this.size = size;
-		this.cellMap = cellMap;
+		this.size = grid.size;
+
+		final var builder = ImmutableMap.<Point, Cell<V>>builderWithExpectedSize(grid.cells.size());
+		var i = 0;
+		for (final var key : grid.cellMap.keySet()) {
+			builder.put(key, new MutableCell<>(i, grid.cells.get(i).getValue()));
+			i++;
+		}
+		this.cellMap = builder.build();
+		this.cells = cellMap.values().asList();
 	}
 
 	@Override
 	public FixedSizeGrid<V> copy() {
-		final ImmutableMap<Point, Cell<V>> copy = cellMap.entrySet()
-			.stream()
-			.collect(ImmutableMap.toImmutableMap(Entry::getKey, e -> {
-				final var value = e.getValue().getValue();
-
-				return new MutableCell<>(value);
-			}));
-
-		return new FixedSizeGrid<>(size, copy);
+		return new FixedSizeGrid<>(this);
 	}
 
 	@Override
@@ -66,19 +78,40 @@ public class FixedSizeGrid<V> implements Grid<V> {
 		return cellMap.get(point);
 	}
 
+	@Override
+	public Cell<V> getCellAt(final int index) {
+		return cells.get(index);
+	}
+
+	@Override
+	public Cell<V> getCellAt(final int x, final int y) {
+		checkElementIndex(x, size.width(), "x");
+		checkElementIndex(y, size.height(), "y");
+
+		return cells.get(y * size.width() + x);
+	}
+
+	@Override
+	public int indexOf(final Cell<V> cell) {
+		return cell instanceof final MutableCell<V> c && c.getIndex() < cells.size()
+			&& cells.get(c.getIndex()) == cell ? c.getIndex() : -1;
+	}
+
 	// TODO: unit test
 	@Override
 	public String toString() {
 		final var sb = new StringBuilder();
 		for (int y = 0; y < size.height(); y++) {
 			for (int x = 0; x < size.width(); x++) {
-				Point point = new Point(x, y);
-				Cell<V> cell = getCellAt(point);
-				String value = cell.isEmpty() ? "?" : cell.getValue().toString();
+				final var cell = getCellAt(x, y);
 				if (x > 0) {
-					sb.append(" ");
+					sb.append(' ');
+				}
+				if (cell.isEmpty()) {
+					sb.append('?');
+				} else {
+					sb.append(cell.getValue());
 				}
-				sb.append(value);
 			}
 			if (y < size.height() - 1) {
 				sb.append(StandardSystemProperty.LINE_SEPARATOR.value());
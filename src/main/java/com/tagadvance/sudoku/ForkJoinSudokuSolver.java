@@ -1,21 +1,75 @@
 package com.tagadvance.sudoku;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static java.util.Objects.requireNonNull;
 
+import com.google.common.collect.ImmutableList;
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
-import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.ForkJoinPool;
-import java.util.concurrent.ForkJoinTask;
-import java.util.concurrent.RecursiveTask;
-import java.util.function.Function;
-import java.util.stream.Collectors;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicReference;
 
+/**
+ * Searches the branches of the first few guesses in parallel. A task forks one subtask per candidate
+ * of the cell with the fewest candidates until either the fork depth limit is reached or few empty
+ * cells remain, below which it backtracks sequentially on its own copy of the grid. As soon as any
+ * task finds a solution every other task stops at its next step.
+ */
 public class ForkJoinSudokuSolver implements SudokuSolver {
 
+	public static final int DEFAULT_MAX_FORK_DEPTH = 4;
+
+	public static final int DEFAULT_MIN_EMPTY_CELLS_TO_FORK = 24;
+
+	private final ForkJoinPool pool;
+
+	private final int maxForkDepth, minEmptyCellsToFork;
+
+	private final SolveListener listener;
+
+	/**
+	 * Creates a solver that runs on the {@link ForkJoinPool#commonPool() common pool}.
+	 */
 	public ForkJoinSudokuSolver() {
+		this(ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * @param pool pool to run on
+	 */
+	public ForkJoinSudokuSolver(final ForkJoinPool pool) {
+		this(pool, DEFAULT_MAX_FORK_DEPTH, DEFAULT_MIN_EMPTY_CELLS_TO_FORK);
+	}
+
+	/**
+	 * @param pool                pool to run on
+	 * @param maxForkDepth        number of guesses after which tasks stop forking; {@code 0} solves
+	 *                            sequentially in a single task
+	 * @param minEmptyCellsToFork number of empty cells below which tasks stop forking
+	 */
+	public ForkJoinSudokuSolver(final ForkJoinPool pool, final int maxForkDepth,
+		final int minEmptyCellsToFork) {
+		this(pool, maxForkDepth, minEmptyCellsToFork, SolveListener.NOOP);
+	}
+
+	/**
+	 * @param pool                pool to run on
+	 * @param maxForkDepth        number of guesses after which tasks stop forking; {@code 0} solves
+	 *                            sequentially in a single task
+	 * @param minEmptyCellsToFork number of empty cells below which tasks stop forking
+	 * @param listener            listener to report the statistics of every solve to
+	 */
+	public ForkJoinSudokuSolver(final ForkJoinPool pool, final int maxForkDepth,
+		final int minEmptyCellsToFork, final SolveListener listener) {
 		super();
+		this.pool = requireNonNull(pool, "pool must not be null");
+		checkArgument(maxForkDepth >= 0, "maxForkDepth must not be negative");
+		checkArgument(minEmptyCellsToFork >= 0, "minEmptyCellsToFork must not be negative");
+		this.maxForkDepth = maxForkDepth;
+		this.minEmptyCellsToFork = minEmptyCellsToFork;
+		this.listener = requireNonNull(listener, "listener must not be null");
 	}
 
 	@Override
@@ -23,60 +77,273 @@ public class ForkJoinSudokuSolver implements SudokuSolver {
 		requireNonNull(sudoku, "sudoku must not be null");
 		requireNonNull(grid, "grid must not be null");
 
-		final var solver = new SudokuSolverRecursiveTask<>(sudoku, grid);
+		return solve(sudoku, grid, SolveLimits.NONE, CancellationToken.NONE).solution();
+	}
 
-		return ForkJoinPool.commonPool().invoke(solver);
+	@Override
+	public <V> SolveResult<V> solve(final Sudoku<V> sudoku, final Grid<V> grid,
+		final SolveLimits limits, final CancellationToken token) {
+		requireNonNull(sudoku, "sudoku must not be null");
+		requireNonNull(grid, "grid must not be null");
+		requireNonNull(limits, "limits must not be null");
+		requireNonNull(token, "token must not be null");
+
+		final var recorder = SolveRecorder.start(listener);
+		final var budget = new SolveBudget(limits, token);
+		SolveResult<V> result;
+		try {
+			result = budget.result(search(sudoku, grid, budget, recorder));
+		} catch (final SolveBudget.AbortedException e) {
+			result = budget.result(null);
+		}
+		recorder.finish(listener, sudoku, grid, result);
+
+		return result;
 	}
 
-	private static class SudokuSolverRecursiveTask<V> extends RecursiveTask<Grid<V>> {
+	private <V> Grid<V> search(final Sudoku<V> sudoku, final Grid<V> grid, final SolveBudget budget,
+		final SolveRecorder recorder) {
+		final var allocationMark = recorder.allocationMark();
+		budget.check();
+		var start = recorder.time();
+		final var valid = sudoku.isValid(grid);
+		final var solved = valid && sudoku.isSolved(grid);
+		recorder.validate(start);
+		final var copy = valid ? grid.copy() : null;
+		recorder.allocated(allocationMark);
+		if (!valid) {
+			return null;
+		} else if (solved) {
+			return copy;
+		}
+
+		start = recorder.time();
+		final var selector = CellSelector.of(sudoku, copy, true);
+		recorder.prioritize(start);
+
+		final var search = new Search<>(sudoku, budget, recorder, maxForkDepth, minEmptyCellsToFork);
+		try {
+			pool.invoke(new SearchTask<>(search, copy, selector, 0, 0));
+		} catch (final SolveBudget.AbortedException e) {
+			// a task may run out of budget after another has found a solution
+			if (search.solution.get() == null) {
+				throw e;
+			}
+		}
+
+		return search.solution.get();
+	}
+
+	/**
+	 * The state shared by every task of one solve.
+	 */
+	private static class Search<V> {
 
 		private final Sudoku<V> sudoku;
-		private final Grid<V> grid;
+		private final ImmutableList<V> values;
+		private final SolveBudget budget;
+		private final SolveRecorder recorder;
+		private final int maxForkDepth, minEmptyCellsToFork;
+		private final AtomicReference<Grid<V>> solution = new AtomicReference<>();
 
-		public SudokuSolverRecursiveTask(final Sudoku<V> sudoku, final Grid<V> grid) {
+		public Search(final Sudoku<V> sudoku, final SolveBudget budget, final SolveRecorder recorder,
+			final int maxForkDepth, final int minEmptyCellsToFork) {
 			super();
 			this.sudoku = sudoku;
-			this.grid = grid;
+			this.values = sudoku.getValues().asList();
+			this.budget = budget;
+			this.recorder = recorder;
+			this.maxForkDepth = maxForkDepth;
+			this.minEmptyCellsToFork = minEmptyCellsToFork;
 		}
 
-		@Override
-		protected Grid<V> compute() {
-			return solve(grid);
+		public boolean isFinished() {
+			return solution.get() != null;
+		}
+
+		public boolean isSolved(final Grid<V> grid) {
+			final var start = recorder.time();
+			final var solved = sudoku.isSolved(grid);
+			recorder.validate(start);
+
+			return solved;
+		}
+
+		public Set<V> getPotentialValuesForCell(final Grid<V> grid, final Cell<V> cell) {
+			final var start = recorder.time();
+			final var values = sudoku.getPotentialValuesForCell(grid, cell);
+			recorder.candidates(start);
+
+			return values;
+		}
+
+		/**
+		 * @return index of the empty cell with the fewest potential values
+		 */
+		public int selectCell(final CellSelector selector) {
+			final var start = recorder.time();
+			final var cell = selector.select();
+			recorder.prioritize(start);
+
+			return cell;
 		}
 
-		private Grid<V> solve(final Grid<V> grid) {
-			final var cells = grid.getEmptyCells();
-			prioritize(grid, cells);
+		public void assign(final Grid<V> grid, final CellSelector selector, final int index,
+			final V value) {
+			grid.getCellAt(index).setValue(value);
+			selector.assign(index, values.indexOf(value) + 1);
+		}
 
-			final var cell = cells.remove(0);
+		/**
+		 * Backtracks on the grid, leaving it unchanged unless a solution is found.
+		 *
+		 * @param grid
+		 * @param selector selector following the grid
+		 * @param level    number of values assigned on top of the clues
+		 * @return {@code true} if this call found the solution
+		 */
+		public boolean solveSequentially(final Grid<V> grid, final CellSelector selector,
+			final int level) {
+			recorder.depth(level);
 
-			final var forks = new ArrayList<ForkJoinTask<Grid<V>>>();
-			for (final var value : sudoku.getPotentialValuesForCell(grid, cell)) {
-				cell.setValue(value);
-				if (sudoku.isSolved(grid)) {
-					return grid;
-				} else if (cells.isEmpty()) {
-					return null;
+			if (selector.getUnassignedCount() == 0) {
+				return isSolved(grid) && solution.compareAndSet(null, grid);
+			}
+
+			final var index = selectCell(selector);
+			final var cell = grid.getCellAt(index);
+			for (final var value : getPotentialValuesForCell(grid, cell)) {
+				if (isFinished()) {
+					break;
 				}
 
-				final var fork = new SudokuSolverRecursiveTask<>(sudoku, grid.copy()).fork();
-				forks.add(fork);
+				budget.node();
+				assign(grid, selector, index, value);
+				if (solveSequentially(grid, selector, level + 1)) {
+					return true;
+				}
+				selector.unassign(index);
+				budget.backtrack();
 			}
 
-			return forks.stream()
-				.map(ForkJoinTask::join)
-				.filter(Objects::nonNull)
-				.findFirst()
-				.orElse(null);
+			cell.setValue(null);
+
+			return false;
 		}
 
-		private void prioritize(final Grid<V> grid, final List<Cell<V>> cells) {
-			final var potentialValueCountByCell = cells.stream()
-				.collect(Collectors.toMap(Function.identity(),
-					c -> sudoku.getPotentialValuesForCell(grid, c).size()));
+	}
+
+	private static class SearchTask<V> extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final Search<V> search;
+		private final Grid<V> grid;
+		private final CellSelector selector;
+		private final int depth, level;
+
+		/**
+		 * @param search
+		 * @param grid
+		 * @param selector selector following the grid
+		 * @param depth    number of guesses made on top of the clues
+		 * @param level    number of values assigned on top of the clues
+		 */
+		public SearchTask(final Search<V> search, final Grid<V> grid, final CellSelector selector,
+			final int depth, final int level) {
+			super();
+			this.search = search;
+			this.grid = grid;
+			this.selector = selector;
+			this.depth = depth;
+			this.level = level;
+		}
+
+		@Override
+		protected void compute() {
+			// measure allocation outside of joins, which may run other tasks on this thread
+			final var recorder = search.recorder;
+			final var allocationMark = recorder.allocationMark();
+			final List<SearchTask<V>> branches;
+			try {
+				branches = expand();
+			} finally {
+				recorder.allocated(allocationMark);
+			}
+
+			if (branches.isEmpty()) {
+				return;
+			}
+
+			// search the last branch in this task on its own grid
+			branches.get(branches.size() - 1).compute();
+
+			// join in reverse order so that unstarted forks can be run, or skipped, by this thread
+			for (int i = branches.size() - 2; i >= 0; i--) {
+				branches.get(i).join();
+			}
+		}
+
+		/**
+		 * Assigns forced values and then either searches the rest of the grid sequentially or forks
+		 * the branches of the next guess.
+		 *
+		 * @return the branches of the guess of which all but the last have been forked, or an empty
+		 * list
+		 */
+		private List<SearchTask<V>> expand() {
+			final var budget = search.budget;
+
+			var level = this.level;
+			while (!search.isFinished()) {
+				search.recorder.depth(level);
+
+				final var emptyCount = selector.getUnassignedCount();
+				if (emptyCount == 0) {
+					if (search.isSolved(grid)) {
+						search.solution.compareAndSet(null, grid);
+					}
+
+					return List.of();
+				} else if (depth >= search.maxForkDepth || emptyCount < search.minEmptyCellsToFork) {
+					search.solveSequentially(grid, selector, level);
+
+					return List.of();
+				}
+
+				final var index = search.selectCell(selector);
+				final var cell = grid.getCellAt(index);
+				final var values = List.copyOf(search.getPotentialValuesForCell(grid, cell));
+				if (values.isEmpty()) {
+					return List.of();
+				} else if (values.size() == 1) {
+					// a forced value is not a guess so keep going in this task
+					budget.node();
+					search.assign(grid, selector, index, values.get(0));
+					level++;
+					continue;
+				}
+
+				final var branches = new ArrayList<SearchTask<V>>(values.size());
+				for (int i = 0; i < values.size() - 1; i++) {
+					budget.node();
+					final var copy = grid.copy();
+					final var copySelector = selector.copy();
+					search.assign(copy, copySelector, index, values.get(i));
+					final var fork = new SearchTask<>(search, copy, copySelector, depth + 1, level + 1);
+					fork.fork();
+					search.recorder.fork();
+					branches.add(fork);
+				}
+
+				budget.node();
+				search.assign(grid, selector, index, values.get(values.size() - 1));
+				branches.add(new SearchTask<>(search, grid, selector, depth + 1, level + 1));
+
+				return branches;
+			}
 
-			// sort from least to greatest
-			cells.sort(Comparator.comparing(potentialValueCountByCell::get));
+			return List.of();
 		}
 
 	}
@@ -21,4 +21,34 @@ public interface Grid<V> extends Copyable<Grid<V>> {
 
 	Cell<V> getCellAt(Point point);
 
+	default Cell<V> getCellAt(final int x, final int y) {
+		return getCellAt(new Point(x, y));
+	}
+
+	/**
+	 * @param index {@code y * width + x}
+	 * @return the cell at the index
+	 */
+	default Cell<V> getCellAt(final int index) {
+		final var width = getSize().width();
+
+		return getCellAt(index % width, index / width);
+	}
+
+	/**
+	 * @param cell
+	 * @return the index ({@code y * width + x}) of the cell, or {@code -1} if it is not a cell of this
+	 * grid
+	 */
+	default int indexOf(final Cell<V> cell) {
+		final var size = getSize();
+		for (int i = 0; i < size.width() * size.height(); i++) {
+			if (getCellAt(i) == cell) {
+				return i;
+			}
+		}
+
+		return -1;
+	}
+
 }
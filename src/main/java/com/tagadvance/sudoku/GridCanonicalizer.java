@@ -0,0 +1,20 @@
+package com.tagadvance.sudoku;
+
+/**
+ * Chooses one representative of every class of grids that are equivalent under some symmetries of a
+ * sudoku, so that equivalent grids can be recognized by comparing their representatives.
+ */
+@FunctionalInterface
+public interface GridCanonicalizer {
+
+	/**
+	 * @param topology   topology of the sudoku
+	 * @param valueCount number of values of the sudoku
+	 * @param values     values of the grid indexed {@code y * width + x}, where {@code 0} is an empty
+	 *                   cell and values are numbered from {@code 1}; not modified
+	 * @return a symmetry of the sudoku that {@link GridTransform#apply(int[]) transforms} the grid
+	 * into its canonical representative
+	 */
+	GridTransform canonicalize(SudokuTopology topology, int valueCount, int[] values);
+
+}
@@ -0,0 +1,156 @@
+package com.tagadvance.sudoku;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.base.MoreObjects;
+import java.util.Arrays;
+
+/**
+ * A symmetry of a sudoku: a permutation of its cells combined with a relabelling of its values.
+ * Grids are given as arrays of values indexed {@code y * width + x}, where {@code 0} is an empty cell
+ * and values are numbered from {@code 1}.
+ */
+public final class GridTransform {
+
+	/**
+	 * transformed cell index to the index of the cell it is taken from
+	 */
+	private final int[] cellMap;
+
+	/**
+	 * value to the value it is relabelled to; {@code 0} maps to itself
+	 */
+	private final int[] valueMap;
+
+	/**
+	 * @param cellMap  transformed cell index to the index of the cell it is taken from
+	 * @param valueMap value to the value it is relabelled to, with {@code valueMap[0] == 0}
+	 */
+	public GridTransform(final int[] cellMap, final int[] valueMap) {
+		super();
+		checkNotNull(cellMap, "cellMap must not be null");
+		checkNotNull(valueMap, "valueMap must not be null");
+		checkArgument(isPermutation(cellMap), "cellMap must be a permutation");
+		checkArgument(valueMap.length > 0 && valueMap[0] == 0 && isPermutation(valueMap),
+			"valueMap must be a permutation that maps 0 to itself");
+		this.cellMap = cellMap.clone();
+		this.valueMap = valueMap.clone();
+	}
+
+	/**
+	 * @param cellCount
+	 * @param valueCount
+	 * @return the transform that changes nothing
+	 */
+	public static GridTransform identity(final int cellCount, final int valueCount) {
+		return new GridTransform(identity(cellCount), identity(valueCount + 1));
+	}
+
+	private static int[] identity(final int length) {
+		final var identity = new int[length];
+		Arrays.setAll(identity, i -> i);
+
+		return identity;
+	}
+
+	private static boolean isPermutation(final int[] array) {
+		final var seen = new boolean[array.length];
+		for (final var i : array) {
+			if (i < 0 || i >= array.length || seen[i]) {
+				return false;
+			}
+			seen[i] = true;
+		}
+
+		return true;
+	}
+
+	public int getCellCount() {
+		return cellMap.length;
+	}
+
+	public int getValueCount() {
+		return valueMap.length - 1;
+	}
+
+	/**
+	 * @param values values of a grid
+	 * @return values of the transformed grid
+	 */
+	public int[] apply(final int[] values) {
+		checkNotNull(values, "values must not be null");
+		checkArgument(values.length == cellMap.length, "values must have %s cells", cellMap.length);
+
+		final var transformed = new int[values.length];
+		for (int i = 0; i < transformed.length; i++) {
+			transformed[i] = valueMap[values[cellMap[i]]];
+		}
+
+		return transformed;
+	}
+
+	/**
+	 * @param grid grid with values from {@code 1} to {@link #getValueCount()}
+	 * @return a transformed copy of the grid
+	 */
+	public Grid<Integer> apply(final Grid<Integer> grid) {
+		checkNotNull(grid, "grid must not be null");
+
+		final var values = new int[cellMap.length];
+		for (int i = 0; i < values.length; i++) {
+			final var value = grid.getCellAt(i).getValue();
+			values[i] = value == null ? 0 : value;
+		}
+
+		final var transformed = apply(values);
+		final var copy = grid.copy();
+		for (int i = 0; i < transformed.length; i++) {
+			copy.getCellAt(i).setValue(transformed[i] == 0 ? null : transformed[i]);
+		}
+
+		return copy;
+	}
+
+	/**
+	 * @param transformed values of a transformed grid
+	 * @return values of the grid it was transformed from
+	 */
+	public int[] revert(final int[] transformed) {
+		checkNotNull(transformed, "transformed must not be null");
+		checkArgument(transformed.length == cellMap.length, "transformed must have %s cells",
+			cellMap.length);
+
+		final var inverseValueMap = new int[valueMap.length];
+		for (int value = 0; value < valueMap.length; value++) {
+			inverseValueMap[valueMap[value]] = value;
+		}
+
+		final var values = new int[transformed.length];
+		for (int i = 0; i < values.length; i++) {
+			values[cellMap[i]] = inverseValueMap[transformed[i]];
+		}
+
+		return values;
+	}
+
+	@Override
+	public boolean equals(final Object o) {
+		return o instanceof final GridTransform that && Arrays.equals(cellMap, that.cellMap)
+			&& Arrays.equals(valueMap, that.valueMap);
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * Arrays.hashCode(cellMap) + Arrays.hashCode(valueMap);
+	}
+
+	@Override
+	public String toString() {
+		return MoreObjects.toStringHelper(GridTransform.class)
+			.add("cellMap", Arrays.toString(cellMap))
+			.add("valueMap", Arrays.toString(valueMap))
+			.toString();
+	}
+
+}
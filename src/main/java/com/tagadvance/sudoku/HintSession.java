@@ -0,0 +1,410 @@
+package com.tagadvance.sudoku;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.tagadvance.geometry.Point;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Optional;
+
+/**
+ * The state of one player working through a puzzle. Moves are written through to the grid and the
+ * candidates of every cell are kept up to date as moves are played and undone, so checking a move or
+ * finding the next hint never has to look at the whole grid again.
+ * <p>
+ * Cells holding a value when the session starts are clues and cannot be changed. Moves may conflict
+ * with other values, as a player's mistakes do, but no hint is given until the conflict is removed.
+ * The grid must not be changed other than through the session, and sessions are not thread safe.
+ */
+public class HintSession<V> {
+
+	private static final StandardPropagationRule[] RULES = StandardPropagationRule.values();
+
+	private final Sudoku<V> sudoku;
+
+	private final Grid<V> grid;
+
+	private final ImmutableList<V> values;
+
+	private final SudokuTopology topology;
+
+	private final int width;
+
+	private final int valueCount;
+
+	private final long allValues;
+
+	private final boolean[] clues;
+
+	/**
+	 * value of each cell between {@code 1} and {@link #valueCount} or {@code 0} if it is empty
+	 */
+	private final byte[] cellValues;
+
+	/**
+	 * bit mask of the values held by none of the peers of each cell
+	 */
+	private final long[] candidates;
+
+	/**
+	 * number of cells of each scope holding each value, indexed {@code scope * valueCount + value - 1}
+	 */
+	private final byte[] valueCounts;
+
+	/**
+	 * bit mask of the values held by at least one cell of each scope
+	 */
+	private final long[] placed;
+
+	private final Deque<Move> moves = new ArrayDeque<>();
+
+	private int filledCount;
+
+	/**
+	 * number of values held by a cell of a scope beyond the first
+	 */
+	private int duplicates;
+
+	/**
+	 * Starts a session on a grid whose values become the clues.
+	 *
+	 * @param sudoku
+	 * @param grid
+	 */
+	public HintSession(final Sudoku<V> sudoku, final Grid<V> grid) {
+		super();
+		this.sudoku = checkNotNull(sudoku, "sudoku must not be null");
+		this.grid = checkNotNull(grid, "grid must not be null");
+		this.values = sudoku.getValues().asList();
+		this.topology = SudokuTopology.of(sudoku, grid.getSize());
+		this.width = grid.getSize().width();
+		this.valueCount = values.size();
+		checkArgument(valueCount <= Long.SIZE, "sudoku must not have more than %s values",
+			Long.SIZE);
+		this.allValues = CandidateSet.allValues(valueCount);
+
+		final var cellCount = topology.getCellCount();
+		this.clues = new boolean[cellCount];
+		this.cellValues = new byte[cellCount];
+		this.candidates = new long[cellCount];
+		this.valueCounts = new byte[topology.getScopeCount() * valueCount];
+		this.placed = new long[topology.getScopeCount()];
+
+		for (int cell = 0; cell < cellCount; cell++) {
+			final var c = grid.getCellAt(cell);
+			if (!c.isEmpty()) {
+				clues[cell] = true;
+				cellValues[cell] = (byte) indexOf(c.getValue());
+				filledCount++;
+				for (final var scope : topology.getScopesOfCell(cell)) {
+					add(scope, cellValues[cell]);
+				}
+			}
+		}
+		for (int cell = 0; cell < cellCount; cell++) {
+			refresh(cell);
+		}
+	}
+
+	private int indexOf(final V value) {
+		final var index = values.indexOf(value);
+		checkArgument(index >= 0, "%s is not a value of the sudoku", value);
+
+		return index + 1;
+	}
+
+	public Sudoku<V> getSudoku() {
+		return sudoku;
+	}
+
+	public Grid<V> getGrid() {
+		return grid;
+	}
+
+	public boolean isClue(final int x, final int y) {
+		return clues[indexOf(x, y)];
+	}
+
+	/**
+	 * @return the values held by neither the cell nor any of its peers, as
+	 * {@link Sudoku#getPotentialValuesForCell(Grid, Cell)} would return them
+	 */
+	public ImmutableSet<V> getCandidates(final int x, final int y) {
+		final var cell = indexOf(x, y);
+		final var value = cellValues[cell];
+		final var mask = value == 0 ? candidates[cell] : candidates[cell] & ~CandidateSet.bitOf(value);
+		final var builder = ImmutableSet.<V>builder();
+		for (long c = mask; c != 0; c &= c - 1) {
+			builder.add(values.get(Long.numberOfTrailingZeros(c)));
+		}
+
+		return builder.build();
+	}
+
+	/**
+	 * @return {@code true} if no peer of the cell holds the value
+	 */
+	public boolean isConsistent(final int x, final int y, final V value) {
+		checkNotNull(value, "value must not be null");
+
+		return (candidates[indexOf(x, y)] & CandidateSet.bitOf(indexOf(value))) != 0;
+	}
+
+	/**
+	 * Places a value in a cell, replacing any value the player placed there before.
+	 *
+	 * @param x
+	 * @param y
+	 * @param value value to place or {@code null} to empty the cell
+	 * @return {@code true} if no peer of the cell holds the value
+	 * @throws IllegalArgumentException if the cell is a clue
+	 */
+	public boolean play(final int x, final int y, final V value) {
+		final var cell = indexOf(x, y);
+		checkArgument(!clues[cell], "cell (%s, %s) is a clue", x, y);
+
+		final var v = value == null ? 0 : indexOf(value);
+		final var consistent = v == 0 || (candidates[cell] & CandidateSet.bitOf(v)) != 0;
+		moves.push(new Move(cell, cellValues[cell]));
+		set(cell, v);
+
+		return consistent;
+	}
+
+	/**
+	 * Empties a cell.
+	 *
+	 * @throws IllegalArgumentException if the cell is a clue
+	 */
+	public void clear(final int x, final int y) {
+		play(x, y, null);
+	}
+
+	/**
+	 * Reverts the most recent move that has not already been undone.
+	 *
+	 * @return {@code false} if there was no move to undo
+	 */
+	public boolean undo() {
+		final var move = moves.poll();
+		if (move == null) {
+			return false;
+		}
+		set(move.cell(), move.previous());
+
+		return true;
+	}
+
+	/**
+	 * @return number of moves that can be undone
+	 */
+	public int getMoveCount() {
+		return moves.size();
+	}
+
+	/**
+	 * @return {@code true} if no value appears twice in a scope
+	 */
+	public boolean isValid() {
+		return duplicates == 0;
+	}
+
+	public boolean isSolved() {
+		return duplicates == 0 && filledCount == cellValues.length;
+	}
+
+	/**
+	 * Finds the next value a player could place by logic alone. Naked and hidden singles are found
+	 * directly from the maintained candidates; otherwise the {@link StandardPropagationRule standard
+	 * rules} are applied to a copy of the candidates until one of them leads to a value.
+	 *
+	 * @return the next value to place and the hardest technique needed to find it, or empty if the
+	 * grid is solved, conflicts with itself, cannot be finished from its current values or needs a
+	 * guess
+	 */
+	public Optional<Hint<V>> nextHint() {
+		if (duplicates != 0) {
+			return Optional.empty();
+		}
+
+		for (int cell = 0; cell < cellValues.length; cell++) {
+			if (cellValues[cell] == 0) {
+				final var count = Long.bitCount(candidates[cell]);
+				if (count == 0) {
+					return Optional.empty();
+				} else if (count == 1) {
+					return hint(StandardPropagationRule.NAKED_SINGLE, cell,
+						CandidateSet.valueOf(candidates[cell]));
+				}
+			}
+		}
+
+		for (int scope = 0; scope < placed.length; scope++) {
+			final var cells = topology.getCellsOfScope(scope);
+			if (cells.length != valueCount) {
+				continue;
+			}
+
+			long once = 0, twice = 0;
+			for (final var cell : cells) {
+				if (cellValues[cell] == 0) {
+					twice |= once & candidates[cell];
+					once |= candidates[cell];
+				}
+			}
+
+			final var unplaced = allValues & ~placed[scope];
+			if ((unplaced & ~once) != 0) {
+				// a value has nowhere to go
+				return Optional.empty();
+			}
+
+			final var singles = unplaced & ~twice;
+			if (singles != 0) {
+				final var bit = Long.lowestOneBit(singles);
+				for (final var cell : cells) {
+					if (cellValues[cell] == 0 && (candidates[cell] & bit) != 0) {
+						return hint(StandardPropagationRule.HIDDEN_SINGLE, cell,
+							CandidateSet.valueOf(bit));
+					}
+				}
+			}
+		}
+
+		return deduce();
+	}
+
+	/**
+	 * Applies the rules in order, retrying the first rule after any rule succeeds, until a cell is
+	 * assigned.
+	 */
+	private Optional<Hint<V>> deduce() {
+		final var candidateGrid = new CandidateGrid(topology, valueCount);
+		for (int cell = 0; cell < cellValues.length; cell++) {
+			if (cellValues[cell] != 0) {
+				candidateGrid.assign(cell, cellValues[cell]);
+			}
+		}
+
+		int i = 0, hardest = 0;
+		while (i < RULES.length && !candidateGrid.isContradiction()) {
+			if (RULES[i].apply(candidateGrid)) {
+				hardest = Math.max(hardest, i);
+				for (int cell = 0; cell < cellValues.length; cell++) {
+					if (cellValues[cell] == 0 && candidateGrid.isAssigned(cell)) {
+						return candidateGrid.isContradiction() ? Optional.empty()
+							: hint(RULES[hardest], cell, candidateGrid.getValue(cell));
+					}
+				}
+				i = 0;
+			} else {
+				i++;
+			}
+		}
+
+		return Optional.empty();
+	}
+
+	private Optional<Hint<V>> hint(final StandardPropagationRule technique, final int cell,
+		final int value) {
+		return Optional.of(new Hint<>(technique, new Point(cell % width, cell / width),
+			values.get(value - 1)));
+	}
+
+	private int indexOf(final int x, final int y) {
+		final var size = topology.getSize();
+		checkArgument(x >= 0 && x < size.width() && y >= 0 && y < size.height(),
+			"(%s, %s) is outside of grid", x, y);
+
+		return y * width + x;
+	}
+
+	private void set(final int cell, final int value) {
+		final var previous = cellValues[cell];
+		if (previous == value) {
+			return;
+		}
+
+		final var scopes = topology.getScopesOfCell(cell);
+		if (previous != 0) {
+			filledCount--;
+			for (final var scope : scopes) {
+				remove(scope, previous);
+			}
+		}
+		cellValues[cell] = (byte) value;
+		if (value != 0) {
+			filledCount++;
+			for (final var scope : scopes) {
+				add(scope, value);
+			}
+		}
+		grid.getCellAt(cell).setValue(value == 0 ? null : values.get(value - 1));
+
+		// only the cells sharing a scope with the changed cell can see a different set of values
+		refresh(cell);
+		for (final var peer : topology.getPeers(cell)) {
+			refresh(peer);
+		}
+	}
+
+	private void add(final int scope, final int value) {
+		if (valueCounts[scope * valueCount + value - 1]++ == 0) {
+			placed[scope] |= CandidateSet.bitOf(value);
+		} else {
+			duplicates++;
+		}
+	}
+
+	private void remove(final int scope, final int value) {
+		if (--valueCounts[scope * valueCount + value - 1] == 0) {
+			placed[scope] &= ~CandidateSet.bitOf(value);
+		} else {
+			duplicates--;
+		}
+	}
+
+	/**
+	 * Recomputes the candidates of a cell from the values placed in its scopes, ignoring its own
+	 * value.
+	 */
+	private void refresh(final int cell) {
+		final var value = cellValues[cell];
+		long used = 0;
+		for (final var scope : topology.getScopesOfCell(cell)) {
+			var mask = placed[scope];
+			if (value != 0 && valueCounts[scope * valueCount + value - 1] == 1) {
+				mask &= ~CandidateSet.bitOf(value);
+			}
+			used |= mask;
+		}
+		candidates[cell] = allValues & ~used;
+	}
+
+	private record Move(int cell, int previous) {
+
+	}
+
+	/**
+	 * @param technique hardest technique needed to find the value
+	 * @param point     cell in which to place the value
+	 * @param value
+	 */
+	public record Hint<V>(StandardPropagationRule technique, Point point, V value) {
+
+		@Override
+		public String toString() {
+			return MoreObjects.toStringHelper(Hint.class)
+				.add("technique", technique)
+				.add("point", point)
+				.add("value", value)
+				.toString();
+		}
+
+	}
+
+}
@@ -0,0 +1,30 @@
+package com.tagadvance.sudoku;
+
+/**
+ * A {@link Cell} of integers that can be read and written without boxing. Empty cells have the
+ * value {@code 0}.
+ */
+public interface IntCell extends Cell<Integer> {
+
+	int getInt();
+
+	void setInt(int value);
+
+	@Override
+	default boolean isEmpty() {
+		return getInt() == 0;
+	}
+
+	@Override
+	default Integer getValue() {
+		final var value = getInt();
+
+		return value == 0 ? null : value;
+	}
+
+	@Override
+	default void setValue(final Integer value) {
+		setInt(value == null ? 0 : value);
+	}
+
+}
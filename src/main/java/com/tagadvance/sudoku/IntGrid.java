@@ -0,0 +1,49 @@
+package com.tagadvance.sudoku;
+
+import static com.google.common.base.Preconditions.checkElementIndex;
+
+import com.tagadvance.geometry.Point;
+
+/**
+ * A {@link Grid} of integers whose cells can be addressed by coordinates or by index
+ * ({@code y * width + x}) without boxing or allocating a {@link Point}. Empty cells have the value
+ * {@code 0}.
+ */
+public interface IntGrid extends Grid<Integer> {
+
+	@Override
+	IntGrid copy();
+
+	default int indexOf(final int x, final int y) {
+		final var size = getSize();
+		checkElementIndex(x, size.width(), "x");
+		checkElementIndex(y, size.height(), "y");
+
+		return y * size.width() + x;
+	}
+
+	int getInt(int index);
+
+	default int getInt(final int x, final int y) {
+		return getInt(indexOf(x, y));
+	}
+
+	void setInt(int index, int value);
+
+	default void setInt(final int x, final int y, final int value) {
+		setInt(indexOf(x, y), value);
+	}
+
+	IntCell getCellAt(int index);
+
+	@Override
+	default IntCell getCellAt(final int x, final int y) {
+		return getCellAt(indexOf(x, y));
+	}
+
+	@Override
+	default IntCell getCellAt(final Point point) {
+		return getCellAt(point.x(), point.y());
+	}
+
+}
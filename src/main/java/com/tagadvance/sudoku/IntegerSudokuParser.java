@@ -1,34 +1,187 @@
 package com.tagadvance.sudoku;
 
-import com.tagadvance.geometry.Point;
-import java.util.concurrent.atomic.AtomicInteger;
-import java.util.stream.IntStream;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
 
+import com.google.common.base.CharMatcher;
+import com.google.common.base.Splitter;
+import com.google.common.primitives.Ints;
+import java.util.Arrays;
+
+/**
+ * Reads puzzles in row-major order in one of two formats:
+ * <ul>
+ * <li>one character per cell, where each symbol stands for a value and any other character,
+ * whitespace included, is an empty cell;</li>
+ * <li>tokens separated by whitespace or commas, where a token is a number, a single symbol or
+ * anything else for an empty cell, which is read by parsers created to read tokens and for grids
+ * wider than there are symbols.</li>
+ * </ul>
+ * In either format a value greater than the width of the grid is an empty cell.
+ * By default the symbols are the digits {@code 1} to {@code 9} followed by the letters {@code A} to
+ * {@code Z} for {@code 10} to {@code 35}, ignoring case, so 16x16 and 25x25 puzzles can be written
+ * one character per cell. With any symbols {@code 0}, unless it is one of them, is read as the value
+ * {@code 0}, which an {@link IntGrid} treats as empty.
+ * <p>
+ * {@link #format(Grid)} writes grids back in the same formats.
+ */
 public class IntegerSudokuParser implements SudokuParser<Integer> {
 
+	private static final String DEFAULT_SYMBOLS = "123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ";
+
+	private static final CharMatcher SEPARATOR = CharMatcher.whitespace().or(CharMatcher.is(','));
+
+	private static final Splitter TOKEN_SPLITTER = Splitter.on(SEPARATOR).omitEmptyStrings();
+
+	/**
+	 * character to value, or {@code -1} for an empty cell
+	 */
+	private final int[] values = new int[128];
+
+	private final String symbols;
+
+	private final boolean tokens;
+
+	public IntegerSudokuParser() {
+		this(false);
+	}
+
+	/**
+	 * @param tokens {@code true} to read every puzzle as tokens
+	 */
+	public IntegerSudokuParser(final boolean tokens) {
+		this(DEFAULT_SYMBOLS, tokens);
+		for (char c = 'a'; c <= 'z'; c++) {
+			values[c] = values[Character.toUpperCase(c)];
+		}
+	}
+
+	/**
+	 * @param symbols the symbol of each value in order starting with {@code 1}, for example
+	 *                {@code "ABCDEFGHIJKLMNOPQRSTUVWXY"} for puzzles written in letters
+	 */
+	public IntegerSudokuParser(final String symbols) {
+		this(symbols, false);
+	}
+
+	/**
+	 * @param symbols the symbol of each value in order starting with {@code 1}
+	 * @param tokens  {@code true} to read every puzzle as tokens
+	 */
+	public IntegerSudokuParser(final String symbols, final boolean tokens) {
+		super();
+		checkNotNull(symbols, "symbols must not be null");
+		Arrays.fill(values, -1);
+		for (int i = 0; i < symbols.length(); i++) {
+			final var c = symbols.charAt(i);
+			checkArgument(c < values.length && values[c] == -1 && !SEPARATOR.matches(c),
+				"symbol %s is repeated, a separator or not ASCII", c);
+			values[c] = i + 1;
+		}
+		if (values['0'] == -1) {
+			values['0'] = 0;
+		}
+		this.symbols = symbols;
+		this.tokens = tokens;
+	}
+
 	@Override
 	public void populateSudokuFromString(final Grid<Integer> grid, final String puzzle) {
-		final var size = grid.getSize();
+		final var width = grid.getSize().width();
+		if (tokens || width > symbols.length()) {
+			populateFromTokens(grid, puzzle);
 
-		final var x = new AtomicInteger();
-		final var y = new AtomicInteger();
-		IntStream.range(0, puzzle.length()).map(puzzle::charAt).forEach(c -> {
-			final var point = new Point(x.get(), y.get());
-			final var cell = grid.getCellAt(point);
-			if (c >= '0' && c <= '9') {
-				cell.setValue(c - '0');
+			return;
+		}
+
+		for (int i = 0, x = 0, y = 0; i < puzzle.length(); i++) {
+			final var value = valueOf(puzzle.charAt(i));
+			if (value <= width) {
+				set(grid, x, y, value);
 			}
 
-			x.getAndUpdate(i -> {
-				if (++i >= size.width()) {
-					y.getAndIncrement();
+			if (++x >= width) {
+				x = 0;
+				y++;
+			}
+		}
+	}
 
-					return 0;
+	private void populateFromTokens(final Grid<Integer> grid, final String puzzle) {
+		final var width = grid.getSize().width();
+		int x = 0, y = 0;
+		for (final var token : TOKEN_SPLITTER.split(puzzle)) {
+			final int value;
+			if (CharMatcher.inRange('0', '9').matchesAllOf(token)) {
+				final var number = Ints.tryParse(token);
+				value = number == null ? -1 : number;
+			} else {
+				value = token.length() == 1 ? valueOf(token.charAt(0)) : -1;
+			}
+			if (value <= width) {
+				set(grid, x, y, value);
+			}
+
+			if (++x >= width) {
+				x = 0;
+				y++;
+			}
+		}
+	}
+
+	/**
+	 * Writes a grid one character per cell with {@code .} for an empty cell, or as numbers separated
+	 * by spaces with {@code 0} for an empty cell if the grid is wider than there are symbols or this
+	 * parser reads tokens.
+	 *
+	 * @param grid
+	 * @return the grid in row-major order, which this parser reads back into the same grid
+	 */
+	public String format(final Grid<Integer> grid) {
+		checkNotNull(grid, "grid must not be null");
+
+		final var size = grid.getSize();
+		final var tokens = this.tokens || size.width() > symbols.length();
+		final var intGrid = grid instanceof final IntGrid g ? g : null;
+		final var builder = new StringBuilder(size.width() * size.height() * (tokens ? 3 : 1));
+		for (int y = 0; y < size.height(); y++) {
+			for (int x = 0; x < size.width(); x++) {
+				final int value;
+				if (intGrid != null) {
+					value = intGrid.getInt(x, y);
+				} else {
+					final var cell = grid.getCellAt(x, y);
+					value = cell.isEmpty() ? 0 : cell.getValue();
 				}
 
-				return i;
-			});
-		});
+				if (tokens) {
+					if (!builder.isEmpty()) {
+						builder.append(' ');
+					}
+					builder.append(value);
+				} else {
+					builder.append(value == 0 ? '.' : symbols.charAt(value - 1));
+				}
+			}
+		}
+
+		return builder.toString();
+	}
+
+	private int valueOf(final char c) {
+		return c < values.length ? values[c] : -1;
+	}
+
+	private static void set(final Grid<Integer> grid, final int x, final int y, final int value) {
+		if (value < 0) {
+			return;
+		}
+
+		if (grid instanceof final IntGrid intGrid) {
+			intGrid.setInt(x, y, value);
+		} else {
+			grid.getCellAt(x, y).setValue(value);
+		}
 	}
 
 }
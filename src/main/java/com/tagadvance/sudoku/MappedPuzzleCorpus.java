@@ -0,0 +1,306 @@
+package com.tagadvance.sudoku;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Reads a file of one puzzle per line by memory mapping it, in the one character per cell format
+ * understood by {@link IntegerSudokuParser}: each character is one cell in row-major order, a digit
+ * from {@code 1} to {@code 9} or a letter from {@code A} to {@code Z} for {@code 10} to {@code 35}
+ * is a clue and any other character, or a letter past the width of the grid, is an empty cell. Blank
+ * lines and lines starting with {@code #} are skipped, as are leading and trailing whitespace.
+ * <p>
+ * Records are decoded straight from the mapped bytes into grids. Streams split the file on line
+ * boundaries so that it can be read in parallel, and each split maps its part of the file in
+ * windows so that files larger than a single mapping can be read.
+ */
+public class MappedPuzzleCorpus implements Closeable {
+
+	/**
+	 * width of the widest grid whose values can all be written one character per cell
+	 */
+	public static final int MAX_WIDTH = 35;
+
+	private static final int DEFAULT_WINDOW_SIZE = 64 << 20;
+
+	private static final int SCAN_BUFFER_SIZE = 256;
+
+	private static final int MIN_SPLIT_SIZE = 1 << 16;
+
+	private final FileChannel channel;
+
+	private final long size;
+
+	private final int windowSize;
+
+	MappedPuzzleCorpus(final FileChannel channel, final int windowSize) throws IOException {
+		super();
+		this.channel = checkNotNull(channel, "channel must not be null");
+		checkArgument(windowSize > 0, "windowSize must be a positive integer");
+		this.size = channel.size();
+		this.windowSize = windowSize;
+	}
+
+	public static MappedPuzzleCorpus open(final Path path) throws IOException {
+		checkNotNull(path, "path must not be null");
+
+		return new MappedPuzzleCorpus(FileChannel.open(path, StandardOpenOption.READ),
+			DEFAULT_WINDOW_SIZE);
+	}
+
+	/**
+	 * @param gridFactory creates an empty grid for each record
+	 * @return the puzzles of the corpus in file order
+	 */
+	public <G extends Grid<Integer>> Stream<G> stream(final Supplier<? extends G> gridFactory) {
+		checkNotNull(gridFactory, "gridFactory must not be null");
+
+		return StreamSupport.stream(new RecordSpliterator<>(gridFactory, 0, size), false);
+	}
+
+	/**
+	 * @param gridFactory creates an empty grid for each record; called concurrently
+	 * @return the puzzles of the corpus in file order, split across threads on line boundaries
+	 */
+	public <G extends Grid<Integer>> Stream<G> parallelStream(
+		final Supplier<? extends G> gridFactory) {
+		return this.<G>stream(gridFactory).parallel();
+	}
+
+	/**
+	 * @return size of the file in bytes
+	 */
+	public long size() {
+		return size;
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+
+	/**
+	 * @param position
+	 * @return offset of the first line starting at or after the position
+	 */
+	private long nextLineStart(long position) {
+		if (position == 0) {
+			return 0;
+		}
+
+		final var buffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+		// the line containing the byte before the position ends at the first newline after it
+		position--;
+		try {
+			while (position < size) {
+				buffer.clear();
+				final var read = channel.read(buffer, position);
+				for (int i = 0; i < read; i++) {
+					if (buffer.get(i) == '\n') {
+						return position + i + 1;
+					}
+				}
+				position += read;
+			}
+		} catch (final IOException e) {
+			throw new UncheckedIOException(e);
+		}
+
+		return size;
+	}
+
+	private MappedByteBuffer map(final long position, final long length) {
+		try {
+			return channel.map(MapMode.READ_ONLY, position, length);
+		} catch (final IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * @return the value of a clue or {@code 0} if the byte is not one
+	 */
+	private static int valueOf(final byte b) {
+		if (b >= '1' && b <= '9') {
+			return b - '0';
+		} else if (b >= 'A' && b <= 'Z') {
+			return b - 'A' + 10;
+		} else if (b >= 'a' && b <= 'z') {
+			return b - 'a' + 10;
+		}
+
+		return 0;
+	}
+
+	private static boolean isWhitespace(final byte b) {
+		return b == ' ' || b == '\t' || b == '\r' || b == '\n';
+	}
+
+	/**
+	 * Reads the records whose lines start in {@code [position, end)}.
+	 */
+	private class RecordSpliterator<G extends Grid<Integer>> implements Spliterator<G> {
+
+		private final Supplier<? extends G> gridFactory;
+
+		private long position;
+
+		private final long end;
+
+		/**
+		 * mapping of the file starting at {@link #windowStart}, or {@code null} before the first read
+		 */
+		private MappedByteBuffer window;
+
+		private long windowStart;
+
+		private RecordSpliterator(final Supplier<? extends G> gridFactory, final long position,
+			final long end) {
+			super();
+			this.gridFactory = gridFactory;
+			this.position = position;
+			this.end = end;
+		}
+
+		@Override
+		public boolean tryAdvance(final Consumer<? super G> action) {
+			while (position < end) {
+				final var lineEnd = findLineEnd();
+				final var from = (int) (position - windowStart);
+				final var to = (int) (lineEnd - windowStart);
+				position = lineEnd < size && window.get(to) == '\n' ? lineEnd + 1 : lineEnd;
+
+				final var grid = decode(from, to);
+				if (grid != null) {
+					action.accept(grid);
+
+					return true;
+				}
+			}
+
+			return false;
+		}
+
+		/**
+		 * Maps a window containing the whole line at {@link #position}.
+		 *
+		 * @return offset in the file of the newline ending the line, or of the end of the file
+		 */
+		private long findLineEnd() {
+			if (window == null || position >= windowStart + window.limit()) {
+				remap();
+			}
+
+			while (true) {
+				for (int i = (int) (position - windowStart); i < window.limit(); i++) {
+					if (window.get(i) == '\n') {
+						return windowStart + i;
+					}
+				}
+
+				final var windowEnd = windowStart + window.limit();
+				if (windowEnd == size) {
+					return size;
+				}
+				checkArgument(windowStart < position,
+					"line at byte %s is longer than the window size of %s bytes", position, windowSize);
+				remap();
+			}
+		}
+
+		private void remap() {
+			windowStart = position;
+			window = map(position, Math.min(windowSize, size - position));
+		}
+
+		/**
+		 * @return the grid of the record in the window between the offsets, or {@code null} if the
+		 * line is not a record
+		 */
+		private G decode(int from, int to) {
+			while (from < to && isWhitespace(window.get(from))) {
+				from++;
+			}
+			while (to > from && isWhitespace(window.get(to - 1))) {
+				to--;
+			}
+			if (from == to || window.get(from) == '#') {
+				return null;
+			}
+
+			final G grid = gridFactory.get();
+			final var dimension = grid.getSize();
+			final var width = dimension.width();
+			final var cellCount = width * dimension.height();
+			checkArgument(to - from <= cellCount, "record at byte %s has more than %s cells",
+				windowStart + from, cellCount);
+
+			final var intGrid = grid instanceof final IntGrid g ? g : null;
+			for (int i = 0, x = 0, y = 0; i < to - from; i++) {
+				final var value = valueOf(window.get(from + i));
+				if (value > 0 && value <= width) {
+					if (intGrid != null) {
+						intGrid.setInt(i, value);
+					} else {
+						grid.getCellAt(x, y).setValue(value);
+					}
+				}
+
+				if (++x >= width) {
+					x = 0;
+					y++;
+				}
+			}
+
+			return grid;
+		}
+
+		@Override
+		public Spliterator<G> trySplit() {
+			if (end - position < MIN_SPLIT_SIZE) {
+				return null;
+			}
+
+			final var middle = nextLineStart(position + (end - position) / 2);
+			if (middle <= position || middle >= end) {
+				return null;
+			}
+
+			final var prefix = new RecordSpliterator<G>(gridFactory, position, middle);
+			position = middle;
+			window = null;
+
+			return prefix;
+		}
+
+		/**
+		 * @return number of remaining bytes, which is an upper bound of the number of records
+		 */
+		@Override
+		public long estimateSize() {
+			return end - position;
+		}
+
+		@Override
+		public int characteristics() {
+			return ORDERED | NONNULL | IMMUTABLE;
+		}
+
+	}
+
+}
@@ -2,16 +2,28 @@ package com.tagadvance.sudoku;
 
 class MutableCell<V> implements Cell<V> {
 
+	/**
+	 * index of the cell within its grid
+	 */
+	private final int index;
+
 	private V value;
 
-	MutableCell() {
+	MutableCell(final int index) {
 		super();
+		this.index = index;
 	}
 
-	MutableCell(final V value) {
+	MutableCell(final int index, final V value) {
+		super();
+		this.index = index;
 		this.value = value;
 	}
 
+	int getIndex() {
+		return index;
+	}
+
 	@Override
 	public boolean isEmpty() {
 		return this.value == null;
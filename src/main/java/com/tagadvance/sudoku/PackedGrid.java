@@ -0,0 +1,208 @@
+package com.tagadvance.sudoku;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkElementIndex;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.base.StandardSystemProperty;
+import com.google.common.collect.ImmutableList;
+import com.tagadvance.geometry.Dimension;
+
+/**
+ * An {@link IntGrid} backed by a flat {@code byte[]}, or a {@code short[]} when values do not fit in
+ * a byte, indexed by {@code y * width + x}. Copying a grid copies the array and nothing else; cell
+ * views are created lazily per grid.
+ */
+public class PackedGrid implements IntGrid {
+
+	private final Dimension size;
+
+	private final int maxValue;
+
+	/**
+	 * exactly one of bytes and shorts is non-null
+	 */
+	private final byte[] bytes;
+	private final short[] shorts;
+
+	/**
+	 * cell views by index, created on first access
+	 */
+	private PackedCell[] views;
+
+	private ImmutableList<Cell<Integer>> cells;
+
+	/**
+	 * @param size
+	 * @param maxValue the largest value that will be assigned to a cell
+	 */
+	public PackedGrid(final Dimension size, final int maxValue) {
+		super();
+		this.size = checkNotNull(size, "size must not be null");
+
+		checkArgument(size.width() >= FixedSizeGrid.MIN_SIZE, "width must be >= %d",
+			FixedSizeGrid.MIN_SIZE);
+		checkArgument(size.width() <= FixedSizeGrid.MAX_SIZE, "width must be <= %d",
+			FixedSizeGrid.MAX_SIZE);
+		checkArgument(size.height() >= FixedSizeGrid.MIN_SIZE, "height must be >= %d",
+			FixedSizeGrid.MIN_SIZE);
+		checkArgument(size.height() <= FixedSizeGrid.MAX_SIZE, "height must be <= %d",
+			FixedSizeGrid.MAX_SIZE);
+		checkArgument(maxValue > 0 && maxValue <= Short.MAX_VALUE, "maxValue must be between 1 and %s",
+			Short.MAX_VALUE);
+
+		this.maxValue = maxValue;
+		final var length = size.width() * size.height();
+		if (maxValue <= Byte.MAX_VALUE) {
+			this.bytes = new byte[length];
+			this.shorts = null;
+		} else {
+			this.bytes = null;
+			this.shorts = new short[length];
+		}
+	}
+
+	/**
+	 * Creates a grid that can hold values up to the larger of its width and height.
+	 *
+	 * @param size
+	 */
+	public PackedGrid(final Dimension size) {
+		this(size, Math.max(size.width(), size.height()));
+	}
+
+	protected PackedGrid(final PackedGrid grid) {
+		super();
+		this.size = grid.size;
+		this.maxValue = grid.maxValue;
+		this.bytes = grid.bytes == null ? null : grid.bytes.clone();
+		this.shorts = grid.shorts == null ? null : grid.shorts.clone();
+	}
+
+	@Override
+	public PackedGrid copy() {
+		return new PackedGrid(this);
+	}
+
+	@Override
+	public Dimension getSize() {
+		return size;
+	}
+
+	public int getMaxValue() {
+		return maxValue;
+	}
+
+	@Override
+	public ImmutableList<Cell<Integer>> getCells() {
+		if (cells == null) {
+			final var length = length();
+			final var builder = ImmutableList.<Cell<Integer>>builderWithExpectedSize(length);
+			for (int i = 0; i < length; i++) {
+				builder.add(getCellAt(i));
+			}
+			cells = builder.build();
+		}
+
+		return cells;
+	}
+
+	@Override
+	public IntCell getCellAt(final int index) {
+		checkElementIndex(index, length(), "index");
+		if (views == null) {
+			views = new PackedCell[length()];
+		}
+		if (views[index] == null) {
+			views[index] = new PackedCell(index);
+		}
+
+		return views[index];
+	}
+
+	@Override
+	public int indexOf(final Cell<Integer> cell) {
+		return cell instanceof final PackedCell c && c.getGrid() == this ? c.getIndex() : -1;
+	}
+
+	@Override
+	public int getInt(final int index) {
+		return bytes == null ? shorts[index] : bytes[index];
+	}
+
+	@Override
+	public void setInt(final int index, final int value) {
+		checkElementIndex(index, length(), "index");
+		checkArgument(value >= 0 && value <= maxValue, "value must be between 0 and %s", maxValue);
+
+		store(index, value);
+	}
+
+	/**
+	 * Writes a value that has already been validated.
+	 */
+	protected void store(final int index, final int value) {
+		if (bytes == null) {
+			shorts[index] = (short) value;
+		} else {
+			bytes[index] = (byte) value;
+		}
+	}
+
+	private int length() {
+		return bytes == null ? shorts.length : bytes.length;
+	}
+
+	@Override
+	public String toString() {
+		final var sb = new StringBuilder();
+		for (int y = 0, i = 0; y < size.height(); y++) {
+			for (int x = 0; x < size.width(); x++, i++) {
+				if (x > 0) {
+					sb.append(" ");
+				}
+				final var value = getInt(i);
+				if (value == 0) {
+					sb.append("?");
+				} else {
+					sb.append(value);
+				}
+			}
+			if (y < size.height() - 1) {
+				sb.append(StandardSystemProperty.LINE_SEPARATOR.value());
+			}
+		}
+
+		return sb.toString();
+	}
+
+	final class PackedCell implements IntCell {
+
+		private final int index;
+
+		private PackedCell(final int index) {
+			super();
+			this.index = index;
+		}
+
+		PackedGrid getGrid() {
+			return PackedGrid.this;
+		}
+
+		int getIndex() {
+			return index;
+		}
+
+		@Override
+		public int getInt() {
+			return PackedGrid.this.getInt(index);
+		}
+
+		@Override
+		public void setInt(final int value) {
+			PackedGrid.this.setInt(index, value);
+		}
+
+	}
+
+}
@@ -0,0 +1,178 @@
+package com.tagadvance.sudoku;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.tagadvance.sudoku.SolveResult.Status;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Races several solvers against each other on the same grid and returns the first conclusive
+ * result, which is either a solution or proof that the grid has none. As soon as one solver settles
+ * the grid the others are cancelled through their {@link CancellationToken}, so solvers that poll
+ * their token give their threads back quickly; solvers that ignore it run to the end in the
+ * background.
+ * <p>
+ * Every solver gets the full limits of the solve. When no solver settles the grid the result is
+ * {@link Status#CANCELLED} if the caller cancelled the solve and {@link Status#BUDGET_EXCEEDED}
+ * otherwise. Instances are thread-safe if the solvers they race are.
+ */
+public class PortfolioSudokuSolver implements SudokuSolver, AutoCloseable {
+
+	private final ImmutableList<SudokuSolver> solvers;
+
+	private final ExecutorService executor;
+
+	private final boolean ownsExecutor;
+
+	/**
+	 * Creates a portfolio with one thread per solver.
+	 *
+	 * @param solvers solvers to race, fastest first if known
+	 */
+	public PortfolioSudokuSolver(final List<? extends SudokuSolver> solvers) {
+		this(solvers, checkNotNull(solvers, "solvers must not be null").size());
+	}
+
+	/**
+	 * @param solvers     solvers to race, fastest first if known
+	 * @param parallelism number of threads; solvers beyond it only start once an earlier one gives
+	 *                    up
+	 */
+	public PortfolioSudokuSolver(final List<? extends SudokuSolver> solvers,
+		final int parallelism) {
+		this(solvers, Executors.newFixedThreadPool(checkParallelism(parallelism),
+			new ThreadFactoryBuilder().setNameFormat("sudoku-portfolio-%d").setDaemon(true).build()),
+			true);
+	}
+
+	/**
+	 * @param solvers  solvers to race, fastest first if known
+	 * @param executor executor to run solvers on, which will not be shut down by {@link #close()}
+	 */
+	public PortfolioSudokuSolver(final List<? extends SudokuSolver> solvers,
+		final ExecutorService executor) {
+		this(solvers, executor, false);
+	}
+
+	private PortfolioSudokuSolver(final List<? extends SudokuSolver> solvers,
+		final ExecutorService executor, final boolean ownsExecutor) {
+		super();
+		this.solvers = ImmutableList.copyOf(checkNotNull(solvers, "solvers must not be null"));
+		checkArgument(!this.solvers.isEmpty(), "solvers must not be empty");
+		this.executor = checkNotNull(executor, "executor must not be null");
+		this.ownsExecutor = ownsExecutor;
+	}
+
+	private static int checkParallelism(final int parallelism) {
+		checkArgument(parallelism > 0, "parallelism must be a positive integer");
+
+		return parallelism;
+	}
+
+	@Override
+	public <V> Grid<V> solve(final Sudoku<V> sudoku, final Grid<V> grid) {
+		checkNotNull(sudoku, "sudoku must not be null");
+		checkNotNull(grid, "grid must not be null");
+
+		return solve(sudoku, grid, SolveLimits.NONE, CancellationToken.NONE).solution();
+	}
+
+	/**
+	 * Returns {@link Status#CANCELLED} if the calling thread is interrupted while waiting for the
+	 * solvers.
+	 *
+	 * @throws UncheckedExecutionException if every solver failed
+	 */
+	@Override
+	public <V> SolveResult<V> solve(final Sudoku<V> sudoku, final Grid<V> grid,
+		final SolveLimits limits, final CancellationToken token) {
+		checkNotNull(sudoku, "sudoku must not be null");
+		checkNotNull(grid, "grid must not be null");
+		checkNotNull(limits, "limits must not be null");
+		checkNotNull(token, "token must not be null");
+
+		if (token.isCancelled()) {
+			return SolveResult.of(Status.CANCELLED);
+		}
+
+		final var race = new RaceToken(token);
+		final var completionService = new ExecutorCompletionService<SolveResult<V>>(executor);
+		final var futures = new ArrayList<Future<SolveResult<V>>>(solvers.size());
+		try {
+			for (final var solver : solvers) {
+				// every solver gets its own copy in case one does not honour its contract
+				final var copy = grid.copy();
+				futures.add(completionService.submit(() -> solver.solve(sudoku, copy, limits, race)));
+			}
+
+			Throwable failure = null;
+			var failures = 0;
+			for (int i = 0; i < futures.size(); i++) {
+				try {
+					final var result = completionService.take().get();
+					if (result.status() == Status.SOLVED || result.status() == Status.UNSOLVABLE) {
+						return result;
+					}
+				} catch (final ExecutionException e) {
+					failures++;
+					if (failure == null) {
+						failure = e.getCause();
+					}
+				}
+			}
+
+			if (failures == futures.size()) {
+				throw new UncheckedExecutionException(failure);
+			}
+
+			return SolveResult.of(token.isCancelled() ? Status.CANCELLED : Status.BUDGET_EXCEEDED);
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+
+			return SolveResult.of(Status.CANCELLED);
+		} finally {
+			race.cancel();
+			futures.forEach(future -> future.cancel(false));
+		}
+	}
+
+	/**
+	 * Shuts down the executor if it was created by this solver.
+	 */
+	@Override
+	public void close() {
+		if (ownsExecutor) {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Cancelled when the race is over or when the token of the caller is.
+	 */
+	private static class RaceToken extends CancellationToken {
+
+		private final CancellationToken parent;
+
+		public RaceToken(final CancellationToken parent) {
+			super();
+			this.parent = parent;
+		}
+
+		@Override
+		public boolean isCancelled() {
+			return super.isCancelled() || parent.isCancelled();
+		}
+
+	}
+
+}
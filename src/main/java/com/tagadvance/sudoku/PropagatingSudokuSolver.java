@@ -0,0 +1,144 @@
+package com.tagadvance.sudoku;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Applies logical rules until none of them makes progress and only then guesses, choosing the cell
+ * with the fewest candidates. Rules are tried in order and the first rule is retried after any rule
+ * succeeds, so cheap rules should come first.
+ */
+public class PropagatingSudokuSolver implements SudokuSolver {
+
+	private final ImmutableList<PropagationRule> rules;
+
+	/**
+	 * number of passes in which each rule changed the grid, by position in {@link #rules}
+	 */
+	private final LongAdder[] hits;
+
+	private final LongAdder branches = new LongAdder();
+
+	public PropagatingSudokuSolver() {
+		this(ImmutableList.copyOf(StandardPropagationRule.values()));
+	}
+
+	/**
+	 * @param rules rules in the order they should be tried
+	 */
+	public PropagatingSudokuSolver(final List<? extends PropagationRule> rules) {
+		super();
+		checkNotNull(rules, "rules must not be null");
+		this.rules = ImmutableList.copyOf(rules);
+		checkArgument(!this.rules.isEmpty(), "rules must not be empty");
+
+		this.hits = new LongAdder[this.rules.size()];
+		for (int i = 0; i < hits.length; i++) {
+			hits[i] = new LongAdder();
+		}
+	}
+
+	@Override
+	public <V> Grid<V> solve(final Sudoku<V> sudoku, final Grid<V> grid) {
+		checkNotNull(sudoku, "sudoku must not be null");
+		checkNotNull(grid, "grid must not be null");
+
+		final var result = search(CandidateGrid.of(sudoku, grid));
+		if (result == null) {
+			return null;
+		}
+
+		final var solution = grid.copy();
+		result.writeTo(solution, sudoku.getValues().asList());
+
+		return solution;
+	}
+
+	/**
+	 * Applies the rules to a fixpoint.
+	 *
+	 * @param grid
+	 * @return {@code false} if the grid is in contradiction
+	 */
+	public boolean propagate(final CandidateGrid grid) {
+		checkNotNull(grid, "grid must not be null");
+
+		int i = 0;
+		while (i < rules.size() && !grid.isContradiction()) {
+			if (rules.get(i).apply(grid)) {
+				hits[i].increment();
+				i = 0;
+			} else {
+				i++;
+			}
+		}
+
+		return !grid.isContradiction();
+	}
+
+	private CandidateGrid search(final CandidateGrid grid) {
+		if (!propagate(grid)) {
+			return null;
+		} else if (grid.isSolved()) {
+			return grid;
+		}
+
+		final var cell = selectCell(grid);
+		for (long candidates = grid.getCandidates(cell); candidates != 0;
+			candidates &= candidates - 1) {
+			branches.increment();
+
+			final var child = grid.copy();
+			child.assign(cell, CandidateSet.valueOf(Long.lowestOneBit(candidates)));
+			final var result = search(child);
+			if (result != null) {
+				return result;
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 * @return the unassigned cell with the fewest candidates
+	 */
+	private int selectCell(final CandidateGrid grid) {
+		int best = -1, bestCount = Integer.MAX_VALUE;
+		for (int cell = 0; cell < grid.getCellCount(); cell++) {
+			if (!grid.isAssigned(cell)) {
+				final var count = Long.bitCount(grid.getCandidates(cell));
+				if (count < bestCount) {
+					best = cell;
+					bestCount = count;
+				}
+			}
+		}
+
+		return best;
+	}
+
+	/**
+	 * @return number of passes in which each rule changed a grid
+	 */
+	public ImmutableMap<PropagationRule, Long> getRuleHits() {
+		final var builder = ImmutableMap.<PropagationRule, Long>builder();
+		for (int i = 0; i < hits.length; i++) {
+			builder.put(rules.get(i), hits[i].sum());
+		}
+
+		return builder.buildKeepingLast();
+	}
+
+	/**
+	 * @return number of guesses made
+	 */
+	public long getBranches() {
+		return branches.sum();
+	}
+
+}
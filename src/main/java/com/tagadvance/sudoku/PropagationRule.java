@@ -0,0 +1,18 @@
+package com.tagadvance.sudoku;
+
+/**
+ * A logical deduction that assigns values or removes candidates without guessing.
+ */
+public interface PropagationRule {
+
+	String name();
+
+	/**
+	 * Makes a single pass of the rule over the grid.
+	 *
+	 * @param grid
+	 * @return {@code true} if the grid was changed
+	 */
+	boolean apply(CandidateGrid grid);
+
+}
@@ -2,12 +2,10 @@ package com.tagadvance.sudoku;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
-import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
-import com.google.common.cache.LoadingCache;
 import com.google.common.collect.ImmutableCollection;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
+import com.tagadvance.geometry.Dimension;
 import com.tagadvance.geometry.Point;
 import com.tagadvance.geometry.Rectangle;
 import java.util.Objects;
@@ -18,19 +16,9 @@ class RectangleScope<V> implements Scope<V> {
 	private final ImmutableSet<Point> pointSet;
 
 	/**
-	 * cache of scopes for cell
+	 * cell indices for the grid size most recently asked for, which rarely changes
 	 */
-	private final LoadingCache<Grid<V>, ImmutableCollection<Cell<V>>> cellCache = CacheBuilder.newBuilder()
-		.build(new CacheLoader<>() {
-
-			@Override
-			public ImmutableCollection<Cell<V>> load(final Grid<V> grid) {
-				return pointSet.stream()
-					.map(grid::getCellAt)
-					.collect(ImmutableList.toImmutableList());
-			}
-
-		});
+	private volatile CellIndices cellIndices;
 
 	public RectangleScope(final Rectangle rectangle) {
 		super();
@@ -42,7 +30,31 @@ class RectangleScope<V> implements Scope<V> {
 
 	@Override
 	public ImmutableCollection<Cell<V>> getCells(final Grid<V> grid) {
-		return cellCache.getUnchecked(grid);
+		final var indices = getCellIndicesOf(grid.getSize());
+		final var builder = ImmutableList.<Cell<V>>builderWithExpectedSize(indices.length);
+		for (final var index : indices) {
+			builder.add(grid.getCellAt(index));
+		}
+
+		return builder.build();
+	}
+
+	@Override
+	public int[] getCellIndices(final Dimension size) {
+		return getCellIndicesOf(size).clone();
+	}
+
+	private int[] getCellIndicesOf(final Dimension size) {
+		var cellIndices = this.cellIndices;
+		if (cellIndices == null || !cellIndices.size.equals(size)) {
+			final var indices = pointSet.stream()
+				.mapToInt(p -> p.x() >= 0 && p.x() < size.width() && p.y() >= 0
+					&& p.y() < size.height() ? p.y() * size.width() + p.x() : -1)
+				.toArray();
+			this.cellIndices = cellIndices = new CellIndices(size, indices);
+		}
+
+		return cellIndices.indices;
 	}
 
 	@Override
@@ -61,4 +73,8 @@ class RectangleScope<V> implements Scope<V> {
 		return rectangle.toString();
 	}
 
+	private record CellIndices(Dimension size, int[] indices) {
+
+	}
+
 }
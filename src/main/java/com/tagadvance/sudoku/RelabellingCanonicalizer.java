@@ -0,0 +1,48 @@
+package com.tagadvance.sudoku;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Canonicalizes grids under relabelling of values only, which is a symmetry of every sudoku: values
+ * are renumbered in the order they first appear in row-major order. Cells are never moved.
+ */
+public class RelabellingCanonicalizer implements GridCanonicalizer {
+
+	public RelabellingCanonicalizer() {
+		super();
+	}
+
+	@Override
+	public GridTransform canonicalize(final SudokuTopology topology, final int valueCount,
+		final int[] values) {
+		checkNotNull(topology, "topology must not be null");
+		checkNotNull(values, "values must not be null");
+		checkArgument(values.length == topology.getCellCount(), "values must have %s cells",
+			topology.getCellCount());
+
+		final var valueMap = new int[valueCount + 1];
+		int next = 1;
+		for (final var value : values) {
+			checkArgument(value >= 0 && value <= valueCount, "values must be between 0 and %s",
+				valueCount);
+			if (value != 0 && valueMap[value] == 0) {
+				valueMap[value] = next++;
+			}
+		}
+		// values that do not appear keep their order after those that do
+		for (int value = 1; value <= valueCount; value++) {
+			if (valueMap[value] == 0) {
+				valueMap[value] = next++;
+			}
+		}
+
+		final var cellMap = new int[values.length];
+		for (int i = 0; i < cellMap.length; i++) {
+			cellMap[i] = i;
+		}
+
+		return new GridTransform(cellMap, valueMap);
+	}
+
+}
@@ -0,0 +1,110 @@
+package com.tagadvance.sudoku;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.math.LongMath;
+import com.tagadvance.sudoku.SolveResult.Status;
+import java.time.Duration;
+import java.util.SplittableRandom;
+import java.util.function.LongFunction;
+
+/**
+ * Runs a randomized solver over and over with a growing node limit and a new seed for every run, so
+ * that a run which has wandered into a hopeless part of the search tree is abandoned instead of
+ * being searched to the end. The limit grows geometrically so that a grid is always settled by some
+ * run, and the limits of a solve bound the work of all of its runs together.
+ * <p>
+ * Instances are thread-safe if the solvers made by the factory are.
+ */
+public class RestartingSudokuSolver implements SudokuSolver {
+
+	public static final long DEFAULT_FIRST_RUN_NODES = 1_000;
+
+	public static final int DEFAULT_GROWTH_FACTOR = 2;
+
+	private final LongFunction<? extends SudokuSolver> solverFactory;
+
+	private final long seed, firstRunNodes;
+
+	private final int growthFactor;
+
+	/**
+	 * Creates a solver that restarts {@link SimpleSudokuSolver#shuffled(long) shuffled} searches.
+	 *
+	 * @param seed seed from which the seed of every run is drawn
+	 */
+	public RestartingSudokuSolver(final long seed) {
+		this(SimpleSudokuSolver::shuffled, seed);
+	}
+
+	/**
+	 * @param solverFactory makes the solver of a run from its seed
+	 * @param seed          seed from which the seed of every run is drawn
+	 */
+	public RestartingSudokuSolver(final LongFunction<? extends SudokuSolver> solverFactory,
+		final long seed) {
+		this(solverFactory, seed, DEFAULT_FIRST_RUN_NODES, DEFAULT_GROWTH_FACTOR);
+	}
+
+	/**
+	 * @param solverFactory makes the solver of a run from its seed
+	 * @param seed          seed from which the seed of every run is drawn
+	 * @param firstRunNodes number of nodes allowed to the first run
+	 * @param growthFactor  factor by which the number of nodes allowed grows from one run to the next
+	 */
+	public RestartingSudokuSolver(final LongFunction<? extends SudokuSolver> solverFactory,
+		final long seed, final long firstRunNodes, final int growthFactor) {
+		super();
+		this.solverFactory = checkNotNull(solverFactory, "solverFactory must not be null");
+		checkArgument(firstRunNodes > 0, "firstRunNodes must be a positive integer");
+		checkArgument(growthFactor > 1, "growthFactor must be greater than 1");
+		this.seed = seed;
+		this.firstRunNodes = firstRunNodes;
+		this.growthFactor = growthFactor;
+	}
+
+	@Override
+	public <V> Grid<V> solve(final Sudoku<V> sudoku, final Grid<V> grid) {
+		checkNotNull(sudoku, "sudoku must not be null");
+		checkNotNull(grid, "grid must not be null");
+
+		return solve(sudoku, grid, SolveLimits.NONE, CancellationToken.NONE).solution();
+	}
+
+	@Override
+	public <V> SolveResult<V> solve(final Sudoku<V> sudoku, final Grid<V> grid,
+		final SolveLimits limits, final CancellationToken token) {
+		checkNotNull(sudoku, "sudoku must not be null");
+		checkNotNull(grid, "grid must not be null");
+		checkNotNull(limits, "limits must not be null");
+		checkNotNull(token, "token must not be null");
+
+		final var startNanos = System.nanoTime();
+		final var timeoutNanos = limits.timeout().toNanos();
+		final var seeds = new SplittableRandom(seed);
+		long runNodes = firstRunNodes, nodes = 0, backtracks = 0;
+		while (true) {
+			final var remainingNanos = timeoutNanos - (System.nanoTime() - startNanos);
+			final var remainingNodes = limits.maxNodes() - nodes;
+			final var remainingBacktracks = limits.maxBacktracks() - backtracks;
+			if (remainingNanos <= 0 || remainingNodes <= 0 || remainingBacktracks <= 0) {
+				return new SolveResult<>(Status.BUDGET_EXCEEDED, null, nodes, backtracks);
+			}
+
+			final var runLimits = new SolveLimits(Duration.ofNanos(remainingNanos),
+				Math.min(runNodes, remainingNodes), remainingBacktracks);
+			final var solver = checkNotNull(solverFactory.apply(seeds.nextLong()),
+				"solverFactory must not return null");
+			final var result = solver.solve(sudoku, grid, runLimits, token);
+			nodes += result.nodes();
+			backtracks += result.backtracks();
+			if (result.status() != Status.BUDGET_EXCEEDED) {
+				return new SolveResult<>(result.status(), result.solution(), nodes, backtracks);
+			}
+
+			runNodes = LongMath.saturatedMultiply(runNodes, growthFactor);
+		}
+	}
+
+}
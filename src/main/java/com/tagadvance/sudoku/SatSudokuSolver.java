@@ -0,0 +1,184 @@
+package com.tagadvance.sudoku;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.MapMaker;
+import com.tagadvance.geometry.Dimension;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Solves a sudoku by encoding it as a boolean satisfiability problem for an embedded
+ * {@link CdclSolver conflict-driven clause learning} solver. Learning keeps large and heavily
+ * constrained grids tractable where backtracking over scopes is not.
+ * <p>
+ * There is a variable for each (cell, value) pair. Every cell holds exactly one value and every scope
+ * holds each value at most once, and exactly once if the scope has as many cells as there are values.
+ * The formula is compiled once per sudoku and grid size; the clues of a grid are passed to the solver
+ * as assumptions rather than added to the formula, so each thread keeps one solver per formula whose
+ * learned clauses carry over from one grid to the next.
+ */
+public class SatSudokuSolver implements SudokuSolver {
+
+	/**
+	 * compiled formulas keyed on the identity of the sudoku so that they are released along with it
+	 */
+	private final ConcurrentMap<Sudoku<?>, Formula> formulas = new MapMaker().weakKeys().makeMap();
+
+	public SatSudokuSolver() {
+		super();
+	}
+
+	@Override
+	public <V> Grid<V> solve(final Sudoku<V> sudoku, final Grid<V> grid) {
+		checkNotNull(sudoku, "sudoku must not be null");
+		checkNotNull(grid, "grid must not be null");
+
+		return solve(sudoku, grid, SolveLimits.NONE, CancellationToken.NONE).solution();
+	}
+
+	@Override
+	public <V> SolveResult<V> solve(final Sudoku<V> sudoku, final Grid<V> grid,
+		final SolveLimits limits, final CancellationToken token) {
+		checkNotNull(sudoku, "sudoku must not be null");
+		checkNotNull(grid, "grid must not be null");
+		checkNotNull(limits, "limits must not be null");
+		checkNotNull(token, "token must not be null");
+
+		final var budget = new SolveBudget(limits, token);
+		try {
+			return budget.result(search(sudoku, grid, budget));
+		} catch (final SolveBudget.AbortedException e) {
+			return budget.result(null);
+		}
+	}
+
+	private <V> Grid<V> search(final Sudoku<V> sudoku, final Grid<V> grid,
+		final SolveBudget budget) {
+		budget.check();
+		final var formula = getFormula(sudoku, grid.getSize());
+		final var values = sudoku.getValues().asList();
+		final var assumptions = formula.getClueLiterals(grid, values);
+		if (assumptions == null) {
+			return null;
+		}
+
+		final var model = formula.solvers.get().solve(assumptions, budget);
+		if (model == null) {
+			return null;
+		}
+
+		final var solution = grid.copy();
+		final var width = grid.getSize().width();
+		for (int v = 0; v < model.length; v++) {
+			if (model[v]) {
+				final var cell = v / values.size();
+				solution.getCellAt(cell % width, cell / width).setValue(values.get(v % values.size()));
+			}
+		}
+
+		return solution;
+	}
+
+	private Formula getFormula(final Sudoku<?> sudoku, final Dimension size) {
+		final var formula = formulas.computeIfAbsent(sudoku, s -> new Formula(s, size));
+		if (formula.gridSize.equals(size)) {
+			return formula;
+		}
+
+		// the same sudoku is rarely used with more than one grid size so keep the latest
+		final var replacement = new Formula(sudoku, size);
+		formulas.put(sudoku, replacement);
+
+		return replacement;
+	}
+
+	/**
+	 * The immutable encoding of a sudoku for grids of one size. Variable {@code cell * valueCount +
+	 * value} means that the cell holds the value.
+	 */
+	private static class Formula {
+
+		private final Dimension gridSize;
+
+		private final int cellCount, valueCount;
+
+		/**
+		 * the values of each cell, and the cells of each scope that may hold each value
+		 */
+		private final int[][] atMostOne;
+
+		/**
+		 * the values of each cell, and the cells of each full scope, one of which must be true
+		 */
+		private final List<int[]> atLeastOne = new ArrayList<>();
+
+		private final ThreadLocal<CdclSolver> solvers;
+
+		private Formula(final Sudoku<?> sudoku, final Dimension gridSize) {
+			super();
+			this.gridSize = gridSize;
+			final var topology = SudokuTopology.compile(gridSize, sudoku.getScopes());
+			this.cellCount = topology.getCellCount();
+			this.valueCount = sudoku.getValues().size();
+
+			final var scopeCount = topology.getScopeCount();
+			this.atMostOne = new int[cellCount + scopeCount * valueCount][];
+			for (int cell = 0; cell < cellCount; cell++) {
+				final var variables = new int[valueCount];
+				final var literals = new int[valueCount];
+				for (int value = 0; value < valueCount; value++) {
+					variables[value] = cell * valueCount + value;
+					literals[value] = CdclSolver.literal(variables[value], true);
+				}
+				atMostOne[cell] = variables;
+				atLeastOne.add(literals);
+			}
+
+			for (int scope = 0; scope < scopeCount; scope++) {
+				final var cells = topology.getCellsOfScope(scope);
+				for (int value = 0; value < valueCount; value++) {
+					final var variables = new int[cells.length];
+					final var literals = new int[cells.length];
+					for (int i = 0; i < cells.length; i++) {
+						variables[i] = cells[i] * valueCount + value;
+						literals[i] = CdclSolver.literal(variables[i], true);
+					}
+					atMostOne[cellCount + scope * valueCount + value] = variables;
+					if (cells.length == valueCount) {
+						atLeastOne.add(literals);
+					}
+				}
+			}
+
+			this.solvers = ThreadLocal.withInitial(
+				() -> new CdclSolver(cellCount * valueCount, atMostOne, atLeastOne));
+		}
+
+		/**
+		 * @return literals of the clues or {@code null} if a clue is not a value of the sudoku
+		 */
+		private <V> int[] getClueLiterals(final Grid<V> grid, final ImmutableList<V> values) {
+			final var width = grid.getSize().width();
+			final var literals = new int[cellCount];
+			var count = 0;
+			for (int cell = 0; cell < cellCount; cell++) {
+				final var c = grid.getCellAt(cell % width, cell / width);
+				if (!c.isEmpty()) {
+					final var value = values.indexOf(c.getValue());
+					if (value < 0) {
+						return null;
+					}
+					literals[count++] = CdclSolver.literal(cell * valueCount + value, true);
+				}
+			}
+
+			return Arrays.copyOf(literals, count);
+		}
+
+	}
+
+}
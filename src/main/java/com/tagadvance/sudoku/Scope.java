@@ -2,6 +2,7 @@ package com.tagadvance.sudoku;
 
 import static java.util.function.Predicate.not;
 
+import com.tagadvance.geometry.Dimension;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.stream.Collectors;
@@ -15,6 +16,17 @@ public interface Scope<V> {
 
 	Collection<Cell<V>> getCells(Grid<V> grid);
 
+	/**
+	 * @param size size of a grid
+	 * @return indices ({@code y * width + x}) of the cells of the scope in grids of the given size,
+	 * or {@code -1} for cells outside of such grids
+	 */
+	default int[] getCellIndices(final Dimension size) {
+		final var grid = new FixedSizeGrid<V>(size);
+
+		return getCells(grid).stream().mapToInt(grid::indexOf).toArray();
+	}
+
 	default Collection<V> getUsedValues(final Grid<V> grid) {
 		return values(grid).collect(Collectors.toSet());
 	}
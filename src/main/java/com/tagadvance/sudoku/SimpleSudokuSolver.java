@@ -2,16 +2,50 @@ package com.tagadvance.sudoku;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
-import java.util.Comparator;
-import java.util.List;
-import java.util.Map;
-import java.util.function.Function;
-import java.util.stream.Collectors;
+import com.google.common.collect.ImmutableList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Set;
+import java.util.SplittableRandom;
 
 public class SimpleSudokuSolver implements SudokuSolver {
 
+	private final SolveListener listener;
+
+	private final boolean shuffled;
+
+	private final long seed;
+
 	public SimpleSudokuSolver() {
+		this(SolveListener.NOOP);
+	}
+
+	/**
+	 * @param listener listener to report the statistics of every solve to
+	 */
+	public SimpleSudokuSolver(final SolveListener listener) {
+		this(listener, false, 0);
+	}
+
+	private SimpleSudokuSolver(final SolveListener listener, final boolean shuffled,
+		final long seed) {
 		super();
+		this.listener = checkNotNull(listener, "listener must not be null");
+		this.shuffled = shuffled;
+		this.seed = seed;
+	}
+
+	/**
+	 * Creates a solver that tries the values of each cell in a random order rather than the order of
+	 * the sudoku. Every solve draws its order from the same seed, so solving a grid twice explores the
+	 * same tree.
+	 *
+	 * @param seed
+	 * @return the solver
+	 */
+	public static SimpleSudokuSolver shuffled(final long seed) {
+		return new SimpleSudokuSolver(SolveListener.NOOP, true, seed);
 	}
 
 	@Override
@@ -19,52 +53,116 @@ public class SimpleSudokuSolver implements SudokuSolver {
 		checkNotNull(sudoku, "sudoku must not be null");
 		checkNotNull(grid, "grid must not be null");
 
-		return new InternalSudokuSolver<>(sudoku, grid.copy()).solve();
+		return solve(sudoku, grid, SolveLimits.NONE, CancellationToken.NONE).solution();
+	}
+
+	@Override
+	public <V> SolveResult<V> solve(final Sudoku<V> sudoku, final Grid<V> grid,
+		final SolveLimits limits, final CancellationToken token) {
+		checkNotNull(sudoku, "sudoku must not be null");
+		checkNotNull(grid, "grid must not be null");
+		checkNotNull(limits, "limits must not be null");
+		checkNotNull(token, "token must not be null");
+
+		final var recorder = SolveRecorder.start(listener);
+		final var allocationMark = recorder.allocationMark();
+		final var budget = new SolveBudget(limits, token);
+		SolveResult<V> result;
+		try {
+			final var random = shuffled ? new SplittableRandom(seed) : null;
+			final var solver = new InternalSudokuSolver<>(sudoku, grid.copy(), budget, recorder,
+				random);
+			result = budget.result(solver.solve());
+		} catch (final SolveBudget.AbortedException e) {
+			result = budget.result(null);
+		}
+		recorder.allocated(allocationMark);
+		recorder.finish(listener, sudoku, grid, result);
+
+		return result;
 	}
 
 	private static class InternalSudokuSolver<V> {
 
 		private final Sudoku<V> sudoku;
+		private final ImmutableList<V> values;
 		private final Grid<V> alphaGrid;
-
-		public InternalSudokuSolver(final Sudoku<V> sudoku, final Grid<V> grid) {
+		private final SolveBudget budget;
+		private final SolveRecorder recorder;
+		private final SplittableRandom random;
+		private CellSelector selector;
+
+		/**
+		 * @param sudoku
+		 * @param grid
+		 * @param budget
+		 * @param recorder
+		 * @param random   random order in which to try values, or {@code null} to try them in order
+		 */
+		public InternalSudokuSolver(final Sudoku<V> sudoku, final Grid<V> grid,
+			final SolveBudget budget, final SolveRecorder recorder, final SplittableRandom random) {
 			super();
 			this.sudoku = sudoku;
+			this.values = sudoku.getValues().asList();
 			this.alphaGrid = grid;
+			this.budget = budget;
+			this.recorder = recorder;
+			this.random = random;
 		}
 
+		/**
+		 * @return the solution, or {@code null} if the grid is invalid or has no solution
+		 * @throws SolveBudget.AbortedException if the budget runs out
+		 */
 		public Grid<V> solve() {
-			if (!sudoku.isValid(alphaGrid)) {
-				// FIXME: throw exception
+			budget.check();
+			var start = recorder.time();
+			final var valid = sudoku.isValid(alphaGrid);
+			final var solved = valid && sudoku.isSolved(alphaGrid);
+			recorder.validate(start);
+			if (!valid) {
 				return null;
+			} else if (solved) {
+				return alphaGrid;
 			}
 
-			final var grid = solve(alphaGrid);
-			if (grid == null) {
-				// FIXME: throw exception?
-			}
+			start = recorder.time();
+			selector = CellSelector.of(sudoku, alphaGrid, true);
+			recorder.prioritize(start);
 
-			return grid;
+			return solve(alphaGrid, 1);
 		}
 
-		private Grid<V> solve(final Grid<V> grid) {
-			final var cells = grid.getEmptyCells();
-			prioritize(grid, cells);
+		private Grid<V> solve(final Grid<V> grid, final int depth) {
+			recorder.depth(depth);
 
-			final var cell = cells.remove(0);
-			final var potentialCellValues = sudoku.getPotentialValuesForCell(grid, cell);
+			var start = recorder.time();
+			final var index = selector.select();
+			recorder.prioritize(start);
+
+			final var cell = grid.getCellAt(index);
+			start = recorder.time();
+			final var potentialCellValues = order(sudoku.getPotentialValuesForCell(grid, cell));
+			recorder.candidates(start);
 			for (final V value : potentialCellValues) {
+				budget.node();
 				cell.setValue(value);
-				if (sudoku.isSolved(grid)) {
-					return grid;
-				} else if (cells.isEmpty()) {
-					return null;
-				}
-
-				final var result = solve(grid);
-				if (result != null) {
-					return result;
+				selector.assign(index, values.indexOf(value) + 1);
+				if (selector.getUnassignedCount() == 0) {
+					start = recorder.time();
+					final var solved = sudoku.isSolved(grid);
+					recorder.validate(start);
+					if (solved) {
+						return grid;
+					}
+				} else {
+					final var result = solve(grid, depth + 1);
+					if (result != null) {
+						return result;
+					}
 				}
+				selector.unassign(index);
+				budget.backtrack();
 			}
 
 			cell.setValue(null);
@@ -72,13 +170,17 @@ public class SimpleSudokuSolver implements SudokuSolver {
 			return null;
 		}
 
-		private void prioritize(final Grid<V> grid, final List<Cell<V>> emptyCells) {
-			final Map<Cell<V>, Integer> cells = emptyCells.stream()
-				.collect(Collectors.toMap(Function.identity(),
-					cell -> sudoku.getPotentialValuesForCell(grid, cell).size()));
+		private Collection<V> order(final Set<V> values) {
+			if (random == null || values.size() < 2) {
+				return values;
+			}
+
+			final var shuffled = new ArrayList<>(values);
+			for (int i = shuffled.size() - 1; i > 0; i--) {
+				Collections.swap(shuffled, i, random.nextInt(i + 1));
+			}
 
-			// sort from least to greatest
-			emptyCells.sort(Comparator.comparing(cells::get));
+			return shuffled;
 		}
 
 	}
@@ -0,0 +1,57 @@
+package com.tagadvance.sudoku;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.base.StandardSystemProperty;
+import java.time.Duration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Logs the statistics of every solve at debug level, and of solves slower than a threshold at warn
+ * level along with the grid so that the puzzle can be reproduced.
+ */
+public class Slf4jSolveListener implements SolveListener {
+
+	/**
+	 * the longest threshold that can be compared against {@link System#nanoTime()} differences
+	 */
+	private static final Duration NEVER_SLOW = Duration.ofNanos(Long.MAX_VALUE);
+
+	private final Logger logger;
+
+	private final long slowNanos;
+
+	/**
+	 * Creates a listener that logs to the logger of this class and never warns.
+	 */
+	public Slf4jSolveListener() {
+		this(LoggerFactory.getLogger(Slf4jSolveListener.class), NEVER_SLOW);
+	}
+
+	/**
+	 * @param logger
+	 * @param slowThreshold solves that take longer than this are logged at warn level, capped at
+	 *                      about 292 years
+	 */
+	public Slf4jSolveListener(final Logger logger, final Duration slowThreshold) {
+		super();
+		this.logger = checkNotNull(logger, "logger must not be null");
+		checkNotNull(slowThreshold, "slowThreshold must not be null");
+		checkArgument(!slowThreshold.isNegative(), "slowThreshold must not be negative");
+		this.slowNanos = (slowThreshold.compareTo(NEVER_SLOW) > 0 ? NEVER_SLOW : slowThreshold)
+			.toNanos();
+	}
+
+	@Override
+	public void onSolve(final Sudoku<?> sudoku, final Grid<?> grid, final SolveStats stats) {
+		if (stats.elapsedNanos() > slowNanos) {
+			logger.warn("slow solve {} of grid{}{}", stats, StandardSystemProperty.LINE_SEPARATOR.value(),
+				grid);
+		} else if (logger.isDebugEnabled()) {
+			logger.debug("solve {}", stats);
+		}
+	}
+
+}
@@ -0,0 +1,25 @@
+package com.tagadvance.sudoku;
+
+/**
+ * A solver that can count the solutions of a grid without building them.
+ */
+public interface SolutionCounter {
+
+	/**
+	 * @param sudoku
+	 * @param grid   grid whose solutions to count, which is not modified
+	 * @param limit  number of solutions after which to stop counting
+	 * @return number of solutions, at most {@code limit}
+	 */
+	<V> long countSolutions(Sudoku<V> sudoku, Grid<V> grid, long limit);
+
+	/**
+	 * @param sudoku
+	 * @param grid
+	 * @return {@code true} if the grid has exactly one solution
+	 */
+	default <V> boolean isUnique(final Sudoku<V> sudoku, final Grid<V> grid) {
+		return countSolutions(sudoku, grid, 2) == 1;
+	}
+
+}
@@ -0,0 +1,116 @@
+package com.tagadvance.sudoku;
+
+import com.tagadvance.sudoku.SolveResult.Status;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts the work of one solve against its {@link SolveLimits} and {@link CancellationToken}. Safe
+ * for use by the threads of a single solve; once any limit is reached every later call to
+ * {@link #node()} or {@link #backtrack()} throws {@link AbortedException}.
+ */
+final class SolveBudget {
+
+	/**
+	 * the clock is read every this many nodes, which must be a power of two
+	 */
+	private static final int CLOCK_INTERVAL = 256;
+
+	private final long startNanos = System.nanoTime();
+
+	private final long timeoutNanos, maxNodes, maxBacktracks;
+
+	private final CancellationToken token;
+
+	private final AtomicLong nodes = new AtomicLong(), backtracks = new AtomicLong();
+
+	private volatile Status abortStatus;
+
+	SolveBudget(final SolveLimits limits, final CancellationToken token) {
+		super();
+		this.timeoutNanos = limits.timeout().toNanos();
+		this.maxNodes = limits.maxNodes();
+		this.maxBacktracks = limits.maxBacktracks();
+		this.token = token;
+	}
+
+	/**
+	 * Records a node of the search.
+	 *
+	 * @throws AbortedException if the search must stop
+	 */
+	void node() {
+		final var n = nodes.incrementAndGet();
+		if (n > maxNodes) {
+			abort(Status.BUDGET_EXCEEDED);
+		} else if ((n & (CLOCK_INTERVAL - 1)) == 0 && System.nanoTime() - startNanos > timeoutNanos) {
+			abort(Status.BUDGET_EXCEEDED);
+		}
+		check();
+	}
+
+	/**
+	 * Records a backtrack of the search.
+	 *
+	 * @throws AbortedException if the search must stop
+	 */
+	void backtrack() {
+		if (backtracks.incrementAndGet() > maxBacktracks) {
+			abort(Status.BUDGET_EXCEEDED);
+		}
+		check();
+	}
+
+	/**
+	 * @throws AbortedException if the search must stop
+	 */
+	void check() {
+		if (abortStatus == null && token.isCancelled()) {
+			abort(Status.CANCELLED);
+		}
+		if (abortStatus != null) {
+			throw new AbortedException();
+		}
+	}
+
+	private void abort(final Status status) {
+		if (abortStatus == null) {
+			abortStatus = status;
+		}
+	}
+
+	boolean isAborted() {
+		return abortStatus != null;
+	}
+
+	/**
+	 * @param solution the solution found, or {@code null}
+	 * @return the result of the solve
+	 */
+	<V> SolveResult<V> result(final Grid<V> solution) {
+		final Status status;
+		if (solution != null) {
+			status = Status.SOLVED;
+		} else if (abortStatus != null) {
+			status = abortStatus;
+		} else {
+			status = Status.UNSOLVABLE;
+		}
+
+		return new SolveResult<>(status, solution, nodes.get(), backtracks.get());
+	}
+
+	/**
+	 * Unwinds a search that has to stop. The reason is kept by the budget rather than the exception
+	 * because fork/join tasks may rethrow a copy of it.
+	 */
+	static final class AbortedException extends RuntimeException {
+
+		private static final long serialVersionUID = 1L;
+
+		private AbortedException() {
+			super(null, null, false, false);
+		}
+
+	}
+
+}
@@ -0,0 +1,59 @@
+package com.tagadvance.sudoku;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.base.MoreObjects;
+import java.time.Duration;
+
+/**
+ * Bounds on the work a solver may do before giving up with
+ * {@link SolveResult.Status#BUDGET_EXCEEDED}. A node is a value tentatively assigned to a cell
+ * during the search and a backtrack is a node that had to be undone.
+ *
+ * @param timeout       wall clock time allowed from the start of the solve
+ * @param maxNodes      number of nodes allowed
+ * @param maxBacktracks number of backtracks allowed
+ */
+public record SolveLimits(Duration timeout, long maxNodes, long maxBacktracks) {
+
+	/**
+	 * about 292 years, the longest timeout that can be measured with {@link System#nanoTime()}
+	 */
+	private static final Duration UNLIMITED_TIMEOUT = Duration.ofNanos(Long.MAX_VALUE);
+
+	public static final SolveLimits NONE = new SolveLimits(UNLIMITED_TIMEOUT, Long.MAX_VALUE,
+		Long.MAX_VALUE);
+
+	public SolveLimits {
+		checkNotNull(timeout, "timeout must not be null");
+		checkArgument(!timeout.isNegative(), "timeout must not be negative");
+		checkArgument(maxNodes >= 0, "maxNodes must not be negative");
+		checkArgument(maxBacktracks >= 0, "maxBacktracks must not be negative");
+		if (timeout.compareTo(UNLIMITED_TIMEOUT) > 0) {
+			timeout = UNLIMITED_TIMEOUT;
+		}
+	}
+
+	public SolveLimits withTimeout(final Duration timeout) {
+		return new SolveLimits(timeout, maxNodes, maxBacktracks);
+	}
+
+	public SolveLimits withMaxNodes(final long maxNodes) {
+		return new SolveLimits(timeout, maxNodes, maxBacktracks);
+	}
+
+	public SolveLimits withMaxBacktracks(final long maxBacktracks) {
+		return new SolveLimits(timeout, maxNodes, maxBacktracks);
+	}
+
+	@Override
+	public String toString() {
+		return MoreObjects.toStringHelper(SolveLimits.class)
+			.add("timeout", timeout)
+			.add("maxNodes", maxNodes)
+			.add("maxBacktracks", maxBacktracks)
+			.toString();
+	}
+
+}
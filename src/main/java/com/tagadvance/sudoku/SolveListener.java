@@ -0,0 +1,22 @@
+package com.tagadvance.sudoku;
+
+/**
+ * Receives the statistics of every solve of a solver it is given to. Solvers given {@link #NOOP} do
+ * not collect statistics at all.
+ */
+@FunctionalInterface
+public interface SolveListener {
+
+	SolveListener NOOP = (sudoku, grid, stats) -> {
+	};
+
+	/**
+	 * Called on the thread that called {@code solve} once the solve has finished.
+	 *
+	 * @param sudoku
+	 * @param grid   the grid that was solved
+	 * @param stats
+	 */
+	void onSolve(Sudoku<?> sudoku, Grid<?> grid, SolveStats stats);
+
+}
@@ -0,0 +1,128 @@
+package com.tagadvance.sudoku;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects the {@link SolveStats} of one solve for a {@link SolveListener}. Safe for use by the
+ * threads of a single solve. The {@link #DISABLED} recorder collects nothing so that solvers without
+ * a listener pay only for a predictable branch per call.
+ */
+final class SolveRecorder {
+
+	static final SolveRecorder DISABLED = new SolveRecorder(false);
+
+	private static final com.sun.management.ThreadMXBean THREAD_MX_BEAN = getThreadMXBean();
+
+	private final boolean enabled;
+
+	private final long startNanos;
+
+	private final LongAdder candidateNanos, prioritizeNanos, validateNanos, forks, allocatedBytes;
+
+	private final AtomicInteger maxDepth;
+
+	private SolveRecorder(final boolean enabled) {
+		super();
+		this.enabled = enabled;
+		this.startNanos = enabled ? System.nanoTime() : 0;
+		this.candidateNanos = enabled ? new LongAdder() : null;
+		this.prioritizeNanos = enabled ? new LongAdder() : null;
+		this.validateNanos = enabled ? new LongAdder() : null;
+		this.forks = enabled ? new LongAdder() : null;
+		this.allocatedBytes = enabled ? new LongAdder() : null;
+		this.maxDepth = enabled ? new AtomicInteger() : null;
+	}
+
+	/**
+	 * @return a recorder for a solve reporting to the listener
+	 */
+	static SolveRecorder start(final SolveListener listener) {
+		return listener == SolveListener.NOOP ? DISABLED : new SolveRecorder(true);
+	}
+
+	private static com.sun.management.ThreadMXBean getThreadMXBean() {
+		try {
+			if (ManagementFactory.getThreadMXBean() instanceof final com.sun.management.ThreadMXBean bean
+				&& bean.isThreadAllocatedMemorySupported()) {
+				if (!bean.isThreadAllocatedMemoryEnabled()) {
+					bean.setThreadAllocatedMemoryEnabled(true);
+				}
+
+				return bean;
+			}
+		} catch (final LinkageError | UnsupportedOperationException | SecurityException e) {
+			// the JVM cannot measure allocation
+		}
+
+		return null;
+	}
+
+	/**
+	 * @return a timestamp to pass to one of the phase methods
+	 */
+	long time() {
+		return enabled ? System.nanoTime() : 0;
+	}
+
+	void candidates(final long start) {
+		if (enabled) {
+			candidateNanos.add(System.nanoTime() - start);
+		}
+	}
+
+	void prioritize(final long start) {
+		if (enabled) {
+			prioritizeNanos.add(System.nanoTime() - start);
+		}
+	}
+
+	void validate(final long start) {
+		if (enabled) {
+			validateNanos.add(System.nanoTime() - start);
+		}
+	}
+
+	void fork() {
+		if (enabled) {
+			forks.increment();
+		}
+	}
+
+	void depth(final int depth) {
+		if (enabled && depth > maxDepth.get()) {
+			maxDepth.accumulateAndGet(depth, Math::max);
+		}
+	}
+
+	/**
+	 * @return a mark to pass to {@link #allocated(long)} on the same thread; spans must not nest
+	 */
+	long allocationMark() {
+		return enabled && THREAD_MX_BEAN != null ? THREAD_MX_BEAN.getCurrentThreadAllocatedBytes() : 0;
+	}
+
+	void allocated(final long mark) {
+		if (enabled && THREAD_MX_BEAN != null) {
+			allocatedBytes.add(THREAD_MX_BEAN.getCurrentThreadAllocatedBytes() - mark);
+		}
+	}
+
+	/**
+	 * Reports the solve to the listener unless the recorder is disabled.
+	 */
+	void finish(final SolveListener listener, final Sudoku<?> sudoku, final Grid<?> grid,
+		final SolveResult<?> result) {
+		if (!enabled) {
+			return;
+		}
+
+		final var stats = new SolveStats(result.status(), result.nodes(), result.backtracks(),
+			maxDepth.get(), forks.sum(), candidateNanos.sum(), prioritizeNanos.sum(),
+			validateNanos.sum(), System.nanoTime() - startNanos,
+			THREAD_MX_BEAN == null ? -1 : allocatedBytes.sum());
+		listener.onSolve(sudoku, grid, stats);
+	}
+
+}
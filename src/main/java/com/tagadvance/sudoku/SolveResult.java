@@ -0,0 +1,60 @@
+package com.tagadvance.sudoku;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.base.MoreObjects;
+
+/**
+ * @param status
+ * @param solution   the solved grid if the status is {@link Status#SOLVED}, otherwise {@code null}
+ * @param nodes      number of values tentatively assigned during the search, or {@code 0} if the
+ *                   solver does not count them
+ * @param backtracks number of those assignments that were undone
+ */
+public record SolveResult<V>(Status status, Grid<V> solution, long nodes, long backtracks) {
+
+	public enum Status {
+		SOLVED,
+		/**
+		 * the grid has no solution, which includes grids that break a rule of the sudoku
+		 */
+		UNSOLVABLE,
+		/**
+		 * a {@link SolveLimits limit} was reached before the search finished
+		 */
+		BUDGET_EXCEEDED,
+		/**
+		 * the {@link CancellationToken} was cancelled before the search finished
+		 */
+		CANCELLED
+	}
+
+	public SolveResult {
+		checkNotNull(status, "status must not be null");
+		checkArgument((status == Status.SOLVED) == (solution != null),
+			"a solution must be present if and only if the status is SOLVED");
+	}
+
+	public static <V> SolveResult<V> solved(final Grid<V> solution) {
+		return new SolveResult<>(Status.SOLVED, solution, 0, 0);
+	}
+
+	public static <V> SolveResult<V> of(final Status status) {
+		return new SolveResult<>(status, null, 0, 0);
+	}
+
+	public boolean isSolved() {
+		return status == Status.SOLVED;
+	}
+
+	@Override
+	public String toString() {
+		return MoreObjects.toStringHelper(SolveResult.class)
+			.add("status", status)
+			.add("nodes", nodes)
+			.add("backtracks", backtracks)
+			.toString();
+	}
+
+}
@@ -0,0 +1,42 @@
+package com.tagadvance.sudoku;
+
+import com.google.common.base.MoreObjects;
+import com.tagadvance.sudoku.SolveResult.Status;
+
+/**
+ * What one solve cost. Phase times are summed over every thread taking part in the solve, so with
+ * forking they may add up to more than the elapsed time.
+ *
+ * @param status          outcome of the solve
+ * @param nodes           number of values tentatively assigned
+ * @param backtracks      number of those assignments that were undone
+ * @param maxDepth        greatest number of assignments made on top of the clues
+ * @param forks           number of subtasks forked
+ * @param candidateNanos  time spent finding the potential values of cells
+ * @param prioritizeNanos time spent choosing which cell to try next
+ * @param validateNanos   time spent checking whether grids are valid or solved
+ * @param elapsedNanos    wall clock time of the solve
+ * @param allocatedBytes  bytes allocated by the threads taking part in the solve, or {@code -1} if
+ *                        the JVM cannot measure it
+ */
+public record SolveStats(Status status, long nodes, long backtracks, int maxDepth, long forks,
+						 long candidateNanos, long prioritizeNanos, long validateNanos,
+						 long elapsedNanos, long allocatedBytes) {
+
+	@Override
+	public String toString() {
+		return MoreObjects.toStringHelper(SolveStats.class)
+			.add("status", status)
+			.add("nodes", nodes)
+			.add("backtracks", backtracks)
+			.add("maxDepth", maxDepth)
+			.add("forks", forks)
+			.add("candidateNanos", candidateNanos)
+			.add("prioritizeNanos", prioritizeNanos)
+			.add("validateNanos", validateNanos)
+			.add("elapsedNanos", elapsedNanos)
+			.add("allocatedBytes", allocatedBytes)
+			.toString();
+	}
+
+}
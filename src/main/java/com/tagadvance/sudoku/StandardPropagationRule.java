@@ -0,0 +1,210 @@
+package com.tagadvance.sudoku;
+
+import java.util.Arrays;
+
+/**
+ * The classic logical techniques, declared from cheapest to most expensive.
+ */
+public enum StandardPropagationRule implements PropagationRule {
+
+	/**
+	 * A cell with a single candidate must take that value.
+	 */
+	NAKED_SINGLE {
+		@Override
+		public boolean apply(final CandidateGrid grid) {
+			var changed = false;
+			for (int cell = 0; cell < grid.getCellCount() && !grid.isContradiction(); cell++) {
+				final var candidates = grid.getCandidates(cell);
+				if (!grid.isAssigned(cell) && Long.bitCount(candidates) == 1) {
+					grid.assign(cell, CandidateSet.valueOf(candidates));
+					changed = true;
+				}
+			}
+
+			return changed;
+		}
+	},
+
+	/**
+	 * A value with a single possible cell in a scope must go in that cell.
+	 */
+	HIDDEN_SINGLE {
+		@Override
+		public boolean apply(final CandidateGrid grid) {
+			var changed = false;
+			for (int scope = 0; scope < grid.getScopeCount() && !grid.isContradiction(); scope++) {
+				if (!grid.isComplete(scope)) {
+					continue;
+				}
+
+				final var cells = grid.getCellsOfScope(scope);
+				long once = 0, twice = 0;
+				for (final var cell : cells) {
+					if (!grid.isAssigned(cell)) {
+						final var candidates = grid.getCandidates(cell);
+						twice |= once & candidates;
+						once |= candidates;
+					}
+				}
+
+				final var unplaced = grid.getAllValues() & ~grid.getPlaced(scope);
+				if ((unplaced & ~once) != 0) {
+					// a value has nowhere to go
+					grid.markContradiction();
+
+					return true;
+				}
+
+				for (long singles = unplaced & ~twice; singles != 0; singles &= singles - 1) {
+					final var bit = Long.lowestOneBit(singles);
+					for (final var cell : cells) {
+						if (!grid.isAssigned(cell) && (grid.getCandidates(cell) & bit) != 0) {
+							grid.assign(cell, CandidateSet.valueOf(bit));
+							changed = true;
+							break;
+						}
+					}
+				}
+			}
+
+			return changed;
+		}
+	},
+
+	/**
+	 * If every candidate cell for a value in one scope also belongs to an overlapping scope, the value
+	 * can be removed from the rest of the overlapping scope. This covers both pointing pairs/triples
+	 * and box/line reduction.
+	 */
+	INTERSECTION {
+		@Override
+		public boolean apply(final CandidateGrid grid) {
+			var changed = false;
+			for (int scope = 0; scope < grid.getScopeCount() && !grid.isContradiction(); scope++) {
+				if (!grid.isComplete(scope)) {
+					continue;
+				}
+
+				final var unplaced = grid.getAllValues() & ~grid.getPlaced(scope);
+				for (final var other : grid.getOverlappingScopes(scope)) {
+					long inside = 0, outside = 0;
+					for (final var cell : grid.getCellsOfScope(scope)) {
+						if (!grid.isAssigned(cell)) {
+							if (contains(grid.getScopesOfCell(cell), other)) {
+								inside |= grid.getCandidates(cell);
+							} else {
+								outside |= grid.getCandidates(cell);
+							}
+						}
+					}
+
+					final var mask = inside & ~outside & unplaced;
+					if (mask == 0) {
+						continue;
+					}
+
+					for (final var cell : grid.getCellsOfScope(other)) {
+						if (!grid.isAssigned(cell) && !contains(grid.getScopesOfCell(cell), scope)) {
+							changed |= grid.eliminate(cell, mask);
+						}
+					}
+				}
+			}
+
+			return changed;
+		}
+	},
+
+	/**
+	 * Two cells of a scope with the same two candidates must hold those values, so no other cell of
+	 * the scope can.
+	 */
+	NAKED_PAIR {
+		@Override
+		public boolean apply(final CandidateGrid grid) {
+			var changed = false;
+			for (int scope = 0; scope < grid.getScopeCount() && !grid.isContradiction(); scope++) {
+				final var cells = grid.getCellsOfScope(scope);
+				for (int i = 0; i < cells.length; i++) {
+					final var pair = grid.getCandidates(cells[i]);
+					if (grid.isAssigned(cells[i]) || Long.bitCount(pair) != 2) {
+						continue;
+					}
+
+					for (int j = i + 1; j < cells.length; j++) {
+						if (grid.isAssigned(cells[j]) || grid.getCandidates(cells[j]) != pair) {
+							continue;
+						}
+
+						for (int k = 0; k < cells.length; k++) {
+							if (k != i && k != j && !grid.isAssigned(cells[k])) {
+								changed |= grid.eliminate(cells[k], pair);
+							}
+						}
+					}
+				}
+			}
+
+			return changed;
+		}
+	},
+
+	/**
+	 * Two values confined to the same two cells of a scope must occupy them, so those cells can hold
+	 * no other value.
+	 */
+	HIDDEN_PAIR {
+		@Override
+		public boolean apply(final CandidateGrid grid) {
+			var changed = false;
+			final var positions = new long[grid.getValueCount()];
+			for (int scope = 0; scope < grid.getScopeCount() && !grid.isContradiction(); scope++) {
+				if (!grid.isComplete(scope)) {
+					continue;
+				}
+
+				// bit k of positions[v] is set if the kth cell of the scope may hold value v + 1
+				final var cells = grid.getCellsOfScope(scope);
+				Arrays.fill(positions, 0);
+				for (int k = 0; k < cells.length; k++) {
+					if (!grid.isAssigned(cells[k])) {
+						for (long c = grid.getCandidates(cells[k]); c != 0; c &= c - 1) {
+							positions[Long.numberOfTrailingZeros(c)] |= 1L << k;
+						}
+					}
+				}
+
+				for (int v = 0; v < positions.length; v++) {
+					if (Long.bitCount(positions[v]) != 2) {
+						continue;
+					}
+
+					for (int w = v + 1; w < positions.length; w++) {
+						if (positions[w] != positions[v]) {
+							continue;
+						}
+
+						final var pair = (1L << v) | (1L << w);
+						for (long p = positions[v]; p != 0; p &= p - 1) {
+							changed |= grid.retain(cells[Long.numberOfTrailingZeros(p)], pair);
+						}
+					}
+				}
+			}
+
+			return changed;
+		}
+	};
+
+	private static boolean contains(final int[] array, final int value) {
+		for (final var element : array) {
+			if (element == value) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+}
@@ -11,6 +11,10 @@ public interface Sudoku<V> extends Copyable<Sudoku<V>> {
 
 	Set<V> getPotentialValuesForCell(Grid<V> grid, Cell<V> cell);
 
+	default int countPotentialValuesForCell(final Grid<V> grid, final Cell<V> cell) {
+		return getPotentialValuesForCell(grid, cell).size();
+	}
+
 	default boolean isValid(final Grid<V> grid) {
 		return getScopes().stream().allMatch(scope -> scope.isValid(grid));
 	}
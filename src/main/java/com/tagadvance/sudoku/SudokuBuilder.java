@@ -1,5 +1,7 @@
 package com.tagadvance.sudoku;
 
+import static com.google.common.base.Preconditions.checkArgument;
+
 import com.google.common.collect.ImmutableSet;
 import com.tagadvance.geometry.Dimension;
 import java.util.stream.IntStream;
@@ -20,7 +22,32 @@ public class SudokuBuilder {
 	}
 
 	public SudokuFactory<Integer> createClassicSudokuFactory() {
-		return new ClassicSudokuFactory(scopeFactory);
+		return createClassicSudokuFactory(ClassicSudokuFactory.SIZE);
+	}
+
+	/**
+	 * @param size width and height of the grid and number of values, which must be a perfect square
+	 *             or a prime
+	 * @return a factory of sudokus over the values {@code 1..size}
+	 */
+	public SudokuFactory<Integer> createClassicSudokuFactory(final int size) {
+		return new ClassicSudokuFactory(scopeFactory, size);
+	}
+
+	/**
+	 * @return a factory whose sudoku and grids track used values with bit masks
+	 */
+	public SudokuFactory<Integer> createBitmaskSudokuFactory() {
+		return createBitmaskSudokuFactory(ClassicSudokuFactory.SIZE);
+	}
+
+	/**
+	 * @param size width and height of the grid and number of values, which must be a perfect square
+	 *             or a prime no greater than {@value Long#SIZE}
+	 * @return a factory whose sudoku and grids track used values with bit masks
+	 */
+	public SudokuFactory<Integer> createBitmaskSudokuFactory(final int size) {
+		return new BitmaskSudokuFactory(scopeFactory, size);
 	}
 
 	public interface SudokuFactory<V> {
@@ -33,23 +60,30 @@ public class SudokuBuilder {
 
 	private static class ClassicSudokuFactory implements SudokuFactory<Integer> {
 
-		private static final int SIZE = 9, RANGE_START = 1, RANGE_END = 9;
-
-		private static final ImmutableSet<Integer> values = IntStream.rangeClosed(RANGE_START,
-			RANGE_END).boxed().collect(ImmutableSet.toImmutableSet());
+		private static final int SIZE = 9;
 
 		private final ScopeFactory scopeFactory;
 
-		public ClassicSudokuFactory(final ScopeFactory scopeFactory) {
+		private final int size;
+
+		private final ImmutableSet<Integer> values;
+
+		public ClassicSudokuFactory(final ScopeFactory scopeFactory, final int size) {
 			super();
+			checkArgument(size >= FixedSizeGrid.MIN_SIZE && size <= FixedSizeGrid.MAX_SIZE,
+				"size must be between %s and %s", FixedSizeGrid.MIN_SIZE, FixedSizeGrid.MAX_SIZE);
 			this.scopeFactory = scopeFactory;
+			this.size = size;
+			this.values = createValues(size);
+		}
+
+		private static ImmutableSet<Integer> createValues(final int size) {
+			return IntStream.rangeClosed(1, size).boxed().collect(ImmutableSet.toImmutableSet());
 		}
 
 		@Override
 		public Grid<Integer> createEmptyGrid() {
-			final var size = new Dimension(SIZE, SIZE);
-
-			return new FixedSizeGrid<>(size);
+			return new PackedGrid(new Dimension(size, size), size);
 		}
 
 		@Override
@@ -62,4 +96,32 @@ public class SudokuBuilder {
 
 	}
 
+	private static class BitmaskSudokuFactory implements SudokuFactory<Integer> {
+
+		private final BitmaskSudoku sudoku;
+
+		public BitmaskSudokuFactory(final ScopeFactory scopeFactory, final int size) {
+			super();
+			checkArgument(size >= FixedSizeGrid.MIN_SIZE && size <= Long.SIZE,
+				"size must be between %s and %s", FixedSizeGrid.MIN_SIZE, Long.SIZE);
+			final var dimension = new Dimension(size, size);
+			final var scopes = scopeFactory.<Integer>createScopes(new FixedSizeGrid<>(dimension));
+			final var topology = SudokuTopology.compile(dimension, scopes);
+			this.sudoku = new BitmaskSudoku(ClassicSudokuFactory.createValues(size), scopes,
+				topology);
+		}
+
+		@Override
+		public Grid<Integer> createEmptyGrid() {
+			return sudoku.createEmptyGrid();
+		}
+
+		@Override
+		public Sudoku<Integer> createSudoku() {
+			// grids are bound to the topology of the sudoku that created them so share one instance
+			return sudoku;
+		}
+
+	}
+
 }
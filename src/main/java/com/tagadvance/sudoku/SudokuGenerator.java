@@ -0,0 +1,219 @@
+package com.tagadvance.sudoku;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableList;
+import com.tagadvance.sudoku.SudokuBuilder.SudokuFactory;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * Generates random puzzles with a unique solution. Each puzzle is a random full grid from which clues
+ * are removed in random order for as long as the solution stays unique, so every puzzle is minimal.
+ * <p>
+ * Puzzles are numbered and puzzle {@code n} of a seed depends only on the seed and {@code n}, so
+ * streams produce the same puzzles in the same order whether or not they run in parallel.
+ */
+public class SudokuGenerator<V> {
+
+	/**
+	 * the most guesses a {@link Difficulty#HARD} puzzle may need
+	 */
+	private static final long HARD_MAX_BRANCHES = 4;
+
+	/**
+	 * odd constant used to spread puzzle numbers across seeds
+	 */
+	private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+	private static final PropagatingSudokuSolver SINGLES = new PropagatingSudokuSolver(
+		List.of(StandardPropagationRule.NAKED_SINGLE, StandardPropagationRule.HIDDEN_SINGLE));
+
+	private static final PropagatingSudokuSolver STANDARD = new PropagatingSudokuSolver();
+
+	private final SudokuFactory<V> factory;
+
+	private final Sudoku<V> sudoku;
+
+	private final ImmutableList<V> values;
+
+	private final SolutionCounter counter = new DlxSudokuSolver();
+
+	public SudokuGenerator(final SudokuFactory<V> factory) {
+		super();
+		this.factory = checkNotNull(factory, "factory must not be null");
+		this.sudoku = factory.createSudoku();
+		this.values = sudoku.getValues().asList();
+	}
+
+	public Sudoku<V> getSudoku() {
+		return sudoku;
+	}
+
+	/**
+	 * @param seed
+	 * @param number
+	 * @return puzzle {@code number} of the seed
+	 */
+	public GeneratedPuzzle<V> generate(final long seed, final long number) {
+		final var random = new SplittableRandom(seed ^ number * GOLDEN_GAMMA);
+
+		final var solution = factory.createEmptyGrid();
+		final var empty = CandidateGrid.of(sudoku, solution);
+		final var filled = fill(empty, random);
+		if (filled == null) {
+			throw new IllegalStateException("sudoku has no solution");
+		}
+		filled.writeTo(solution, values);
+
+		final var puzzle = solution.copy();
+		final var width = puzzle.getSize().width();
+		final var cellCount = filled.getCellCount();
+		final var order = shuffledCells(cellCount, random);
+		for (final var cell : order) {
+			final var c = puzzle.getCellAt(cell % width, cell / width);
+			final var value = c.getValue();
+			c.setValue(null);
+			// a cleared clue that its peers still force cannot make the solution ambiguous
+			if (sudoku.countPotentialValuesForCell(puzzle, c) > 1
+				&& !counter.isUnique(sudoku, puzzle)) {
+				c.setValue(value);
+			}
+		}
+
+		return new GeneratedPuzzle<>(number, puzzle, solution, rate(puzzle));
+	}
+
+	/**
+	 * @param seed
+	 * @return an endless sequential stream of puzzles {@code 0, 1, 2...} of the seed
+	 */
+	public Stream<GeneratedPuzzle<V>> stream(final long seed) {
+		return LongStream.range(0, Long.MAX_VALUE).mapToObj(number -> generate(seed, number));
+	}
+
+	/**
+	 * @param seed
+	 * @return an endless parallel stream of puzzles {@code 0, 1, 2...} of the seed; use
+	 * {@link Stream#unordered()} when order does not matter to avoid buffering
+	 */
+	public Stream<GeneratedPuzzle<V>> parallelStream(final long seed) {
+		return stream(seed).parallel();
+	}
+
+	/**
+	 * @param seed
+	 * @param difficulty
+	 * @return an endless sequential stream of the puzzles of the seed with the given difficulty
+	 */
+	public Stream<GeneratedPuzzle<V>> stream(final long seed, final Difficulty difficulty) {
+		checkNotNull(difficulty, "difficulty must not be null");
+
+		return stream(seed).filter(puzzle -> puzzle.difficulty() == difficulty);
+	}
+
+	/**
+	 * @param puzzle a puzzle with a unique solution
+	 * @return the difficulty of the puzzle
+	 */
+	public Difficulty rate(final Grid<V> puzzle) {
+		checkNotNull(puzzle, "puzzle must not be null");
+
+		final var grid = CandidateGrid.of(sudoku, puzzle);
+		if (SINGLES.propagate(grid) && grid.isSolved()) {
+			return Difficulty.EASY;
+		} else if (STANDARD.propagate(grid) && grid.isSolved()) {
+			return Difficulty.MEDIUM;
+		}
+
+		// counters are cumulative so use a solver of our own
+		final var solver = new PropagatingSudokuSolver();
+		solver.solve(sudoku, puzzle);
+
+		return solver.getBranches() <= HARD_MAX_BRANCHES ? Difficulty.HARD : Difficulty.EXPERT;
+	}
+
+	/**
+	 * Completes a grid by guessing values in random order.
+	 *
+	 * @return the completed grid or {@code null} if the grid has no solution
+	 */
+	private static CandidateGrid fill(final CandidateGrid grid, final SplittableRandom random) {
+		if (!SINGLES.propagate(grid)) {
+			return null;
+		} else if (grid.isSolved()) {
+			return grid;
+		}
+
+		var cell = -1;
+		var best = Integer.MAX_VALUE;
+		for (int c = 0; c < grid.getCellCount(); c++) {
+			final var count = Long.bitCount(grid.getCandidates(c));
+			if (!grid.isAssigned(c) && count < best) {
+				cell = c;
+				best = count;
+			}
+		}
+
+		final var candidates = new int[best];
+		var mask = grid.getCandidates(cell);
+		for (int i = 0; i < candidates.length; i++, mask &= mask - 1) {
+			candidates[i] = CandidateSet.valueOf(Long.lowestOneBit(mask));
+		}
+		shuffle(candidates, random);
+
+		for (final var value : candidates) {
+			final var child = grid.copy();
+			child.assign(cell, value);
+			final var result = fill(child, random);
+			if (result != null) {
+				return result;
+			}
+		}
+
+		return null;
+	}
+
+	private static int[] shuffledCells(final int cellCount, final SplittableRandom random) {
+		final var cells = new int[cellCount];
+		for (int i = 0; i < cellCount; i++) {
+			cells[i] = i;
+		}
+		shuffle(cells, random);
+
+		return cells;
+	}
+
+	private static void shuffle(final int[] array, final SplittableRandom random) {
+		for (int i = array.length - 1; i > 0; i--) {
+			final var j = random.nextInt(i + 1);
+			final var tmp = array[i];
+			array[i] = array[j];
+			array[j] = tmp;
+		}
+	}
+
+	/**
+	 * @param number     number of the puzzle within its seed
+	 * @param puzzle
+	 * @param solution
+	 * @param difficulty
+	 */
+	public record GeneratedPuzzle<V>(long number, Grid<V> puzzle, Grid<V> solution,
+									 Difficulty difficulty) {
+
+		@Override
+		public String toString() {
+			return MoreObjects.toStringHelper(GeneratedPuzzle.class)
+				.add("number", number)
+				.add("difficulty", difficulty)
+				.add("puzzle", puzzle)
+				.toString();
+		}
+
+	}
+
+}
@@ -1,7 +1,41 @@
 package com.tagadvance.sudoku;
 
+import static com.google.common.base.Preconditions.checkNotNull;
+
 public interface SudokuSolver {
 
+	/**
+	 * @param sudoku
+	 * @param grid   grid to solve, which is not modified
+	 * @return the solution, or {@code null} if the grid has none
+	 */
 	<V> Grid<V> solve(Sudoku<V> sudoku, Grid<V> grid);
 
+	/**
+	 * Solves a grid within limits. Solvers that do not override this method check the token only
+	 * before starting and ignore the limits.
+	 *
+	 * @param sudoku
+	 * @param grid   grid to solve, which is not modified
+	 * @param limits
+	 * @param token
+	 * @return the outcome of the solve
+	 */
+	default <V> SolveResult<V> solve(final Sudoku<V> sudoku, final Grid<V> grid,
+		final SolveLimits limits, final CancellationToken token) {
+		checkNotNull(sudoku, "sudoku must not be null");
+		checkNotNull(grid, "grid must not be null");
+		checkNotNull(limits, "limits must not be null");
+		checkNotNull(token, "token must not be null");
+
+		if (token.isCancelled()) {
+			return SolveResult.of(SolveResult.Status.CANCELLED);
+		}
+
+		final var solution = solve(sudoku, grid);
+
+		return solution == null ? SolveResult.of(SolveResult.Status.UNSOLVABLE)
+			: SolveResult.solved(solution);
+	}
+
 }
@@ -0,0 +1,209 @@
+package com.tagadvance.sudoku;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.collect.MapMaker;
+import com.tagadvance.geometry.Dimension;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.IntStream;
+
+/**
+ * Integer lookup tables compiled from a set of scopes for grids of one size, so that the scopes and
+ * peers of a cell can be found without hashing. Cells are indexed {@code y * width + x} and scopes
+ * in iteration order. Arrays returned by this class must not be modified.
+ * <p>
+ * Topologies are equal if they are for grids of the same size and have the same cells in the same
+ * scopes, so that separately created sudokus with the same layout share their results.
+ */
+public final class SudokuTopology {
+
+	/**
+	 * compiled topologies keyed on the identity of the sudoku so that they are released along with
+	 * it
+	 */
+	private static final ConcurrentMap<Sudoku<?>, SudokuTopology> topologies = new MapMaker().weakKeys()
+		.makeMap();
+
+	private final Dimension size;
+
+	/**
+	 * scope index to cell indices
+	 */
+	private final int[][] scopeCells;
+
+	/**
+	 * cell index to scope indices
+	 */
+	private final int[][] cellScopes;
+
+	/**
+	 * cell index to the indices of the other cells sharing a scope with it
+	 */
+	private final int[][] cellPeers;
+
+	/**
+	 * scope index to the indices of scopes sharing at least two of its cells
+	 */
+	private final int[][] overlappingScopes;
+
+	private final int hashCode;
+
+	private SudokuTopology(final Dimension size, final int[][] scopeCells,
+		final int[][] cellScopes) {
+		super();
+		this.size = size;
+		this.scopeCells = scopeCells;
+		this.cellScopes = cellScopes;
+		this.hashCode = 31 * size.hashCode() + Arrays.deepHashCode(scopeCells);
+
+		this.cellPeers = new int[cellScopes.length][];
+		final var isPeer = new boolean[cellScopes.length];
+		for (int cell = 0; cell < cellScopes.length; cell++) {
+			var count = 0;
+			for (final var scope : cellScopes[cell]) {
+				for (final var other : scopeCells[scope]) {
+					if (other != cell && !isPeer[other]) {
+						isPeer[other] = true;
+						count++;
+					}
+				}
+			}
+
+			final var peers = new int[count];
+			for (int other = 0, i = 0; i < count; other++) {
+				if (isPeer[other]) {
+					isPeer[other] = false;
+					peers[i++] = other;
+				}
+			}
+			cellPeers[cell] = peers;
+		}
+
+		this.overlappingScopes = new int[scopeCells.length][];
+		for (int scope = 0; scope < scopeCells.length; scope++) {
+			final var shared = new int[scopeCells.length];
+			for (final var cell : scopeCells[scope]) {
+				for (final var other : cellScopes[cell]) {
+					shared[other]++;
+				}
+			}
+
+			final var s = scope;
+			overlappingScopes[scope] = IntStream.range(0, shared.length)
+				.filter(other -> other != s && shared[other] > 1)
+				.toArray();
+		}
+	}
+
+	/**
+	 * @return the cached topology of the sudoku's scopes for grids of the given size
+	 */
+	public static SudokuTopology of(final Sudoku<?> sudoku, final Dimension size) {
+		checkNotNull(sudoku, "sudoku must not be null");
+		checkNotNull(size, "size must not be null");
+
+		final var topology = topologies.computeIfAbsent(sudoku, s -> compile(size, s.getScopes()));
+		if (topology.size.equals(size)) {
+			return topology;
+		}
+
+		// the same sudoku is rarely used with more than one grid size so keep the latest
+		final var replacement = compile(size, sudoku.getScopes());
+		topologies.put(sudoku, replacement);
+
+		return replacement;
+	}
+
+	/**
+	 * Compiles a topology without caching it.
+	 *
+	 * @param size   size of the grids
+	 * @param scopes
+	 * @return the topology of the scopes for grids of the given size
+	 */
+	public static <V> SudokuTopology compile(final Dimension size,
+		final Collection<Scope<V>> scopes) {
+		checkNotNull(size, "size must not be null");
+		checkNotNull(scopes, "scopes must not be null");
+
+		final var cellCount = size.width() * size.height();
+		final var scopeCells = new int[scopes.size()][];
+		final var scopesByCell = new ArrayList<List<Integer>>();
+		for (int i = 0; i < cellCount; i++) {
+			scopesByCell.add(new ArrayList<>());
+		}
+
+		int s = 0;
+		for (final var scope : scopes) {
+			final var indices = scope.getCellIndices(size);
+			for (final var index : indices) {
+				checkArgument(index >= 0 && index < cellCount, "scope %s is outside of grid", scope);
+				scopesByCell.get(index).add(s);
+			}
+			scopeCells[s++] = indices;
+		}
+
+		final var cellScopes = scopesByCell.stream()
+			.map(list -> list.stream().mapToInt(Integer::intValue).toArray())
+			.toArray(int[][]::new);
+
+		return new SudokuTopology(size, scopeCells, cellScopes);
+	}
+
+	public Dimension getSize() {
+		return size;
+	}
+
+	public int getCellCount() {
+		return cellScopes.length;
+	}
+
+	public int getScopeCount() {
+		return scopeCells.length;
+	}
+
+	/**
+	 * @return indices of the cells of a scope
+	 */
+	public int[] getCellsOfScope(final int scope) {
+		return scopeCells[scope];
+	}
+
+	/**
+	 * @return indices of the scopes containing a cell
+	 */
+	public int[] getScopesOfCell(final int cell) {
+		return cellScopes[cell];
+	}
+
+	/**
+	 * @return indices of the other cells sharing a scope with a cell in ascending order
+	 */
+	public int[] getPeers(final int cell) {
+		return cellPeers[cell];
+	}
+
+	/**
+	 * @return indices of the scopes sharing at least two cells with a scope
+	 */
+	public int[] getOverlappingScopes(final int scope) {
+		return overlappingScopes[scope];
+	}
+
+	@Override
+	public boolean equals(final Object o) {
+		return o == this || o instanceof final SudokuTopology that && hashCode == that.hashCode
+			&& size.equals(that.size) && Arrays.deepEquals(scopeCells, that.scopeCells);
+	}
+
+	@Override
+	public int hashCode() {
+		return hashCode;
+	}
+
+}
@@ -0,0 +1,447 @@
+package com.tagadvance.sudoku;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.collect.MapMaker;
+import com.tagadvance.geometry.Dimension;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Canonicalizes grids of the standard layout, where every row, column and box is a scope, under its
+ * whole symmetry group: relabelling values, permuting the rows within a band, the bands, the columns
+ * within a stack and the stacks, and transposing. For 9x9 grids that is about 3.4 million
+ * transforms times every relabelling.
+ * <p>
+ * The canonical representative is the transformed grid that is lexicographically smallest in
+ * row-major order, where values are relabelled in the order they first appear and every value sorts
+ * before an empty cell. It is found row by row: the first row is placed by a pruned search of the
+ * column permutations and every following row only keeps the partial transforms that tie for the
+ * smallest row so far, which leaves few of them for typical puzzles. Grids with full rows, such as
+ * solutions, tie on every column permutation of their first row and take much longer. Grids of any
+ * other layout are only {@link RelabellingCanonicalizer relabelled}.
+ */
+public class SymmetryCanonicalizer implements GridCanonicalizer {
+
+	private static final GridCanonicalizer RELABELLING = new RelabellingCanonicalizer();
+
+	/**
+	 * whether each topology is of the standard layout
+	 */
+	private static final ConcurrentMap<SudokuTopology, Boolean> standardLayouts = new MapMaker().weakKeys()
+		.makeMap();
+
+	/**
+	 * the standard topology of each size, for grids that are canonicalized without a sudoku
+	 */
+	private static final ConcurrentMap<Dimension, SudokuTopology> standardTopologies = new MapMaker().makeMap();
+
+	public SymmetryCanonicalizer() {
+		super();
+	}
+
+	/**
+	 * @param grid grid of the standard layout with values from {@code 1} to its width
+	 * @return a transform of the grid into its canonical representative
+	 */
+	public GridTransform canonicalize(final Grid<Integer> grid) {
+		checkNotNull(grid, "grid must not be null");
+
+		final var size = grid.getSize();
+		final var topology = standardTopologies.computeIfAbsent(size,
+			s -> SudokuTopology.compile(s, new SquareRootScopeFactory().createScopes(grid)));
+		final var values = new int[topology.getCellCount()];
+		for (int i = 0; i < values.length; i++) {
+			final var value = grid.getCellAt(i).getValue();
+			values[i] = value == null ? 0 : value;
+		}
+
+		return canonicalize(topology, size.width(), values);
+	}
+
+	@Override
+	public GridTransform canonicalize(final SudokuTopology topology, final int valueCount,
+		final int[] values) {
+		checkNotNull(topology, "topology must not be null");
+		checkNotNull(values, "values must not be null");
+		checkArgument(values.length == topology.getCellCount(), "values must have %s cells",
+			topology.getCellCount());
+		for (final var value : values) {
+			checkArgument(value >= 0 && value <= valueCount, "values must be between 0 and %s",
+				valueCount);
+		}
+
+		if (valueCount != topology.getSize().width()
+			|| !standardLayouts.computeIfAbsent(topology, SymmetryCanonicalizer::isStandardLayout)) {
+			return RELABELLING.canonicalize(topology, valueCount, values);
+		}
+
+		return new Search(topology.getSize().width(), values).run();
+	}
+
+	/**
+	 * @return {@code true} if the scopes of the topology are exactly the rows, columns and boxes of a
+	 * square grid whose width is a perfect square
+	 */
+	static boolean isStandardLayout(final SudokuTopology topology) {
+		final var size = topology.getSize();
+		final var n = size.width();
+		final var k = (int) Math.round(Math.sqrt(n));
+		if (size.height() != n || k * k != n || topology.getScopeCount() != 3 * n) {
+			return false;
+		}
+
+		// each row, column and box may appear once
+		final var seen = new boolean[3 * n];
+		for (int scope = 0; scope < topology.getScopeCount(); scope++) {
+			final var cells = topology.getCellsOfScope(scope);
+			if (cells.length != n) {
+				return false;
+			}
+
+			final int x = cells[0] % n, y = cells[0] / n;
+			// 1 for a row, 2 for a column and 4 for a box, each cleared when a cell contradicts it
+			int kind = 7;
+			final var distinct = new boolean[n * n];
+			for (final var cell : cells) {
+				if (distinct[cell]) {
+					return false;
+				}
+				distinct[cell] = true;
+
+				if (cell / n != y) {
+					kind &= ~1;
+				}
+				if (cell % n != x) {
+					kind &= ~2;
+				}
+				if (cell / n / k != y / k || cell % n / k != x / k) {
+					kind &= ~4;
+				}
+			}
+
+			final int index;
+			if (kind == 1) {
+				index = y;
+			} else if (kind == 2) {
+				index = n + x;
+			} else if (kind == 4) {
+				index = 2 * n + y / k * k + x / k;
+			} else {
+				return false;
+			}
+			if (seen[index]) {
+				return false;
+			}
+			seen[index] = true;
+		}
+
+		return true;
+	}
+
+	/**
+	 * One transform under construction: the grid, possibly transposed, is viewed through a row and a
+	 * column permutation and its values are relabelled in the order they first appear in the view.
+	 */
+	private static final class Candidate {
+
+		private final boolean transposed;
+
+		/**
+		 * view column to column of the grid, or to row if transposed
+		 */
+		private final int[] columns;
+
+		/**
+		 * view row to row of the grid, or to column if transposed; filled up to the current row
+		 */
+		private final int[] rows;
+
+		/**
+		 * rows of the grid, or columns if transposed, that have been placed
+		 */
+		private long usedRows;
+
+		/**
+		 * value to label, or {@code 0} if the value has not appeared yet
+		 */
+		private final int[] labels;
+
+		private int nextLabel;
+
+		private Candidate(final boolean transposed, final int[] columns, final int[] rows,
+			final long usedRows, final int[] labels, final int nextLabel) {
+			super();
+			this.transposed = transposed;
+			this.columns = columns;
+			this.rows = rows;
+			this.usedRows = usedRows;
+			this.labels = labels;
+			this.nextLabel = nextLabel;
+		}
+
+		/**
+		 * @return a copy of this candidate with a row of the grid placed as the view row at the level
+		 */
+		private Candidate extend(final int level, final int row, final int[] labels,
+			final int nextLabel) {
+			final var rows = this.rows.clone();
+			rows[level] = row;
+
+			return new Candidate(transposed, columns, rows, usedRows | 1L << row, labels.clone(),
+				nextLabel);
+		}
+
+	}
+
+	private static final class Search {
+
+		private final int n, k;
+
+		private final int[] values;
+
+		/**
+		 * sort key of an empty cell, greater than every label
+		 */
+		private final int empty;
+
+		/**
+		 * smallest row found so far at the current level
+		 */
+		private final int[] best;
+
+		private List<Candidate> candidates = new ArrayList<>();
+
+		/**
+		 * state of the search of the first row, of which the labels are reused to compare the
+		 * following rows
+		 */
+		private final int[] columns, labels, row;
+
+		private int nextLabel;
+
+		/**
+		 * incremented whenever the best first row is replaced
+		 */
+		private int bestVersion;
+
+		private Search(final int n, final int[] values) {
+			super();
+			this.n = n;
+			this.k = (int) Math.round(Math.sqrt(n));
+			this.values = values;
+			this.empty = n + 1;
+			this.best = new int[n];
+			this.columns = new int[n];
+			this.labels = new int[n + 1];
+			this.row = new int[n];
+		}
+
+		private int valueAt(final boolean transposed, final int row, final int column) {
+			return transposed ? values[column * n + row] : values[row * n + column];
+		}
+
+		private GridTransform run() {
+			// the values of a row are distinct so the first row only depends on which cells are empty
+			final var shapes = new long[2 * n];
+			long bestShape = -1;
+			for (int i = 0; i < shapes.length; i++) {
+				shapes[i] = shapeOf(i >= n, i % n);
+				bestShape = Math.max(bestShape, shapes[i]);
+			}
+
+			Arrays.fill(best, Integer.MAX_VALUE);
+			for (int i = 0; i < shapes.length; i++) {
+				if (shapes[i] == bestShape) {
+					searchFirstRow(i >= n, i % n, 0, 0, false);
+				}
+			}
+
+			for (int level = 1; level < n; level++) {
+				extend(level);
+			}
+
+			// every remaining candidate yields the same grid
+			return toTransform(candidates.get(0));
+		}
+
+		/**
+		 * The smallest arrangement of a row puts its stacks in descending order of their number of
+		 * values and the values of each stack first, so rows whose counts are greater in that order
+		 * make smaller first rows.
+		 *
+		 * @return the number of values in each stack of a row in descending order, packed into a
+		 * number that is greater for rows that make smaller first rows
+		 */
+		private long shapeOf(final boolean transposed, final int row) {
+			final var counts = new int[k];
+			for (int column = 0; column < n; column++) {
+				if (valueAt(transposed, row, column) != 0) {
+					counts[column / k]++;
+				}
+			}
+			Arrays.sort(counts);
+
+			long shape = 0;
+			for (int stack = k - 1; stack >= 0; stack--) {
+				shape = shape * (k + 1) + counts[stack];
+			}
+
+			return shape;
+		}
+
+		/**
+		 * Searches the column permutations for the smallest first row taken from a row of the grid.
+		 *
+		 * @param position  view column to place next
+		 * @param usedStacks stacks that have been placed
+		 * @param smaller    {@code true} if the row so far is smaller than the best row
+		 */
+		private void searchFirstRow(final boolean transposed, final int first, final int position,
+			final long usedStacks, final boolean smaller) {
+			if (position == n) {
+				if (smaller) {
+					System.arraycopy(row, 0, best, 0, n);
+					bestVersion++;
+					candidates.clear();
+				}
+				final var rows = new int[n];
+				rows[0] = first;
+				candidates.add(new Candidate(transposed, columns.clone(), rows, 1L << first,
+					labels.clone(), nextLabel));
+
+				return;
+			}
+
+			if (position % k == 0) {
+				final var version = bestVersion;
+				for (int stack = 0; stack < k; stack++) {
+					if ((usedStacks & 1L << stack) == 0) {
+						// a best row found since this call started extends the row so far
+						placeColumns(transposed, first, position, usedStacks | 1L << stack, stack,
+							smaller && version == bestVersion);
+					}
+				}
+			} else {
+				placeColumns(transposed, first, position, usedStacks,
+					columns[position - 1] / k, smaller);
+			}
+		}
+
+		private void placeColumns(final boolean transposed, final int first, final int position,
+			final long usedStacks, final int stack, final boolean smaller) {
+			final var version = bestVersion;
+			columnLoop:
+			for (int column = stack * k; column < stack * k + k; column++) {
+				for (int p = position - position % k; p < position; p++) {
+					if (columns[p] == column) {
+						continue columnLoop;
+					}
+				}
+
+				final var value = valueAt(transposed, first, column);
+				final var assigned = value != 0 && labels[value] == 0;
+				if (assigned) {
+					labels[value] = ++nextLabel;
+				}
+				final var key = value == 0 ? empty : labels[value];
+				final var isSmaller = smaller && version == bestVersion;
+				if (isSmaller || key <= best[position]) {
+					columns[position] = column;
+					row[position] = key;
+					searchFirstRow(transposed, first, position + 1, usedStacks,
+						isSmaller || key < best[position]);
+				}
+				if (assigned) {
+					labels[value] = 0;
+					nextLabel--;
+				}
+			}
+		}
+
+		/**
+		 * Places the next row of every candidate, keeping those that tie for the smallest row.
+		 */
+		private void extend(final int level) {
+			Arrays.fill(best, Integer.MAX_VALUE);
+			final var next = new ArrayList<Candidate>();
+			for (final var candidate : candidates) {
+				final var band = level % k == 0 ? -1 : candidate.rows[level - 1] / k;
+				for (int r = 0; r < n; r++) {
+					if ((candidate.usedRows & 1L << r) != 0
+						|| band >= 0 && r / k != band
+						|| band < 0 && (candidate.usedRows >>> (r / k * k) & (1L << k) - 1) != 0) {
+						continue;
+					}
+
+					final var compare = compareRow(candidate, r);
+					if (compare < 0) {
+						next.clear();
+					}
+					if (compare <= 0) {
+						next.add(candidate.extend(level, r, labels, nextLabel));
+					}
+				}
+			}
+			candidates = next;
+		}
+
+		/**
+		 * Compares a row of the grid viewed through a candidate with the best row, which is replaced if
+		 * the row is smaller. Unless the row is greater, {@link #labels} and {@link #nextLabel} are
+		 * left holding the labels of the candidate extended by the row.
+		 *
+		 * @return a negative number, zero or a positive number if the row is smaller than, equal to or
+		 * greater than the best row
+		 */
+		private int compareRow(final Candidate candidate, final int r) {
+			System.arraycopy(candidate.labels, 0, labels, 0, labels.length);
+			nextLabel = candidate.nextLabel;
+
+			int compare = 0;
+			for (int position = 0; position < n; position++) {
+				final var value = valueAt(candidate.transposed, r, candidate.columns[position]);
+				if (value != 0 && labels[value] == 0) {
+					labels[value] = ++nextLabel;
+				}
+				final var key = value == 0 ? empty : labels[value];
+				if (compare == 0) {
+					if (key > best[position]) {
+						return 1;
+					} else if (key < best[position]) {
+						compare = -1;
+					}
+				}
+				if (compare < 0) {
+					best[position] = key;
+				}
+			}
+
+			return compare;
+		}
+
+		private GridTransform toTransform(final Candidate candidate) {
+			final var cellMap = new int[n * n];
+			for (int r = 0; r < n; r++) {
+				for (int c = 0; c < n; c++) {
+					final int row = candidate.rows[r], column = candidate.columns[c];
+					cellMap[r * n + c] = candidate.transposed ? column * n + row : row * n + column;
+				}
+			}
+
+			// values that do not appear keep their order after those that do
+			final var valueMap = new int[n + 1];
+			var nextLabel = candidate.nextLabel;
+			for (int value = 1; value <= n; value++) {
+				valueMap[value] = candidate.labels[value] != 0 ? candidate.labels[value] : ++nextLabel;
+			}
+
+			return new GridTransform(cellMap, valueMap);
+		}
+
+	}
+
+}
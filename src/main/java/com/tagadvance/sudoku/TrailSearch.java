@@ -0,0 +1,408 @@
+package com.tagadvance.sudoku;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+/**
+ * The state of an iterative backtracking search over the candidates of a grid, stored as bit masks
+ * where bit {@code n} represents value {@code n + 1}. Values are numbered from {@code 1}; {@code 0}
+ * means unassigned. Cells and scopes are addressed by index, cells in row-major order.
+ * <p>
+ * Every change to a candidate mask or value is pushed onto an undo trail before it is made, and the
+ * guesses of the search are kept on an explicit stack together with the length of the trail when
+ * they were made. Backtracking rewinds the trail to that length, so a search allocates nothing per
+ * node and its depth is not limited by the stack of the thread running it. The trail and the stack
+ * are sized for the worst case when the search is created, and copies size them for the cells they
+ * have left to assign so that forking near the root stays cheap.
+ */
+final class TrailSearch implements Copyable<TrailSearch> {
+
+	private static final int NONE = 0, ASSIGNED = 1, CONTRADICTION = -1;
+
+	private final SudokuTopology topology;
+
+	private final int valueCount;
+
+	private final long[] candidates;
+
+	private final byte[] values;
+
+	private int assignedCount;
+
+	/**
+	 * cells whose candidates changed, or the complement of cells that were assigned
+	 */
+	private final int[] trailCells;
+
+	/**
+	 * candidates of the cell before the change
+	 */
+	private final long[] trailMasks;
+
+	private int trailSize;
+
+	/**
+	 * unassigned cells left with a single candidate that have not been assigned yet
+	 */
+	private final int[] singles;
+
+	private int singleCount;
+
+	/**
+	 * the cell guessed at each level of the stack
+	 */
+	private final int[] stackCells;
+
+	/**
+	 * candidates of the guessed cell that have not been tried yet
+	 */
+	private final long[] stackRemaining;
+
+	/**
+	 * length of the trail before the guess
+	 */
+	private final int[] stackMarks;
+
+	private int depth;
+
+	TrailSearch(final SudokuTopology topology, final int valueCount) {
+		this(topology, valueCount, checkNotNull(topology, "topology must not be null").getCellCount());
+		Arrays.fill(candidates, CandidateSet.allValues(valueCount));
+	}
+
+	/**
+	 * @param capacity number of cells the search may still assign
+	 */
+	private TrailSearch(final SudokuTopology topology, final int valueCount, final int capacity) {
+		super();
+		this.topology = topology;
+		this.valueCount = valueCount;
+
+		final var cellCount = topology.getCellCount();
+		this.candidates = new long[cellCount];
+		this.values = new byte[cellCount];
+
+		// along a path the mask of an unassigned cell only shrinks so it changes at most once per
+		// value, plus the assignment, and an assigned cell changes only when it contradicts a peer
+		final var trailCapacity = capacity * (valueCount + 1) + 1;
+		this.trailCells = new int[trailCapacity];
+		this.trailMasks = new long[trailCapacity];
+		this.singles = new int[cellCount];
+		this.stackCells = new int[capacity];
+		this.stackRemaining = new long[capacity];
+		this.stackMarks = new int[capacity];
+	}
+
+	private TrailSearch(final TrailSearch search) {
+		this(search.topology, search.valueCount, search.values.length - search.assignedCount);
+		System.arraycopy(search.candidates, 0, candidates, 0, candidates.length);
+		System.arraycopy(search.values, 0, values, 0, values.length);
+		this.assignedCount = search.assignedCount;
+		System.arraycopy(search.singles, 0, singles, 0, search.singleCount);
+		this.singleCount = search.singleCount;
+	}
+
+	/**
+	 * Creates a search of a grid by assigning each of its clues.
+	 *
+	 * @param sudoku
+	 * @param grid
+	 * @return the search, or {@code null} if the clues contradict each other
+	 */
+	static <V> TrailSearch of(final Sudoku<V> sudoku, final Grid<V> grid) {
+		final var size = grid.getSize();
+		final var search = new TrailSearch(SudokuTopology.of(sudoku, size),
+			sudoku.getValues().size());
+		final var values = sudoku.getValues().asList();
+		for (int cell = 0; cell < search.candidates.length; cell++) {
+			final var c = grid.getCellAt(cell % size.width(), cell / size.width());
+			if (!c.isEmpty()) {
+				final var value = values.indexOf(c.getValue()) + 1;
+				if (value == 0 || !search.assign(cell, value)) {
+					return null;
+				}
+			}
+		}
+
+		return search;
+	}
+
+	/**
+	 * Copies the assignments and candidates but not the trail or the stack, so that the copy can
+	 * search the current subtree on its own.
+	 */
+	@Override
+	public TrailSearch copy() {
+		return new TrailSearch(this);
+	}
+
+	/**
+	 * Writes every assigned value into the grid.
+	 *
+	 * @param grid   grid of the same size
+	 * @param values values of the sudoku in order
+	 */
+	<V> void writeTo(final Grid<V> grid, final List<V> values) {
+		final var width = grid.getSize().width();
+		for (int cell = 0; cell < this.values.length; cell++) {
+			final var value = this.values[cell];
+			if (value != 0) {
+				grid.getCellAt(cell % width, cell / width).setValue(values.get(value - 1));
+			}
+		}
+	}
+
+	boolean isSolved() {
+		return assignedCount == values.length;
+	}
+
+	long getCandidates(final int cell) {
+		return candidates[cell];
+	}
+
+	/**
+	 * @return number of guesses on the stack
+	 */
+	int getDepth() {
+		return depth;
+	}
+
+	/**
+	 * Assigns a value to a cell and removes it from the candidates of its peers. Peers left with a
+	 * single candidate are queued for {@link #propagate()}.
+	 *
+	 * @param cell
+	 * @param value value between {@code 1} and the number of values
+	 * @return {@code false} if the assignment is a contradiction
+	 */
+	boolean assign(final int cell, final int value) {
+		if (values[cell] != 0) {
+			return values[cell] == value;
+		}
+
+		final var bit = CandidateSet.bitOf(value);
+		if ((candidates[cell] & bit) == 0) {
+			return false;
+		}
+
+		setCandidates(cell, bit);
+		trailCells[trailSize++] = ~cell;
+		values[cell] = (byte) value;
+		assignedCount++;
+
+		for (final var peer : topology.getPeers(cell)) {
+			if (!eliminate(peer, bit)) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * @return {@code false} if the cell has no candidates left
+	 */
+	private boolean eliminate(final int cell, final long mask) {
+		final var current = candidates[cell];
+		if ((current & mask) == 0) {
+			return true;
+		}
+
+		final var remaining = current & ~mask;
+		setCandidates(cell, remaining);
+		if (remaining == 0) {
+			return false;
+		} else if ((remaining & (remaining - 1)) == 0 && values[cell] == 0) {
+			singles[singleCount++] = cell;
+		}
+
+		return true;
+	}
+
+	private void setCandidates(final int cell, final long mask) {
+		if (candidates[cell] == mask) {
+			return;
+		}
+
+		trailCells[trailSize] = cell;
+		trailMasks[trailSize++] = candidates[cell];
+		candidates[cell] = mask;
+	}
+
+	/**
+	 * Assigns naked and hidden singles until there are none left.
+	 *
+	 * @return {@code false} if the grid is in contradiction
+	 */
+	boolean propagate() {
+		while (true) {
+			while (singleCount > 0) {
+				final var cell = singles[--singleCount];
+				if (!assign(cell, CandidateSet.valueOf(candidates[cell]))) {
+					singleCount = 0;
+
+					return false;
+				}
+			}
+
+			final var hiddenSingle = assignHiddenSingle();
+			if (hiddenSingle == NONE) {
+				return true;
+			} else if (hiddenSingle == CONTRADICTION) {
+				singleCount = 0;
+
+				return false;
+			}
+		}
+	}
+
+	/**
+	 * Assigns a value that has only one place left in a scope holding a cell for every value.
+	 *
+	 * @return {@link #ASSIGNED}, {@link #NONE} if there is no such value or {@link #CONTRADICTION}
+	 * if a value has no place left or cannot be assigned
+	 */
+	private int assignHiddenSingle() {
+		final var allValues = CandidateSet.allValues(valueCount);
+		for (int scope = 0; scope < topology.getScopeCount(); scope++) {
+			final var cells = topology.getCellsOfScope(scope);
+			if (cells.length != valueCount) {
+				continue;
+			}
+
+			long once = 0, twice = 0, placed = 0;
+			for (final var cell : cells) {
+				final var mask = candidates[cell];
+				twice |= once & mask;
+				once |= mask;
+				if (values[cell] != 0) {
+					placed |= mask;
+				}
+			}
+			if (once != allValues) {
+				return CONTRADICTION;
+			}
+
+			final var hidden = once & ~twice & ~placed;
+			if (hidden != 0) {
+				final var bit = Long.lowestOneBit(hidden);
+				for (final var cell : cells) {
+					if ((candidates[cell] & bit) != 0) {
+						return assign(cell, CandidateSet.valueOf(bit)) ? ASSIGNED : CONTRADICTION;
+					}
+				}
+			}
+		}
+
+		return NONE;
+	}
+
+	/**
+	 * Rewinds every change made since the trail had the given length.
+	 */
+	private void undo(final int mark) {
+		while (trailSize > mark) {
+			final var cell = trailCells[--trailSize];
+			if (cell < 0) {
+				values[~cell] = 0;
+				assignedCount--;
+			} else {
+				candidates[cell] = trailMasks[trailSize];
+			}
+		}
+		singleCount = 0;
+	}
+
+	/**
+	 * @return the unassigned cell with the fewest candidates, or {@code -1} if every cell is assigned
+	 */
+	int selectCell() {
+		int best = -1, bestCount = Integer.MAX_VALUE;
+		for (int cell = 0; cell < values.length; cell++) {
+			if (values[cell] == 0) {
+				final var count = Long.bitCount(candidates[cell]);
+				if (count < bestCount) {
+					best = cell;
+					bestCount = count;
+					if (count <= 2) {
+						break;
+					}
+				}
+			}
+		}
+
+		return best;
+	}
+
+	/**
+	 * Searches for a solution below the current state, which must have been propagated. When no
+	 * solution is found the state is rewound to where it was, otherwise it holds the solution.
+	 *
+	 * @param budget
+	 * @param recorder
+	 * @param stopped  polled before every node; the search gives up once it returns {@code true}
+	 * @return {@code true} if a solution was found
+	 * @throws SolveBudget.AbortedException if the budget runs out
+	 */
+	boolean search(final SolveBudget budget, final SolveRecorder recorder,
+		final BooleanSupplier stopped) {
+		final var base = depth;
+		if (isSolved()) {
+			return true;
+		}
+		push(recorder);
+
+		while (depth > base) {
+			if (stopped.getAsBoolean()) {
+				undo(stackMarks[base]);
+				depth = base;
+
+				return false;
+			}
+
+			final var level = depth - 1;
+			final var remaining = stackRemaining[level];
+			undo(stackMarks[level]);
+			if (remaining == 0) {
+				// every candidate failed so the guess below failed too
+				depth--;
+				if (depth > base) {
+					budget.backtrack();
+				}
+				continue;
+			}
+
+			final var bit = Long.lowestOneBit(remaining);
+			stackRemaining[level] = remaining & ~bit;
+			budget.node();
+			recorder.depth(depth);
+			if (!assign(stackCells[level], CandidateSet.valueOf(bit)) || !propagate()) {
+				budget.backtrack();
+			} else if (isSolved()) {
+				return true;
+			} else {
+				push(recorder);
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Pushes a guess on the cell with the fewest candidates.
+	 */
+	private void push(final SolveRecorder recorder) {
+		final var start = recorder.time();
+		final var cell = selectCell();
+		recorder.prioritize(start);
+
+		stackCells[depth] = cell;
+		stackRemaining[depth] = candidates[cell];
+		stackMarks[depth] = trailSize;
+		depth++;
+	}
+
+}
@@ -0,0 +1,243 @@
+package com.tagadvance.sudoku;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Backtracks iteratively over bit mask candidates, assigning naked and hidden singles after every
+ * guess. Changes are recorded on an undo trail that is rewound on backtrack rather than copying the
+ * grid, so a solve allocates nothing per node and deep searches on large grids cannot overflow the
+ * stack.
+ * <p>
+ * With a {@link ForkJoinPool} the branches of the first few guesses are searched in parallel. The
+ * state is only copied for the branches handed to other tasks; the task making a guess keeps
+ * searching its last branch on its own state.
+ */
+public class TrailSudokuSolver implements SudokuSolver {
+
+	public static final int DEFAULT_MAX_FORK_DEPTH = 4;
+
+	/**
+	 * pool to fork branches on, or {@code null} to search on the calling thread
+	 */
+	private final ForkJoinPool pool;
+
+	private final int maxForkDepth;
+
+	private final SolveListener listener;
+
+	/**
+	 * Creates a solver that searches on the calling thread.
+	 */
+	public TrailSudokuSolver() {
+		this(SolveListener.NOOP);
+	}
+
+	/**
+	 * Creates a solver that searches on the calling thread.
+	 *
+	 * @param listener listener to report the statistics of every solve to
+	 */
+	public TrailSudokuSolver(final SolveListener listener) {
+		this(null, 0, listener);
+	}
+
+	/**
+	 * @param pool         pool to run on
+	 * @param maxForkDepth number of guesses after which tasks stop forking; {@code 0} solves
+	 *                     sequentially in a single task
+	 */
+	public TrailSudokuSolver(final ForkJoinPool pool, final int maxForkDepth) {
+		this(checkNotNull(pool, "pool must not be null"), maxForkDepth, SolveListener.NOOP);
+	}
+
+	/**
+	 * @param pool         pool to run on
+	 * @param maxForkDepth number of guesses after which tasks stop forking; {@code 0} solves
+	 *                     sequentially in a single task
+	 * @param listener     listener to report the statistics of every solve to
+	 */
+	public TrailSudokuSolver(final ForkJoinPool pool, final int maxForkDepth,
+		final SolveListener listener) {
+		super();
+		checkArgument(maxForkDepth >= 0, "maxForkDepth must not be negative");
+		this.pool = pool;
+		this.maxForkDepth = maxForkDepth;
+		this.listener = checkNotNull(listener, "listener must not be null");
+	}
+
+	@Override
+	public <V> Grid<V> solve(final Sudoku<V> sudoku, final Grid<V> grid) {
+		checkNotNull(sudoku, "sudoku must not be null");
+		checkNotNull(grid, "grid must not be null");
+
+		return solve(sudoku, grid, SolveLimits.NONE, CancellationToken.NONE).solution();
+	}
+
+	@Override
+	public <V> SolveResult<V> solve(final Sudoku<V> sudoku, final Grid<V> grid,
+		final SolveLimits limits, final CancellationToken token) {
+		checkNotNull(sudoku, "sudoku must not be null");
+		checkNotNull(grid, "grid must not be null");
+		checkNotNull(limits, "limits must not be null");
+		checkNotNull(token, "token must not be null");
+
+		final var recorder = SolveRecorder.start(listener);
+		final var budget = new SolveBudget(limits, token);
+		SolveResult<V> result;
+		try {
+			result = budget.result(search(sudoku, grid, budget, recorder));
+		} catch (final SolveBudget.AbortedException e) {
+			result = budget.result(null);
+		}
+		recorder.finish(listener, sudoku, grid, result);
+
+		return result;
+	}
+
+	private <V> Grid<V> search(final Sudoku<V> sudoku, final Grid<V> grid, final SolveBudget budget,
+		final SolveRecorder recorder) {
+		budget.check();
+		final var allocationMark = recorder.allocationMark();
+		final var start = recorder.time();
+		final var state = TrailSearch.of(sudoku, grid);
+		final var valid = state != null && state.propagate();
+		recorder.validate(start);
+
+		TrailSearch solution = null;
+		try {
+			if (!valid) {
+				return null;
+			} else if (pool == null || maxForkDepth == 0) {
+				solution = state.search(budget, recorder, () -> false) ? state : null;
+			} else {
+				final var search = new Search(budget, recorder, maxForkDepth);
+				pool.invoke(new SearchTask(search, state, 0));
+				solution = search.solution.get();
+			}
+		} finally {
+			recorder.allocated(allocationMark);
+		}
+
+		if (solution == null) {
+			return null;
+		}
+
+		final var copy = grid.copy();
+		solution.writeTo(copy, sudoku.getValues().asList());
+
+		return copy;
+	}
+
+	/**
+	 * The state shared by every task of one solve.
+	 */
+	private static class Search {
+
+		private final SolveBudget budget;
+		private final SolveRecorder recorder;
+		private final int maxForkDepth;
+		private final AtomicReference<TrailSearch> solution = new AtomicReference<>();
+
+		public Search(final SolveBudget budget, final SolveRecorder recorder,
+			final int maxForkDepth) {
+			super();
+			this.budget = budget;
+			this.recorder = recorder;
+			this.maxForkDepth = maxForkDepth;
+		}
+
+		public boolean isFinished() {
+			return solution.get() != null;
+		}
+
+	}
+
+	private static class SearchTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final Search search;
+		private final TrailSearch state;
+		private final int depth;
+
+		/**
+		 * @param search
+		 * @param state  propagated state of the branch, owned by this task
+		 * @param depth  number of guesses made on top of the clues
+		 */
+		public SearchTask(final Search search, final TrailSearch state, final int depth) {
+			super();
+			this.search = search;
+			this.state = state;
+			this.depth = depth;
+		}
+
+		@Override
+		protected void compute() {
+			final var forks = new ArrayList<SearchTask>();
+			try {
+				expand(forks);
+			} finally {
+				// join in reverse order so that unstarted forks can be run, or skipped, by this thread
+				for (int i = forks.size() - 1; i >= 0; i--) {
+					forks.get(i).join();
+				}
+			}
+		}
+
+		/**
+		 * Forks all but the last candidate of each guess until the fork depth is reached and then
+		 * searches the rest of the branch sequentially.
+		 */
+		private void expand(final List<SearchTask> forks) {
+			final var budget = search.budget;
+			final var recorder = search.recorder;
+			for (int depth = this.depth; !search.isFinished(); depth++) {
+				if (state.isSolved()) {
+					search.solution.compareAndSet(null, state);
+
+					return;
+				} else if (depth >= search.maxForkDepth) {
+					if (state.search(budget, recorder, search::isFinished)) {
+						search.solution.compareAndSet(null, state);
+					}
+
+					return;
+				}
+
+				recorder.depth(depth);
+				final var cell = state.selectCell();
+				long candidates = state.getCandidates(cell);
+				for (; Long.bitCount(candidates) > 1; candidates &= candidates - 1) {
+					budget.node();
+					final var branch = state.copy();
+					if (branch.assign(cell, CandidateSet.valueOf(Long.lowestOneBit(candidates)))
+						&& branch.propagate()) {
+						final var fork = new SearchTask(search, branch, depth + 1);
+						fork.fork();
+						recorder.fork();
+						forks.add(fork);
+					} else {
+						budget.backtrack();
+					}
+				}
+
+				budget.node();
+				if (!state.assign(cell, CandidateSet.valueOf(candidates)) || !state.propagate()) {
+					budget.backtrack();
+
+					return;
+				}
+			}
+		}
+
+	}
+
+}
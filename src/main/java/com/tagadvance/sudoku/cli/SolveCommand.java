@@ -0,0 +1,208 @@
+package com.tagadvance.sudoku.cli;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.util.function.Predicate.not;
+
+import com.google.common.collect.ImmutableMap;
+import com.tagadvance.sudoku.BatchStatistics;
+import com.tagadvance.sudoku.BatchSudokuSolver;
+import com.tagadvance.sudoku.DlxSudokuSolver;
+import com.tagadvance.sudoku.ForkJoinSudokuSolver;
+import com.tagadvance.sudoku.Grid;
+import com.tagadvance.sudoku.IntegerSudokuParser;
+import com.tagadvance.sudoku.MappedPuzzleCorpus;
+import com.tagadvance.sudoku.PropagatingSudokuSolver;
+import com.tagadvance.sudoku.SatSudokuSolver;
+import com.tagadvance.sudoku.SimpleSudokuSolver;
+import com.tagadvance.sudoku.SudokuBuilder;
+import com.tagadvance.sudoku.SudokuBuilder.SudokuFactory;
+import com.tagadvance.sudoku.SudokuSolver;
+import com.tagadvance.sudoku.TrailSudokuSolver;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Solves a file of puzzles, or standard input, and writes one line per puzzle to standard output in
+ * input order: the solution written by {@link IntegerSudokuParser#format(Grid)}, or
+ * {@value #UNSOLVABLE} if the puzzle has no solution. Puzzles are one per line as read by
+ * {@link IntegerSudokuParser}; blank lines and lines starting with {@code #} are skipped. A summary
+ * of throughput and latency is written to standard error once every puzzle has been solved.
+ * <p>
+ * Puzzles are solved by {@link BatchSudokuSolver}, so only a bounded number of puzzles are held in
+ * memory however long the input is. Files and standard input are read alike: one character per cell,
+ * or as tokens for grids wider than {@link MappedPuzzleCorpus#MAX_WIDTH}. Files of grids that can be
+ * written one character per cell are memory mapped by {@link MappedPuzzleCorpus}.
+ *
+ * <pre>
+ * usage: solve [--solver NAME] [--threads N] [--size N] [FILE | -]
+ * </pre>
+ */
+public class SolveCommand {
+
+	static final String UNSOLVABLE = "unsolvable";
+
+	private static final ImmutableMap<String, Supplier<SudokuSolver>> SOLVERS = ImmutableMap.of(
+		"trail", TrailSudokuSolver::new,
+		"dlx", DlxSudokuSolver::new,
+		"sat", SatSudokuSolver::new,
+		"propagating", PropagatingSudokuSolver::new,
+		"forkjoin", ForkJoinSudokuSolver::new,
+		"simple", SimpleSudokuSolver::new);
+
+	private static final String USAGE = "usage: solve [--solver " + String.join("|", SOLVERS.keySet())
+		+ "] [--threads N] [--size N] [FILE | -]";
+
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	private final InputStream in;
+
+	private final OutputStream out;
+
+	private final PrintStream err;
+
+	SolveCommand(final InputStream in, final OutputStream out, final PrintStream err) {
+		super();
+		this.in = checkNotNull(in, "in must not be null");
+		this.out = checkNotNull(out, "out must not be null");
+		this.err = checkNotNull(err, "err must not be null");
+	}
+
+	public static void main(final String[] args) {
+		System.exit(new SolveCommand(System.in, System.out, System.err).run(args));
+	}
+
+	/**
+	 * @param args command line arguments
+	 * @return exit status: {@code 0} on success, {@code 1} if the input cannot be read or parsed and
+	 * {@code 2} if the arguments are invalid
+	 */
+	int run(final String... args) {
+		String solverName = "trail", file = "-";
+		int threads = Runtime.getRuntime().availableProcessors(), size = 9;
+		try {
+			for (int i = 0; i < args.length; i++) {
+				switch (args[i]) {
+					case "--solver" -> solverName = args[++i];
+					case "--threads" -> threads = Integer.parseInt(args[++i]);
+					case "--size" -> size = Integer.parseInt(args[++i]);
+					case "-h", "--help" -> {
+						err.println(USAGE);
+
+						return 0;
+					}
+					default -> {
+						if (i != args.length - 1 || (args[i].startsWith("-") && !args[i].equals("-"))) {
+							return usage("unexpected argument " + args[i]);
+						}
+						file = args[i];
+					}
+				}
+			}
+		} catch (final ArrayIndexOutOfBoundsException e) {
+			return usage(args[args.length - 1] + " requires a value");
+		} catch (final NumberFormatException e) {
+			return usage(e.getMessage());
+		}
+
+		final var solverFactory = SOLVERS.get(solverName);
+		if (solverFactory == null) {
+			return usage("unknown solver " + solverName);
+		} else if (threads <= 0) {
+			return usage("--threads must be a positive integer");
+		}
+
+		final SudokuFactory<Integer> factory;
+		try {
+			factory = SudokuBuilder.newBuilder().createBitmaskSudokuFactory(size);
+		} catch (final IllegalArgumentException e) {
+			return usage(e.getMessage());
+		}
+
+		try {
+			final var statistics = solve(factory, solverFactory, threads, size, file);
+			err.println(summarize(statistics));
+
+			return 0;
+		} catch (final IOException | UncheckedIOException e) {
+			err.println("solve: " + e.getMessage());
+
+			return 1;
+		} catch (final IllegalArgumentException | IndexOutOfBoundsException e) {
+			err.println("solve: puzzle cannot be parsed: " + e.getMessage());
+
+			return 1;
+		}
+	}
+
+	private int usage(final String message) {
+		err.println("solve: " + message);
+		err.println(USAGE);
+
+		return 2;
+	}
+
+	private BatchStatistics solve(final SudokuFactory<Integer> factory,
+		final Supplier<SudokuSolver> solverFactory, final int threads, final int size,
+		final String file) throws IOException {
+		final var parser = new IntegerSudokuParser();
+		final var writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8),
+			BUFFER_SIZE);
+		try (final var solver = new BatchSudokuSolver(solverFactory, threads);
+			final var corpus = file.equals("-") || size > MappedPuzzleCorpus.MAX_WIDTH ? null
+				: MappedPuzzleCorpus.open(Path.of(file));
+			final var grids = corpus == null ? read(factory, parser, file) : corpus.stream(
+				factory::createEmptyGrid)) {
+			final var batch = solver.solve(factory.createSudoku(), grids.iterator());
+			while (batch.hasNext()) {
+				final var solution = batch.next();
+				writer.write(solution == null ? UNSOLVABLE : parser.format(solution));
+				writer.write('\n');
+			}
+			writer.flush();
+
+			return batch.getStatistics();
+		}
+	}
+
+	/**
+	 * Reads puzzles with the parser from a file, or standard input if the file is {@code -}.
+	 */
+	private Stream<Grid<Integer>> read(final SudokuFactory<Integer> factory,
+		final IntegerSudokuParser parser, final String file) throws IOException {
+		final var lines = file.equals("-") ? new BufferedReader(
+			new InputStreamReader(in, StandardCharsets.UTF_8), BUFFER_SIZE).lines()
+			: Files.lines(Path.of(file), StandardCharsets.UTF_8);
+
+		return lines
+			.map(String::strip)
+			.filter(not(line -> line.isEmpty() || line.startsWith("#")))
+			.map(line -> {
+				final var grid = factory.createEmptyGrid();
+				parser.populateSudokuFromString(grid, line);
+
+				return grid;
+			});
+	}
+
+	static String summarize(final BatchStatistics statistics) {
+		return String.format("solved %d puzzles (%d unsolvable) in %.3f s: %.1f puzzles/s, "
+				+ "mean %d us, max %d us per puzzle", statistics.puzzles(), statistics.unsolved(),
+			statistics.elapsedNanos() / (double) TimeUnit.SECONDS.toNanos(1),
+			statistics.puzzlesPerSecond(), TimeUnit.NANOSECONDS.toMicros(statistics.meanSolveNanos()),
+			TimeUnit.NANOSECONDS.toMicros(statistics.maxSolveNanos()));
+	}
+
+}
@@ -0,0 +1,98 @@
+package com.tagadvance.sudoku;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.tagadvance.geometry.Dimension;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+
+class BatchSudokuSolverTest {
+
+	@Test
+	void solvePreservesInputOrder() throws IOException {
+		final var factory = SudokuBuilder.newBuilder().createBitmaskSudokuFactory();
+		final var sudoku = factory.createSudoku();
+		final var puzzles = SudokuSolverTest.readPuzzles(factory.createEmptyGrid()).toList();
+		final var expected = new SimpleSudokuSolver();
+
+		try (final var solver = new BatchSudokuSolver(DlxSudokuSolver::new, 2)) {
+			final var batch = solver.solve(sudoku, puzzles.iterator());
+			final var solutions = new ArrayList<Grid<Integer>>();
+			batch.forEachRemaining(solutions::add);
+
+			assertEquals(puzzles.size(), solutions.size());
+			for (int i = 0; i < puzzles.size(); i++) {
+				final var solution = solutions.get(i);
+				assertTrue(sudoku.isSolved(solution));
+				assertEquals(expected.solve(sudoku, puzzles.get(i)).toString(), solution.toString());
+			}
+
+			final var statistics = batch.getStatistics();
+			assertEquals(puzzles.size(), statistics.puzzles());
+			assertEquals(0, statistics.unsolved());
+			assertTrue(statistics.puzzlesPerSecond() > 0);
+		}
+	}
+
+	@Test
+	void solveReturnsNullForUnsolvableGrid() {
+		final var factory = SudokuBuilder.newBuilder().createBitmaskSudokuFactory();
+		final var sudoku = factory.createSudoku();
+		final var grid = factory.createEmptyGrid();
+		grid.getCellAt(0, 0).setValue(1);
+		grid.getCellAt(1, 0).setValue(1);
+
+		try (final var solver = new BatchSudokuSolver(DlxSudokuSolver::new, 1)) {
+			final var solutions = solver.solve(sudoku, Stream.of(grid)).toList();
+
+			assertEquals(1, solutions.size());
+			assertNull(solutions.get(0));
+		}
+	}
+
+	@Test
+	void statisticsCoverConsumedResultsOnly() throws IOException, InterruptedException {
+		final var factory = SudokuBuilder.newBuilder().createBitmaskSudokuFactory();
+		final var sudoku = factory.createSudoku();
+		final var puzzles = SudokuSolverTest.readPuzzles(factory.createEmptyGrid()).limit(4).toList();
+		final var solved = new CountDownLatch(puzzles.size());
+		final Supplier<SudokuSolver> solverFactory = () -> new SudokuSolver() {
+
+			private final SudokuSolver delegate = new DlxSudokuSolver();
+
+			@Override
+			public <V> Grid<V> solve(final Sudoku<V> sudoku, final Grid<V> grid) {
+				final var solution = delegate.solve(sudoku, grid);
+				solved.countDown();
+
+				return solution;
+			}
+
+		};
+
+		try (final var solver = new BatchSudokuSolver(solverFactory, 2)) {
+			final var batch = solver.solve(sudoku, puzzles.iterator());
+			batch.next();
+			assertTrue(solved.await(10, TimeUnit.SECONDS));
+
+			final var statistics = batch.getStatistics();
+			assertEquals(1, statistics.puzzles());
+			assertEquals(statistics.maxSolveNanos(), statistics.totalSolveNanos());
+		}
+	}
+
+	@Test
+	void constructorRejectsNonPositiveParallelism() {
+		assertThrows(IllegalArgumentException.class,
+			() -> new BatchSudokuSolver(DlxSudokuSolver::new, 0));
+	}
+
+}
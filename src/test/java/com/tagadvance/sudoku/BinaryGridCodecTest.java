@@ -0,0 +1,139 @@
+package com.tagadvance.sudoku;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.tagadvance.geometry.Dimension;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class BinaryGridCodecTest {
+
+	private static final Dimension SIZE = new Dimension(9, 9);
+
+	@Test
+	void classicGridTakesFourBitsPerCell() {
+		assertEquals(4, BinaryGridCodec.bitsPerCell(SIZE));
+		assertEquals(43, BinaryGridCodec.encodedSize(SIZE));
+		assertEquals(7, BinaryGridCodec.bitsPerCell(new Dimension(64, 64)));
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = {1, 4, 9, 16, 25, 36, 64})
+	void encodeRoundTrips(final int size) {
+		final var dimension = new Dimension(size, size);
+		final var grid = randomGrid(new PackedGrid(dimension), new Random(size));
+		final var buffer = ByteBuffer.allocate(BinaryGridCodec.encodedSize(dimension));
+
+		BinaryGridCodec.encode(grid, buffer);
+		assertEquals(buffer.capacity(), buffer.position());
+		buffer.flip();
+
+		assertEquals(dimension, BinaryGridCodec.peekSize(buffer));
+		final var packed = BinaryGridCodec.decode(buffer.duplicate(), new PackedGrid(dimension));
+		assertEquals(grid.toString(), packed.toString());
+		final var fixed = BinaryGridCodec.decode(buffer, new FixedSizeGrid<Integer>(dimension));
+		assertEquals(grid.toString(), fixed.toString());
+	}
+
+	@Test
+	void rectangularGridRoundTrips() {
+		final var dimension = new Dimension(6, 3);
+		final var grid = randomGrid(new FixedSizeGrid<>(dimension), new Random(6));
+		final var buffer = ByteBuffer.allocate(BinaryGridCodec.encodedSize(dimension));
+
+		BinaryGridCodec.encode(grid, buffer);
+		buffer.flip();
+
+		assertEquals(grid.toString(),
+			BinaryGridCodec.decode(buffer, new FixedSizeGrid<Integer>(dimension)).toString());
+	}
+
+	@Test
+	void encodeLeavesBufferUnchangedOnFailure() {
+		final var buffer = ByteBuffer.allocate(BinaryGridCodec.encodedSize(SIZE) - 1);
+		assertThrows(BufferOverflowException.class,
+			() -> BinaryGridCodec.encode(new PackedGrid(SIZE), buffer));
+		assertEquals(0, buffer.position());
+
+		final var grid = new PackedGrid(SIZE, 20);
+		grid.setInt(40, 16);
+		final var large = ByteBuffer.allocate(BinaryGridCodec.encodedSize(SIZE));
+		assertThrows(IllegalArgumentException.class, () -> BinaryGridCodec.encode(grid, large));
+		assertEquals(0, large.position());
+	}
+
+	@Test
+	void decodeRejectsIncompleteAndMismatchedRecords() {
+		final var buffer = ByteBuffer.allocate(BinaryGridCodec.encodedSize(SIZE));
+		BinaryGridCodec.encode(new PackedGrid(SIZE), buffer);
+		buffer.flip();
+
+		assertThrows(IllegalArgumentException.class,
+			() -> BinaryGridCodec.decode(buffer, new PackedGrid(new Dimension(4, 4))));
+		final var truncated = buffer.duplicate().limit(buffer.limit() - 1);
+		assertThrows(BufferUnderflowException.class,
+			() -> BinaryGridCodec.decode(truncated, new PackedGrid(SIZE)));
+		assertEquals(0, truncated.position());
+	}
+
+	@Test
+	void channelRoundTripsManyGrids() throws IOException {
+		final var random = new Random(42);
+		final var grids = new ArrayList<PackedGrid>();
+		for (int i = 0; i < 5000; i++) {
+			grids.add(randomGrid(new PackedGrid(SIZE), random));
+		}
+
+		final var file = Files.createTempFile("grids", ".bin");
+		try {
+			try (final var channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+				assertEquals(grids.size(), BinaryGridCodec.writeAll(channel, grids.iterator()));
+			}
+			assertEquals(grids.size() * 43L, Files.size(file));
+
+			final var read = new ArrayList<String>();
+			try (final var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+				assertEquals(grids.size(), BinaryGridCodec.readAll(channel, () -> new PackedGrid(SIZE),
+					grid -> read.add(grid.toString())));
+			}
+			assertEquals(grids.stream().map(Object::toString).toList(), read);
+
+			try (final var channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+				channel.truncate(Files.size(file) - 1);
+			}
+			try (final var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+				assertThrows(EOFException.class,
+					() -> BinaryGridCodec.readAll(channel, () -> new PackedGrid(SIZE), grid -> {
+					}));
+			}
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	private static <G extends Grid<Integer>> G randomGrid(final G grid, final Random random) {
+		final var size = grid.getSize();
+		final var maxValue = Math.max(size.width(), size.height());
+		for (int y = 0; y < size.height(); y++) {
+			for (int x = 0; x < size.width(); x++) {
+				final var value = random.nextInt(maxValue + 1);
+				grid.getCellAt(x, y).setValue(value == 0 ? null : value);
+			}
+		}
+
+		return grid;
+	}
+
+}
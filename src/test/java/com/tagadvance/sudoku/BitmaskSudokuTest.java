@@ -0,0 +1,101 @@
+package com.tagadvance.sudoku;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.common.collect.ImmutableSet;
+import com.tagadvance.geometry.Dimension;
+import com.tagadvance.geometry.Point;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+class BitmaskSudokuTest {
+
+	private static final String PUZZLE = "?4?6??2?3153?????????3??????158??9??23?1?5?46??9??452??????8?????????6593?1??9?7?";
+
+	@Test
+	void getPotentialValuesForCellMatchesCompositeSudoku() {
+		final var values = IntStream.rangeClosed(1, 9)
+			.boxed()
+			.collect(ImmutableSet.toImmutableSet());
+		final var grid = new FixedSizeGrid<Integer>(new Dimension(9, 9));
+		final var compositeSudoku = new CompositeSudoku<>(values,
+			new SquareRootScopeFactory().createScopes(grid));
+
+		final var factory = SudokuBuilder.newBuilder().createBitmaskSudokuFactory();
+		final var bitmaskSudoku = factory.createSudoku();
+		final var bitmaskGrid = factory.createEmptyGrid();
+
+		final var parser = new IntegerSudokuParser();
+		parser.populateSudokuFromString(grid, PUZZLE);
+		parser.populateSudokuFromString(bitmaskGrid, PUZZLE);
+
+		for (final var point : grid.getSize().stream().toList()) {
+			final var expected = compositeSudoku.getPotentialValuesForCell(grid,
+				grid.getCellAt(point));
+			final var cell = bitmaskGrid.getCellAt(point);
+			assertEquals(expected, bitmaskSudoku.getPotentialValuesForCell(bitmaskGrid, cell));
+			assertEquals(expected.size(), bitmaskSudoku.countPotentialValuesForCell(bitmaskGrid, cell));
+		}
+	}
+
+	@Test
+	void clearingCellRestoresCandidate() {
+		final var factory = SudokuBuilder.newBuilder().createBitmaskSudokuFactory();
+		final var sudoku = factory.createSudoku();
+		final var grid = factory.createEmptyGrid();
+
+		final var cell = grid.getCellAt(new Point(0, 0));
+		final var peer = grid.getCellAt(new Point(8, 0));
+		final var duplicate = grid.getCellAt(new Point(0, 8));
+		cell.setValue(5);
+		duplicate.setValue(5);
+		assertEquals(8, sudoku.countPotentialValuesForCell(grid, peer));
+
+		cell.setValue(null);
+		assertEquals(9, sudoku.countPotentialValuesForCell(grid, peer));
+		assertEquals(8, sudoku.countPotentialValuesForCell(grid, cell));
+	}
+
+	@Test
+	void validityAndSolvedStateAreTrackedIncrementally() {
+		final var factory = SudokuBuilder.newBuilder().createBitmaskSudokuFactory();
+		final var sudoku = factory.createSudoku();
+		final var grid = factory.createEmptyGrid();
+		final var solution = new SimpleSudokuSolver().solve(sudoku, grid);
+
+		final var a = grid.getCellAt(new Point(0, 0));
+		final var b = grid.getCellAt(new Point(4, 0));
+		a.setValue(7);
+		b.setValue(7);
+		assertFalse(sudoku.isValid(grid));
+		b.setValue(3);
+		assertTrue(sudoku.isValid(grid));
+		assertFalse(sudoku.isSolved(grid));
+
+		for (final var point : grid.getSize().stream().toList()) {
+			grid.getCellAt(point).setValue(solution.getCellAt(point).getValue());
+		}
+		assertTrue(sudoku.isValid(grid));
+		assertTrue(sudoku.isSolved(grid));
+
+		// swapping two values of a row breaks the columns and boxes but keeps every cell filled
+		final var first = grid.getCellAt(new Point(0, 4));
+		final var second = grid.getCellAt(new Point(8, 4));
+		final var value = first.getValue();
+		first.setValue(second.getValue());
+		assertFalse(sudoku.isValid(grid));
+		assertFalse(sudoku.isSolved(grid));
+		second.setValue(value);
+		assertFalse(sudoku.isValid(grid));
+		first.setValue(value);
+		second.setValue(solution.getCellAt(new Point(8, 4)).getValue());
+		assertTrue(sudoku.isSolved(grid));
+
+		first.setValue(null);
+		assertTrue(sudoku.isValid(grid));
+		assertFalse(sudoku.isSolved(grid));
+	}
+
+}
@@ -0,0 +1,167 @@
+package com.tagadvance.sudoku;
+
+import static com.tagadvance.sudoku.TestPuzzles.SEVENTEEN_CLUES;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.tagadvance.sudoku.SolveResult.Status;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class CachingSudokuSolverTest {
+
+	private static final String PUZZLE = "?4?6??2?3153?????????3??????158??9??23?1?5?46??9??452??????8?????????6593?1??9?7?";
+
+	private final SudokuBuilder.SudokuFactory<Integer> factory = SudokuBuilder.newBuilder()
+		.createBitmaskSudokuFactory();
+
+	private Grid<Integer> parse(final String puzzle) {
+		return TestPuzzles.parse(factory, puzzle);
+	}
+
+	/**
+	 * @return the puzzle with every digit {@code d} replaced by {@code 10 - d}
+	 */
+	private static String relabel(final String puzzle) {
+		final var relabelled = new StringBuilder();
+		for (final var c : puzzle.toCharArray()) {
+			relabelled.append(Character.isDigit(c) ? (char) ('0' + 10 - (c - '0')) : c);
+		}
+
+		return relabelled.toString();
+	}
+
+	@Test
+	void relabelledGridIsSolvedFromCache() {
+		final var calls = new AtomicInteger();
+		final var solver = new CachingSudokuSolver(new CountingSolver(calls), 16);
+		final var sudoku = factory.createSudoku();
+
+		final var first = solver.solve(sudoku, parse(PUZZLE));
+		final var relabelled = parse(relabel(PUZZLE));
+		final var second = solver.solve(sudoku, relabelled);
+
+		assertEquals(1, calls.get());
+		assertTrue(sudoku.isSolved(first));
+		assertTrue(sudoku.isSolved(second));
+		for (int i = 0; i < 81; i++) {
+			assertEquals(10 - first.getCellAt(i).getValue(), second.getCellAt(i).getValue());
+			if (!relabelled.getCellAt(i).isEmpty()) {
+				assertEquals(relabelled.getCellAt(i).getValue(), second.getCellAt(i).getValue());
+			}
+		}
+		assertEquals(1, solver.getStatistics().hitCount());
+		assertEquals(1, solver.getStatistics().missCount());
+	}
+
+	@Test
+	void separatelyCreatedSudokusShareTheCache() {
+		final var calls = new AtomicInteger();
+		final var solver = new CachingSudokuSolver(new CountingSolver(calls), 16);
+		final var classicFactory = SudokuBuilder.newBuilder().createClassicSudokuFactory();
+
+		for (int i = 0; i < 3; i++) {
+			final var sudoku = classicFactory.createSudoku();
+			final var grid = classicFactory.createEmptyGrid();
+			new IntegerSudokuParser().populateSudokuFromString(grid, PUZZLE);
+
+			assertTrue(sudoku.isSolved(solver.solve(sudoku, grid)));
+		}
+
+		assertEquals(1, calls.get());
+		assertEquals(2, solver.getStatistics().hitCount());
+	}
+
+	@Test
+	void unsolvableGridIsCached() {
+		final var calls = new AtomicInteger();
+		final var solver = new CachingSudokuSolver(new CountingSolver(calls), 16);
+		final var grid = factory.createEmptyGrid();
+		grid.getCellAt(0, 0).setValue(1);
+		grid.getCellAt(1, 0).setValue(1);
+
+		final var sudoku = factory.createSudoku();
+
+		assertNull(solver.solve(sudoku, grid));
+		assertEquals(Status.UNSOLVABLE,
+			solver.solve(sudoku, grid, SolveLimits.NONE, CancellationToken.NONE).status());
+		assertEquals(1, calls.get());
+	}
+
+	@Test
+	void exceededBudgetIsNotCached() {
+		final var calls = new AtomicInteger();
+		final var solver = new CachingSudokuSolver(new CountingSolver(calls), 16);
+		final var sudoku = factory.createSudoku();
+		final var grid = parse(SEVENTEEN_CLUES);
+
+		final var result = solver.solve(sudoku, grid, SolveLimits.NONE.withMaxNodes(10),
+			CancellationToken.NONE);
+
+		assertEquals(Status.BUDGET_EXCEEDED, result.status());
+		assertEquals(0, solver.size());
+		assertTrue(sudoku.isSolved(solver.solve(sudoku, grid)));
+		assertEquals(2, calls.get());
+	}
+
+	@Test
+	void leastRecentlyUsedGridIsEvicted() {
+		final var solver = new CachingSudokuSolver(new SimpleSudokuSolver(), 1);
+		final var sudoku = factory.createSudoku();
+
+		solver.solve(sudoku, parse(PUZZLE));
+		solver.solve(sudoku, parse(SEVENTEEN_CLUES));
+
+		assertEquals(1, solver.size());
+		assertEquals(1, solver.getStatistics().evictionCount());
+	}
+
+	@Test
+	void revertUndoesApply() {
+		final var grid = parse(PUZZLE);
+		final var values = new int[81];
+		for (int i = 0; i < values.length; i++) {
+			final var value = grid.getCellAt(i).getValue();
+			values[i] = value == null ? 0 : value;
+		}
+
+		final var transform = new RelabellingCanonicalizer().canonicalize(
+			SudokuTopology.of(factory.createSudoku(), grid.getSize()), 9, values);
+		final var canonical = transform.apply(values);
+
+		assertEquals(1, canonical[1]);
+		assertEquals(2, canonical[3]);
+		assertArrayEquals(values, transform.revert(canonical));
+	}
+
+	private static class CountingSolver implements SudokuSolver {
+
+		private final SudokuSolver solver = new SimpleSudokuSolver();
+
+		private final AtomicInteger calls;
+
+		public CountingSolver(final AtomicInteger calls) {
+			super();
+			this.calls = calls;
+		}
+
+		@Override
+		public <V> Grid<V> solve(final Sudoku<V> sudoku, final Grid<V> grid) {
+			calls.incrementAndGet();
+
+			return solver.solve(sudoku, grid);
+		}
+
+		@Override
+		public <V> SolveResult<V> solve(final Sudoku<V> sudoku, final Grid<V> grid,
+			final SolveLimits limits, final CancellationToken token) {
+			calls.incrementAndGet();
+
+			return solver.solve(sudoku, grid, limits, token);
+		}
+
+	}
+
+}
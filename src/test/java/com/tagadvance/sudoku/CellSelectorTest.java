@@ -0,0 +1,139 @@
+package com.tagadvance.sudoku;
+
+import static com.tagadvance.sudoku.TestPuzzles.SEVENTEEN_CLUES;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.common.collect.ImmutableSet;
+import com.tagadvance.geometry.Dimension;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class CellSelectorTest {
+
+	@Test
+	void selectReturnsCellWithFewestCandidates() {
+		final var factory = SudokuBuilder.newBuilder().createBitmaskSudokuFactory();
+		final var sudoku = factory.createSudoku();
+		final var grid = factory.createEmptyGrid();
+		new IntegerSudokuParser().populateSudokuFromString(grid, SEVENTEEN_CLUES);
+
+		final var selector = CellSelector.of(sudoku, grid, false);
+		assertEquals(64, selector.getUnassignedCount());
+		assertMinimal(sudoku, grid, selector);
+	}
+
+	@Test
+	void tiesAreBrokenByDegree() {
+		final var factory = SudokuBuilder.newBuilder().createBitmaskSudokuFactory();
+		final var sudoku = factory.createSudoku();
+		final var grid = factory.createEmptyGrid();
+		new IntegerSudokuParser().populateSudokuFromString(grid, SEVENTEEN_CLUES);
+		final var topology = SudokuTopology.of(sudoku, grid.getSize());
+
+		final var selector = CellSelector.of(sudoku, grid, true);
+		final var values = sudoku.getValues().asList();
+		while (selector.getUnassignedCount() > 0) {
+			final var index = selector.select();
+			final var fewest = selector.countCandidates(index);
+			if (fewest == 0) {
+				break;
+			}
+
+			var mostPeers = 0;
+			for (int other = 0; other < 81; other++) {
+				if (grid.getCellAt(other).isEmpty() && selector.countCandidates(other) == fewest) {
+					mostPeers = Math.max(mostPeers, countEmptyPeers(grid, topology, other));
+				}
+			}
+			assertEquals(mostPeers, countEmptyPeers(grid, topology, index));
+
+			final var cell = grid.getCellAt(index);
+			final var value = sudoku.getPotentialValuesForCell(grid, cell).iterator().next();
+			cell.setValue(value);
+			selector.assign(index, values.indexOf(value) + 1);
+		}
+	}
+
+	@Test
+	void unassignRestoresCandidates() {
+		final var factory = SudokuBuilder.newBuilder().createBitmaskSudokuFactory();
+		final var sudoku = factory.createSudoku();
+		final var grid = factory.createEmptyGrid();
+		new IntegerSudokuParser().populateSudokuFromString(grid, SEVENTEEN_CLUES);
+
+		final var selector = CellSelector.of(sudoku, grid, true);
+		final var values = sudoku.getValues().asList();
+		final var random = new Random(0);
+		for (int i = 0; i < 20; i++) {
+			final var index = selector.select();
+			final var cell = grid.getCellAt(index);
+			final var candidates = List.copyOf(sudoku.getPotentialValuesForCell(grid, cell));
+			if (candidates.isEmpty()) {
+				break;
+			}
+			final var value = candidates.get(random.nextInt(candidates.size()));
+			cell.setValue(value);
+			selector.assign(index, values.indexOf(value) + 1);
+			assertMinimal(sudoku, grid, selector);
+		}
+
+		for (int index = 0; index < 81; index++) {
+			final var cell = grid.getCellAt(index);
+			if (!cell.isEmpty() && selector.getValue(index) != 0) {
+				final var copy = selector.copy();
+				cell.setValue(null);
+				copy.unassign(index);
+				assertMinimal(sudoku, grid, copy);
+				cell.setValue(values.get(selector.getValue(index) - 1));
+			}
+		}
+	}
+
+	@Test
+	void ofRejectsUnknownValues() {
+		final var values = ImmutableSet.of(1, 2, 3, 4);
+		final var size = new Dimension(4, 4);
+		final var grid = new FixedSizeGrid<Integer>(size);
+		final var sudoku = new CompositeSudoku<>(values,
+			new SquareRootScopeFactory().createScopes(grid));
+		grid.getCellAt(0).setValue(5);
+
+		assertThrows(IllegalArgumentException.class, () -> CellSelector.of(sudoku, grid, true));
+	}
+
+	private static int countEmptyPeers(final Grid<Integer> grid, final SudokuTopology topology,
+		final int cell) {
+		var count = 0;
+		for (final var peer : topology.getPeers(cell)) {
+			if (grid.getCellAt(peer).isEmpty()) {
+				count++;
+			}
+		}
+
+		return count;
+	}
+
+	/**
+	 * Asserts that the candidates of every empty cell match the sudoku's and that the selected cell
+	 * has the fewest.
+	 */
+	private static void assertMinimal(final Sudoku<Integer> sudoku, final Grid<Integer> grid,
+		final CellSelector selector) {
+		final var selected = selector.select();
+		var fewest = Integer.MAX_VALUE;
+		for (int index = 0; index < 81; index++) {
+			final var cell = grid.getCellAt(index);
+			if (cell.isEmpty()) {
+				final var count = sudoku.countPotentialValuesForCell(grid, cell);
+				assertEquals(count, selector.countCandidates(index));
+				fewest = Math.min(fewest, count);
+			}
+		}
+		assertTrue(selected >= 0);
+		assertEquals(fewest, selector.countCandidates(selected));
+	}
+
+}
@@ -0,0 +1,45 @@
+package com.tagadvance.sudoku;
+
+import static com.tagadvance.sudoku.TestPuzzles.SEVENTEEN_CLUES;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+class ForkJoinSudokuSolverTest {
+
+	static Stream<Object[]> createParameters() {
+		return Stream.of(new Object[]{0, 0}, new Object[]{1, 0}, new Object[]{64, 0},
+			new Object[]{ForkJoinSudokuSolver.DEFAULT_MAX_FORK_DEPTH,
+				ForkJoinSudokuSolver.DEFAULT_MIN_EMPTY_CELLS_TO_FORK});
+	}
+
+	@ParameterizedTest
+	@MethodSource("createParameters")
+	void solveOnCallerSuppliedPool(final int maxForkDepth, final int minEmptyCellsToFork) {
+		final var factory = SudokuBuilder.newBuilder().createBitmaskSudokuFactory();
+		final var sudoku = factory.createSudoku();
+		final var grid = factory.createEmptyGrid();
+		new IntegerSudokuParser().populateSudokuFromString(grid, SEVENTEEN_CLUES);
+
+		final var pool = new ForkJoinPool(2);
+		try {
+			final var solver = new ForkJoinSudokuSolver(pool, maxForkDepth, minEmptyCellsToFork);
+			assertTrue(sudoku.isSolved(solver.solve(sudoku, grid)));
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	void constructorRejectsNegativeThresholds() {
+		final var pool = ForkJoinPool.commonPool();
+		assertThrows(IllegalArgumentException.class, () -> new ForkJoinSudokuSolver(pool, -1, 0));
+		assertThrows(IllegalArgumentException.class, () -> new ForkJoinSudokuSolver(pool, 0, -1));
+	}
+
+}
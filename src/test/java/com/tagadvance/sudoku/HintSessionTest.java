@@ -0,0 +1,142 @@
+package com.tagadvance.sudoku;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.EnumSet;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class HintSessionTest {
+
+	private static final String EASY = "?4?6??2?3153?????????3??????158??9??23?1?5?46??9??452??????8?????????6593?1??9?7?";
+
+	private static final String EASY_SOLUTION = "748651293153982764962347185415826937237195846689734521596478312874213659321569478";
+
+	private final SudokuBuilder.SudokuFactory<Integer> factory = SudokuBuilder.newBuilder()
+		.createBitmaskSudokuFactory();
+
+	private final Sudoku<Integer> sudoku = factory.createSudoku();
+
+	@Test
+	void candidatesFollowMovesAndUndos() {
+		final var grid = parse(EASY);
+		final var session = new HintSession<>(sudoku, grid);
+		final var random = new Random(42);
+
+		for (int i = 0; i < 500; i++) {
+			final int x = random.nextInt(9), y = random.nextInt(9);
+			if (random.nextInt(4) == 0) {
+				session.undo();
+			} else if (!session.isClue(x, y)) {
+				session.play(x, y, random.nextInt(3) == 0 ? null : 1 + random.nextInt(9));
+			}
+
+			assertEquals(sudoku.isValid(grid), session.isValid());
+			for (int cell = 0; cell < 81; cell++) {
+				final var c = grid.getCellAt(cell);
+				assertEquals(sudoku.getPotentialValuesForCell(grid, c),
+					session.getCandidates(cell % 9, cell / 9));
+			}
+		}
+
+		while (session.undo()) {
+			continue;
+		}
+		assertEquals(parse(EASY).toString(), grid.toString());
+		assertEquals(0, session.getMoveCount());
+	}
+
+	@Test
+	void conflictingMoveIsReportedAndBlocksHints() {
+		final var session = new HintSession<>(sudoku, parse(EASY));
+
+		assertFalse(session.isConsistent(0, 0, 4));
+		assertFalse(session.play(0, 0, 4));
+		assertFalse(session.isValid());
+		assertTrue(session.nextHint().isEmpty());
+
+		assertTrue(session.undo());
+		assertTrue(session.isValid());
+		assertTrue(session.isConsistent(0, 0, 7));
+		assertTrue(session.nextHint().isPresent());
+	}
+
+	@Test
+	void cluesCannotBeChanged() {
+		final var session = new HintSession<>(sudoku, parse(EASY));
+
+		assertTrue(session.isClue(1, 0));
+		assertThrows(IllegalArgumentException.class, () -> session.play(1, 0, 5));
+		assertThrows(IllegalArgumentException.class, () -> session.clear(1, 0));
+		assertThrows(IllegalArgumentException.class, () -> session.play(9, 0, 5));
+		assertThrows(IllegalArgumentException.class, () -> session.play(0, 0, 10));
+		assertFalse(session.undo());
+	}
+
+	@Test
+	void hintsSolveEasyPuzzleWithSingles() {
+		final var grid = parse(EASY);
+		final var session = new HintSession<>(sudoku, grid);
+
+		final var techniques = play(session);
+
+		assertTrue(session.isSolved());
+		assertEquals(parse(EASY_SOLUTION).toString(), grid.toString());
+		assertTrue(EnumSet.of(StandardPropagationRule.NAKED_SINGLE,
+			StandardPropagationRule.HIDDEN_SINGLE).containsAll(techniques));
+	}
+
+	@Test
+	void hintsSolveMediumPuzzleWithStandardRules() {
+		final var generator = new SudokuGenerator<>(factory);
+		generator.stream(42, Difficulty.MEDIUM).limit(3).forEach(generated -> {
+			final var session = new HintSession<>(generator.getSudoku(), generated.puzzle());
+
+			final var techniques = play(session);
+
+			assertTrue(session.isSolved());
+			assertEquals(generated.solution().toString(), generated.puzzle().toString());
+			assertTrue(techniques.stream().anyMatch(technique ->
+				technique != StandardPropagationRule.NAKED_SINGLE
+					&& technique != StandardPropagationRule.HIDDEN_SINGLE));
+		});
+	}
+
+	@Test
+	void wrongButConsistentMoveEventuallyLeavesNoHint() {
+		final var session = new HintSession<>(sudoku, parse(EASY));
+		assertTrue(session.play(0, 0, 9));
+
+		play(session);
+
+		assertFalse(session.isSolved());
+		assertTrue(session.nextHint().isEmpty());
+	}
+
+	/**
+	 * Plays hints until none is left.
+	 *
+	 * @return techniques used
+	 */
+	private static EnumSet<StandardPropagationRule> play(final HintSession<Integer> session) {
+		final var techniques = EnumSet.noneOf(StandardPropagationRule.class);
+		for (var hint = session.nextHint(); hint.isPresent(); hint = session.nextHint()) {
+			final var point = hint.get().point();
+			assertTrue(session.play(point.x(), point.y(), hint.get().value()));
+			techniques.add(hint.get().technique());
+		}
+
+		return techniques;
+	}
+
+	private Grid<Integer> parse(final String puzzle) {
+		final var grid = factory.createEmptyGrid();
+		new IntegerSudokuParser().populateSudokuFromString(grid, puzzle);
+
+		return grid;
+	}
+
+}
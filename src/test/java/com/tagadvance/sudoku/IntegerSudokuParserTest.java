@@ -0,0 +1,116 @@
+package com.tagadvance.sudoku;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.tagadvance.geometry.Dimension;
+import org.junit.jupiter.api.Test;
+
+class IntegerSudokuParserTest {
+
+	@Test
+	void lettersAreValuesAboveNine() {
+		final var grid = new PackedGrid(new Dimension(16, 16));
+
+		new IntegerSudokuParser().populateSudokuFromString(grid, "1.9Ag?");
+
+		assertEquals(1, grid.getInt(0));
+		assertEquals(0, grid.getInt(1));
+		assertEquals(9, grid.getInt(2));
+		assertEquals(10, grid.getInt(3));
+		assertEquals(16, grid.getInt(4));
+		assertEquals(0, grid.getInt(5));
+	}
+
+	@Test
+	void lettersPastTheWidthAreEmpty() {
+		final var grid = new FixedSizeGrid<Integer>(new Dimension(9, 9));
+
+		new IntegerSudokuParser().populateSudokuFromString(grid, "x5");
+
+		assertNull(grid.getCellAt(0, 0).getValue());
+		assertEquals(5, grid.getCellAt(1, 0).getValue());
+	}
+
+	@Test
+	void tokensMayHoldSeveralDigits() {
+		final var grid = new PackedGrid(new Dimension(36, 36));
+
+		new IntegerSudokuParser().populateSudokuFromString(grid, " 36, . 7\n\t10 B - 0 ");
+
+		assertEquals(36, grid.getInt(0));
+		assertEquals(0, grid.getInt(1));
+		assertEquals(7, grid.getInt(2));
+		assertEquals(10, grid.getInt(3));
+		assertEquals(11, grid.getInt(4));
+		assertEquals(0, grid.getInt(5));
+		assertEquals(0, grid.getInt(6));
+	}
+
+	@Test
+	void spacesAreEmptyCells() {
+		final var grid = new PackedGrid(new Dimension(9, 9));
+
+		new IntegerSudokuParser().populateSudokuFromString(grid,
+			"53  7    6  195    98    6 8   6   34  8 3  17   2   6 6    28    419  5    8  79");
+
+		assertEquals(5, grid.getInt(0));
+		assertEquals(3, grid.getInt(1));
+		assertEquals(0, grid.getInt(2));
+		assertEquals(0, grid.getInt(3));
+		assertEquals(7, grid.getInt(4));
+		assertEquals(9, grid.getInt(80));
+	}
+
+	@Test
+	void tokensPastTheWidthAreEmpty() {
+		final var grid = new FixedSizeGrid<Integer>(new Dimension(9, 9));
+
+		new IntegerSudokuParser(true).populateSudokuFromString(grid, "10 A 99999999999 5");
+
+		assertNull(grid.getCellAt(0, 0).getValue());
+		assertNull(grid.getCellAt(1, 0).getValue());
+		assertNull(grid.getCellAt(2, 0).getValue());
+		assertEquals(5, grid.getCellAt(3, 0).getValue());
+	}
+
+	@Test
+	void formattedTokensAreReadBack() {
+		final var parser = new IntegerSudokuParser(true);
+		final var grid = new PackedGrid(new Dimension(16, 16));
+		parser.populateSudokuFromString(grid, "16, 1 . 12");
+
+		final var copy = new PackedGrid(new Dimension(16, 16));
+		parser.populateSudokuFromString(copy, parser.format(grid));
+
+		assertEquals(parser.format(grid), parser.format(copy));
+		assertEquals(12, copy.getInt(3));
+	}
+
+	@Test
+	void zeroIsEmptyUnlessItIsASymbol() {
+		final var grid = new PackedGrid(new Dimension(4, 4));
+		grid.setInt(0, 2);
+
+		new IntegerSudokuParser("ABCD").populateSudokuFromString(grid, "0");
+		assertEquals(0, grid.getInt(0));
+
+		new IntegerSudokuParser("0123").populateSudokuFromString(grid, "0");
+		assertEquals(1, grid.getInt(0));
+	}
+
+	@Test
+	void symbolsAreConfigurable() {
+		final var grid = new PackedGrid(new Dimension(25, 25));
+
+		new IntegerSudokuParser("ABCDEFGHIJKLMNOPQRSTUVWXY").populateSudokuFromString(grid, "AY-1");
+
+		assertEquals(1, grid.getInt(0));
+		assertEquals(25, grid.getInt(1));
+		assertEquals(0, grid.getInt(2));
+		assertEquals(0, grid.getInt(3));
+		assertThrows(IllegalArgumentException.class, () -> new IntegerSudokuParser("AA"));
+	}
+
+}
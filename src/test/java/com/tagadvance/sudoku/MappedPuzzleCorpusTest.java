@@ -0,0 +1,89 @@
+package com.tagadvance.sudoku;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.google.common.io.Resources;
+import com.tagadvance.geometry.Dimension;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import org.junit.jupiter.api.Test;
+
+class MappedPuzzleCorpusTest {
+
+	private static final Dimension SIZE = new Dimension(9, 9);
+
+	@Test
+	void streamMatchesIntegerSudokuParser() throws IOException {
+		final var expected = SudokuSolverTest.readPuzzles(new PackedGrid(SIZE))
+			.map(Object::toString)
+			.toList();
+
+		final var file = Files.createTempFile("puzzles", ".txt");
+		try {
+			Files.copy(Resources.getResource("puzzles.txt").openStream(), file,
+				StandardCopyOption.REPLACE_EXISTING);
+			try (final var corpus = MappedPuzzleCorpus.open(file)) {
+				assertEquals(expected, corpus.stream(() -> new PackedGrid(SIZE))
+					.map(Object::toString)
+					.toList());
+				assertEquals(expected, corpus.stream(() -> new FixedSizeGrid<Integer>(SIZE))
+					.map(Object::toString)
+					.toList());
+			}
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	@Test
+	void parallelStreamPreservesOrderAcrossWindows() throws IOException {
+		final var lines = SudokuSolverTest.readPuzzles(new PackedGrid(SIZE))
+			.map(grid -> grid.toString().replaceAll("\\s", ""))
+			.toList();
+		final var builder = new StringBuilder();
+		for (int i = 0; i < 2000; i++) {
+			builder.append(lines.get(i % lines.size())).append(i % 2 == 0 ? "\n" : "\r\n");
+		}
+		final var expected = SudokuSolverTest.readPuzzles(new PackedGrid(SIZE))
+			.map(Object::toString)
+			.toList();
+
+		final var file = Files.createTempFile("puzzles", ".txt");
+		try {
+			Files.writeString(file, builder, StandardCharsets.US_ASCII);
+			try (final var channel = FileChannel.open(file, StandardOpenOption.READ);
+				final var corpus = new MappedPuzzleCorpus(channel, 1000)) {
+				final var actual = corpus.parallelStream(() -> new PackedGrid(SIZE))
+					.map(Object::toString)
+					.toList();
+
+				assertEquals(2000, actual.size());
+				for (int i = 0; i < actual.size(); i++) {
+					assertEquals(expected.get(i % expected.size()), actual.get(i));
+				}
+			}
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	@Test
+	void streamRejectsRecordWithTooManyCells() throws IOException {
+		final var file = Files.createTempFile("puzzles", ".txt");
+		try {
+			Files.writeString(file, "1".repeat(82), StandardCharsets.US_ASCII);
+			try (final var corpus = MappedPuzzleCorpus.open(file)) {
+				assertThrows(IllegalArgumentException.class,
+					() -> corpus.stream(() -> new PackedGrid(SIZE)).toList());
+			}
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+}
@@ -0,0 +1,77 @@
+package com.tagadvance.sudoku;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.tagadvance.geometry.Dimension;
+import com.tagadvance.geometry.Point;
+import org.junit.jupiter.api.Test;
+
+class PackedGridTest {
+
+	@Test
+	void cellsAreAddressedRowMajor() {
+		final var grid = new PackedGrid(new Dimension(4, 4));
+		grid.setInt(1, 2, 3);
+
+		assertEquals(3, grid.getInt(2 * 4 + 1));
+		assertEquals(3, grid.getCellAt(new Point(1, 2)).getValue());
+		assertSame(grid.getCellAt(1, 2), grid.getCellAt(new Point(1, 2)));
+	}
+
+	@Test
+	void copyIsIndependent() {
+		final var grid = new PackedGrid(new Dimension(9, 9));
+		grid.getCellAt(0, 0).setValue(5);
+
+		final var copy = grid.copy();
+		copy.getCellAt(0, 0).setValue(null);
+		copy.setInt(8, 8, 9);
+
+		assertEquals(5, grid.getInt(0, 0));
+		assertTrue(grid.getCellAt(8, 8).isEmpty());
+		assertNull(copy.getCellAt(0, 0).getValue());
+		assertEquals(9, copy.getInt(8, 8));
+	}
+
+	@Test
+	void cellViewsAreSharedWithGetCells() {
+		final var grid = new PackedGrid(new Dimension(4, 4));
+		final var cell = grid.getCellAt(5);
+
+		assertSame(cell, grid.getCells().get(5));
+		assertSame(cell, grid.getCellAt(5));
+		assertThrows(IndexOutOfBoundsException.class, () -> grid.getCellAt(16));
+	}
+
+	@Test
+	void largeValuesAreStoredInShorts() {
+		final var grid = new PackedGrid(new Dimension(2, 2), 200);
+		grid.setInt(3, 200);
+
+		assertEquals(200, grid.getInt(1, 1));
+		assertEquals(200, grid.copy().getInt(3));
+	}
+
+	@Test
+	void setIntRejectsValuesOutOfRange() {
+		final var grid = new PackedGrid(new Dimension(9, 9));
+
+		assertThrows(IllegalArgumentException.class, () -> grid.setInt(0, 10));
+		assertThrows(IllegalArgumentException.class, () -> grid.setInt(0, -1));
+		assertThrows(IndexOutOfBoundsException.class, () -> grid.setInt(9, 0, 1));
+	}
+
+	@Test
+	void parserPopulatesGrid() {
+		final var grid = new PackedGrid(new Dimension(4, 4));
+		new IntegerSudokuParser().populateSudokuFromString(grid, "1??2?3??????4??1");
+
+		assertEquals("1 ? ? 2" + System.lineSeparator() + "? 3 ? ?" + System.lineSeparator()
+			+ "? ? ? ?" + System.lineSeparator() + "4 ? ? 1", grid.toString());
+	}
+
+}
@@ -0,0 +1,94 @@
+package com.tagadvance.sudoku;
+
+import static com.tagadvance.sudoku.TestPuzzles.parse;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.tagadvance.sudoku.SolveResult.Status;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class PortfolioSudokuSolverTest {
+
+	@Test
+	void firstConclusiveResultCancelsTheRest() throws InterruptedException {
+		final var factory = SudokuBuilder.newBuilder().createBitmaskSudokuFactory();
+		final var sudoku = factory.createSudoku();
+		final var stopped = new CountDownLatch(1);
+		final var stalling = new SudokuSolver() {
+
+			@Override
+			public <V> Grid<V> solve(final Sudoku<V> sudoku, final Grid<V> grid) {
+				throw new UnsupportedOperationException();
+			}
+
+			@Override
+			public <V> SolveResult<V> solve(final Sudoku<V> sudoku, final Grid<V> grid,
+				final SolveLimits limits, final CancellationToken token) {
+				while (!token.isCancelled()) {
+					Thread.onSpinWait();
+				}
+				stopped.countDown();
+
+				return SolveResult.of(Status.CANCELLED);
+			}
+
+		};
+
+		try (final var solver = new PortfolioSudokuSolver(
+			List.of(stalling, new SimpleSudokuSolver()))) {
+			final var result = solver.solve(sudoku, parse(factory), SolveLimits.NONE,
+				new CancellationToken());
+
+			assertEquals(Status.SOLVED, result.status());
+			assertTrue(sudoku.isSolved(result.solution()));
+			assertTrue(stopped.await(10, TimeUnit.SECONDS));
+		}
+	}
+
+	@Test
+	void solveReturnsBudgetExceededWhenNoSolverSettlesTheGrid() {
+		final var factory = SudokuBuilder.newBuilder().createBitmaskSudokuFactory();
+
+		try (final var solver = new PortfolioSudokuSolver(
+			List.of(new SimpleSudokuSolver(), SimpleSudokuSolver.shuffled(1)), 1)) {
+			final var result = solver.solve(factory.createSudoku(), parse(factory),
+				SolveLimits.NONE.withMaxNodes(10), CancellationToken.NONE);
+
+			assertEquals(Status.BUDGET_EXCEEDED, result.status());
+		}
+	}
+
+	@Test
+	void failuresAreThrownOnlyWhenEverySolverFails() {
+		final var factory = SudokuBuilder.newBuilder().createBitmaskSudokuFactory();
+		final var sudoku = factory.createSudoku();
+		final SudokuSolver failing = new SudokuSolver() {
+
+			@Override
+			public <V> Grid<V> solve(final Sudoku<V> sudoku, final Grid<V> grid) {
+				throw new IllegalStateException("failing");
+			}
+
+		};
+
+		try (final var solver = new PortfolioSudokuSolver(List.of(failing, new DlxSudokuSolver()))) {
+			assertTrue(sudoku.isSolved(solver.solve(sudoku, parse(factory))));
+		}
+		try (final var solver = new PortfolioSudokuSolver(List.of(failing))) {
+			final var e = assertThrows(UncheckedExecutionException.class,
+				() -> solver.solve(sudoku, parse(factory)));
+			assertTrue(e.getCause() instanceof IllegalStateException);
+		}
+	}
+
+	@Test
+	void constructorRejectsEmptyPortfolio() {
+		assertThrows(IllegalArgumentException.class, () -> new PortfolioSudokuSolver(List.of()));
+	}
+
+}
@@ -0,0 +1,86 @@
+package com.tagadvance.sudoku;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.common.collect.ImmutableList;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class PropagatingSudokuSolverTest {
+
+	private static final String EASY = "?4?6??2?3153?????????3??????158??9??23?1?5?46??9??452??????8?????????6593?1??9?7?";
+
+	private static final String HARD = "8??72????529??6????674??9?????5???1?1?2???6?9?8???2?????5??834????2??896????47??2";
+
+	@Test
+	void easyPuzzleIsSolvedWithoutBranching() {
+		final var solver = new PropagatingSudokuSolver();
+		final var factory = SudokuBuilder.newBuilder().createClassicSudokuFactory();
+		final var sudoku = factory.createSudoku();
+		final var grid = factory.createEmptyGrid();
+		new IntegerSudokuParser().populateSudokuFromString(grid, EASY);
+
+		final var solution = solver.solve(sudoku, grid);
+
+		assertTrue(sudoku.isSolved(solution));
+		assertEquals(0, solver.getBranches());
+		assertTrue(solver.getRuleHits().get(StandardPropagationRule.NAKED_SINGLE) > 0);
+	}
+
+	@Test
+	void rulesArePluggable() {
+		final var solver = new PropagatingSudokuSolver(
+			ImmutableList.of(StandardPropagationRule.NAKED_SINGLE));
+		final var factory = SudokuBuilder.newBuilder().createClassicSudokuFactory();
+		final var sudoku = factory.createSudoku();
+		final var grid = factory.createEmptyGrid();
+		new IntegerSudokuParser().populateSudokuFromString(grid, HARD);
+
+		final var solution = solver.solve(sudoku, grid);
+
+		assertTrue(sudoku.isSolved(solution));
+		assertEquals(ImmutableList.of(StandardPropagationRule.NAKED_SINGLE),
+			solver.getRuleHits().keySet().asList());
+	}
+
+	@Test
+	void conflictingCluesAreUnsolvable() {
+		final var solver = new PropagatingSudokuSolver();
+		final var factory = SudokuBuilder.newBuilder().createClassicSudokuFactory();
+		final var sudoku = factory.createSudoku();
+		final var grid = factory.createEmptyGrid();
+		new IntegerSudokuParser().populateSudokuFromString(grid, "11");
+
+		assertNull(solver.solve(sudoku, grid));
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = {16, 25, 36, 49})
+	void largeGridsAreSolved(final int size) {
+		final var solver = new PropagatingSudokuSolver();
+		final var factory = SudokuBuilder.newBuilder().createBitmaskSudokuFactory(size);
+		final var sudoku = factory.createSudoku();
+		final var grid = factory.createEmptyGrid();
+
+		// a shifted pattern with a third of its cells emptied, written one token per cell
+		final var blockSize = (int) Math.sqrt(size);
+		final var random = new Random(size);
+		final var puzzle = new StringBuilder();
+		for (int y = 0; y < size; y++) {
+			for (int x = 0; x < size; x++) {
+				final var value = (blockSize * (y % blockSize) + y / blockSize + x) % size + 1;
+				puzzle.append(random.nextInt(3) == 0 ? "." : value).append(' ');
+			}
+		}
+		new IntegerSudokuParser(true).populateSudokuFromString(grid, puzzle.toString());
+
+		final var solution = solver.solve(sudoku, grid);
+
+		assertTrue(sudoku.isSolved(solution));
+	}
+
+}
@@ -0,0 +1,53 @@
+package com.tagadvance.sudoku;
+
+import static com.tagadvance.sudoku.TestPuzzles.parse;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.tagadvance.sudoku.SolveResult.Status;
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+class RestartingSudokuSolverTest {
+
+	@Test
+	void solveRestartsWithNewSeedsUntilSolved() {
+		final var factory = SudokuBuilder.newBuilder().createBitmaskSudokuFactory();
+		final var sudoku = factory.createSudoku();
+		final Set<Long> seeds = new HashSet<>();
+		final var solver = new RestartingSudokuSolver(seed -> {
+			seeds.add(seed);
+
+			return SimpleSudokuSolver.shuffled(seed);
+		}, 0, 1, 2);
+
+		final var result = solver.solve(sudoku, parse(factory), SolveLimits.NONE,
+			CancellationToken.NONE);
+
+		assertEquals(Status.SOLVED, result.status());
+		assertTrue(sudoku.isSolved(result.solution()));
+		assertTrue(seeds.size() > 1);
+	}
+
+	@Test
+	void limitsBoundEveryRunTogether() {
+		final var factory = SudokuBuilder.newBuilder().createBitmaskSudokuFactory();
+		final var solver = new RestartingSudokuSolver(SimpleSudokuSolver::shuffled, 0, 4, 2);
+
+		final var result = solver.solve(factory.createSudoku(), parse(factory),
+			SolveLimits.NONE.withMaxNodes(100), CancellationToken.NONE);
+
+		assertEquals(Status.BUDGET_EXCEEDED, result.status());
+		// each run may count the node that takes it over its limit
+		assertTrue(result.nodes() >= 100 && result.nodes() < 110);
+	}
+
+	@Test
+	void constructorRejectsGrowthFactorOfOne() {
+		assertThrows(IllegalArgumentException.class,
+			() -> new RestartingSudokuSolver(SimpleSudokuSolver::shuffled, 0, 1, 1));
+	}
+
+}
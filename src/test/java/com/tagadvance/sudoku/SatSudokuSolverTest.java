@@ -0,0 +1,97 @@
+package com.tagadvance.sudoku;
+
+import static com.tagadvance.sudoku.TestPuzzles.SEVENTEEN_CLUES;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.tagadvance.sudoku.SolveResult.Status;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class SatSudokuSolverTest {
+
+	@Test
+	void solutionMatchesOtherSolvers() throws Exception {
+		final var factory = SudokuBuilder.newBuilder().createBitmaskSudokuFactory();
+		final var sudoku = factory.createSudoku();
+		final var solver = new SatSudokuSolver();
+
+		// solve every puzzle with the same solver so that learned clauses carry over
+		for (final var grid : SudokuSolverTest.readPuzzles(factory.createEmptyGrid()).toList()) {
+			final var expected = new DlxSudokuSolver().solve(sudoku, grid);
+			final var solution = solver.solve(sudoku, grid);
+			for (final var point : grid.getSize().stream().toList()) {
+				assertEquals(expected.getCellAt(point).getValue(), solution.getCellAt(point).getValue());
+			}
+		}
+	}
+
+	/**
+	 * @return a 25x25 grid with two fifths of the cells of a solution as clues
+	 */
+	private static Grid<Integer> createLargeGrid(final SudokuBuilder.SudokuFactory<Integer> factory) {
+		final var grid = factory.createEmptyGrid();
+		for (int y = 0; y < 25; y++) {
+			for (int x = 0; x < 25; x++) {
+				if ((x * 7 + y * 13) % 5 < 2) {
+					grid.getCellAt(x, y).setValue(((y % 5) * 5 + y / 5 + x) % 25 + 1);
+				}
+			}
+		}
+
+		return grid;
+	}
+
+	@Test
+	void learnedClausesCarryOverToTheNextSolve() {
+		final var factory = SudokuBuilder.newBuilder().createBitmaskSudokuFactory(25);
+		final var sudoku = factory.createSudoku();
+		final var grid = createLargeGrid(factory);
+		final var solver = new SatSudokuSolver();
+
+		final var first = solver.solve(sudoku, grid, SolveLimits.NONE, CancellationToken.NONE);
+		final var second = solver.solve(sudoku, grid, SolveLimits.NONE, CancellationToken.NONE);
+
+		assertTrue(sudoku.isSolved(first.solution()));
+		assertTrue(sudoku.isSolved(second.solution()));
+		assertTrue(second.backtracks() < first.backtracks());
+	}
+
+	@Test
+	void unsolvableGridHasNoSolution() {
+		final var factory = SudokuBuilder.newBuilder().createBitmaskSudokuFactory();
+		final var sudoku = factory.createSudoku();
+		final var grid = factory.createEmptyGrid();
+		// 1 can go nowhere in the first row
+		for (final var value : List.of(2, 3, 4, 5, 6, 7, 8)) {
+			grid.getCellAt(value - 2, 0).setValue(value);
+		}
+		grid.getCellAt(8, 1).setValue(1);
+		final var solver = new SatSudokuSolver();
+
+		assertNull(solver.solve(sudoku, grid));
+
+		// a grid solved after the failure still gets a solution
+		final var puzzle = factory.createEmptyGrid();
+		new IntegerSudokuParser().populateSudokuFromString(puzzle, SEVENTEEN_CLUES);
+		assertTrue(sudoku.isSolved(solver.solve(sudoku, puzzle)));
+	}
+
+	@Test
+	void abortedSolveLeavesSolverReusable() {
+		final var factory = SudokuBuilder.newBuilder().createBitmaskSudokuFactory(25);
+		final var sudoku = factory.createSudoku();
+		final var grid = createLargeGrid(factory);
+		final var solver = new SatSudokuSolver();
+
+		final var aborted = solver.solve(sudoku, grid, SolveLimits.NONE.withMaxNodes(10),
+			CancellationToken.NONE);
+		assertEquals(Status.BUDGET_EXCEEDED, aborted.status());
+
+		final var result = solver.solve(sudoku, grid, SolveLimits.NONE, CancellationToken.NONE);
+		assertEquals(Status.SOLVED, result.status());
+		assertTrue(sudoku.isSolved(result.solution()));
+	}
+
+}
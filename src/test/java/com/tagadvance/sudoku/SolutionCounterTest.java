@@ -0,0 +1,64 @@
+package com.tagadvance.sudoku;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.common.collect.ImmutableSet;
+import com.tagadvance.geometry.Dimension;
+import java.io.IOException;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+class SolutionCounterTest {
+
+	static Stream<SolutionCounter> createCounters() {
+		// a node limit of zero forces every count onto the parallel path
+		return Stream.of(new DlxSudokuSolver(), new DlxSudokuSolver(0));
+	}
+
+	@ParameterizedTest
+	@MethodSource("createCounters")
+	void countSolutionsOfEmptyFourByFourGrid(final SolutionCounter counter) {
+		final var values = IntStream.rangeClosed(1, 4)
+			.boxed()
+			.collect(ImmutableSet.toImmutableSet());
+		final var grid = new FixedSizeGrid<Integer>(new Dimension(4, 4));
+		final var sudoku = new CompositeSudoku<>(values,
+			new SquareRootScopeFactory().createScopes(grid));
+
+		assertEquals(288, counter.countSolutions(sudoku, grid, Long.MAX_VALUE));
+		assertEquals(100, counter.countSolutions(sudoku, grid, 100));
+		assertFalse(counter.isUnique(sudoku, grid));
+	}
+
+	@ParameterizedTest
+	@MethodSource("createCounters")
+	void isUniqueForPublishedPuzzles(final SolutionCounter counter) throws IOException {
+		final var factory = SudokuBuilder.newBuilder().createBitmaskSudokuFactory();
+		final var sudoku = factory.createSudoku();
+
+		for (final var grid : SudokuSolverTest.readPuzzles(factory.createEmptyGrid()).toList()) {
+			assertTrue(counter.isUnique(sudoku, grid));
+
+			final var solution = new DlxSudokuSolver().solve(sudoku, grid);
+			assertEquals(1, counter.countSolutions(sudoku, solution, 2));
+		}
+
+		assertEquals(2, counter.countSolutions(sudoku, factory.createEmptyGrid(), 2));
+	}
+
+	@ParameterizedTest
+	@MethodSource("createCounters")
+	void countSolutionsOfInvalidGridIsZero(final SolutionCounter counter) {
+		final var factory = SudokuBuilder.newBuilder().createBitmaskSudokuFactory();
+		final var grid = factory.createEmptyGrid();
+		grid.getCellAt(0, 0).setValue(1);
+		grid.getCellAt(1, 0).setValue(1);
+
+		assertEquals(0, counter.countSolutions(factory.createSudoku(), grid, 2));
+	}
+
+}
@@ -0,0 +1,93 @@
+package com.tagadvance.sudoku;
+
+import static com.tagadvance.sudoku.TestPuzzles.SEVENTEEN_CLUES;
+import static com.tagadvance.sudoku.TestPuzzles.parse;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.tagadvance.sudoku.SolveResult.Status;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+class SolveLimitsTest {
+
+	private static final String PUZZLE = "?4?6??2?3153?????????3??????158??9??23?1?5?46??9??452??????8?????????6593?1??9?7?";
+
+	static Stream<SudokuSolver> createSolvers() {
+		return Stream.of(new SimpleSudokuSolver(), new ForkJoinSudokuSolver(),
+			new RestartingSudokuSolver(0),
+			new PortfolioSudokuSolver(List.of(new SimpleSudokuSolver(), new ForkJoinSudokuSolver())));
+	}
+
+	@ParameterizedTest
+	@MethodSource("createSolvers")
+	void solveWithinLimitsReturnsSolution(final SudokuSolver solver) {
+		final var factory = SudokuBuilder.newBuilder().createBitmaskSudokuFactory();
+		final var sudoku = factory.createSudoku();
+
+		final var result = solver.solve(sudoku, parse(factory, PUZZLE),
+			SolveLimits.NONE.withTimeout(Duration.ofMinutes(1)), new CancellationToken());
+
+		assertEquals(Status.SOLVED, result.status());
+		assertTrue(sudoku.isSolved(result.solution()));
+		assertTrue(result.nodes() > 0);
+	}
+
+	@ParameterizedTest
+	@MethodSource("createSolvers")
+	void solveReturnsBudgetExceededWhenNodesRunOut(final SudokuSolver solver) {
+		final var factory = SudokuBuilder.newBuilder().createBitmaskSudokuFactory();
+
+		final var result = solver.solve(factory.createSudoku(), parse(factory, SEVENTEEN_CLUES),
+			SolveLimits.NONE.withMaxNodes(10), CancellationToken.NONE);
+
+		assertEquals(Status.BUDGET_EXCEEDED, result.status());
+		assertNull(result.solution());
+	}
+
+	@ParameterizedTest
+	@MethodSource("createSolvers")
+	void solveReturnsCancelledWhenTokenIsCancelled(final SudokuSolver solver) {
+		final var factory = SudokuBuilder.newBuilder().createBitmaskSudokuFactory();
+		final var token = new CancellationToken();
+		token.cancel();
+
+		final var result = solver.solve(factory.createSudoku(), parse(factory, PUZZLE),
+			SolveLimits.NONE, token);
+
+		assertEquals(Status.CANCELLED, result.status());
+	}
+
+	@ParameterizedTest
+	@MethodSource("createSolvers")
+	void solveReturnsUnsolvableForInvalidGrid(final SudokuSolver solver) {
+		final var factory = SudokuBuilder.newBuilder().createBitmaskSudokuFactory();
+		final var grid = factory.createEmptyGrid();
+		grid.getCellAt(0, 0).setValue(1);
+		grid.getCellAt(1, 0).setValue(1);
+
+		final var result = solver.solve(factory.createSudoku(), grid, SolveLimits.NONE,
+			CancellationToken.NONE);
+
+		assertEquals(Status.UNSOLVABLE, result.status());
+	}
+
+	@Test
+	void constructorRejectsNegativeLimits() {
+		assertThrows(IllegalArgumentException.class,
+			() -> SolveLimits.NONE.withTimeout(Duration.ofSeconds(-1)));
+		assertThrows(IllegalArgumentException.class, () -> SolveLimits.NONE.withMaxNodes(-1));
+	}
+
+	@Test
+	void noneCannotBeCancelled() {
+		assertThrows(UnsupportedOperationException.class, CancellationToken.NONE::cancel);
+	}
+
+}
@@ -0,0 +1,81 @@
+package com.tagadvance.sudoku;
+
+import static com.tagadvance.sudoku.TestPuzzles.SEVENTEEN_CLUES;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.tagadvance.sudoku.SolveResult.Status;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.slf4j.LoggerFactory;
+
+class SolveListenerTest {
+
+	static Stream<Function<SolveListener, SudokuSolver>> createSolverFactories() {
+		return Stream.of(SimpleSudokuSolver::new,
+			listener -> new ForkJoinSudokuSolver(ForkJoinPool.commonPool(), 2, 0, listener));
+	}
+
+	@ParameterizedTest
+	@MethodSource("createSolverFactories")
+	void solveReportsStatistics(final Function<SolveListener, SudokuSolver> solverFactory) {
+		final var factory = SudokuBuilder.newBuilder().createBitmaskSudokuFactory();
+		final var sudoku = factory.createSudoku();
+		final var grid = factory.createEmptyGrid();
+		new IntegerSudokuParser().populateSudokuFromString(grid, SEVENTEEN_CLUES);
+
+		final List<SolveStats> reported = new ArrayList<>();
+		final var solver = solverFactory.apply((s, g, stats) -> {
+			assertSame(sudoku, s);
+			assertSame(grid, g);
+			reported.add(stats);
+		});
+		final var result = solver.solve(sudoku, grid, SolveLimits.NONE, CancellationToken.NONE);
+
+		assertEquals(1, reported.size());
+		final var stats = reported.get(0);
+		assertEquals(Status.SOLVED, stats.status());
+		assertEquals(result.nodes(), stats.nodes());
+		assertEquals(result.backtracks(), stats.backtracks());
+		assertTrue(stats.maxDepth() >= grid.getEmptyCells().size());
+		assertTrue(stats.candidateNanos() > 0);
+		assertTrue(stats.prioritizeNanos() > 0);
+		assertTrue(stats.validateNanos() > 0);
+		assertTrue(stats.elapsedNanos() > 0);
+		assertTrue(stats.allocatedBytes() == -1 || stats.allocatedBytes() > 0);
+	}
+
+	@ParameterizedTest
+	@MethodSource("createSolverFactories")
+	void solveReportsCancelledSolves(final Function<SolveListener, SudokuSolver> solverFactory) {
+		final var factory = SudokuBuilder.newBuilder().createBitmaskSudokuFactory();
+		final var token = new CancellationToken();
+		token.cancel();
+
+		final List<SolveStats> reported = new ArrayList<>();
+		final var solver = solverFactory.apply((s, g, stats) -> reported.add(stats));
+		solver.solve(factory.createSudoku(), factory.createEmptyGrid(), SolveLimits.NONE, token);
+
+		assertEquals(1, reported.size());
+		assertEquals(Status.CANCELLED, reported.get(0).status());
+	}
+
+	@Test
+	void slf4jListenerCapsLongThresholds() {
+		final var factory = SudokuBuilder.newBuilder().createBitmaskSudokuFactory();
+		final var sudoku = factory.createSudoku();
+		final var listener = new Slf4jSolveListener(LoggerFactory.getLogger(SolveListenerTest.class),
+			ChronoUnit.FOREVER.getDuration());
+
+		assertTrue(sudoku.isSolved(new SimpleSudokuSolver(listener).solve(sudoku, factory.createEmptyGrid())));
+	}
+
+}
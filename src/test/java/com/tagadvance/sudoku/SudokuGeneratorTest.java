@@ -0,0 +1,61 @@
+package com.tagadvance.sudoku;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class SudokuGeneratorTest {
+
+	private static final long SEED = 42;
+
+	private final SudokuGenerator<Integer> generator = new SudokuGenerator<>(
+		SudokuBuilder.newBuilder().createBitmaskSudokuFactory());
+
+	@Test
+	void generatedPuzzlesAreUniqueAndMinimal() {
+		final var sudoku = generator.getSudoku();
+		final var counter = new DlxSudokuSolver();
+
+		generator.stream(SEED).limit(10).forEach(generated -> {
+			final var puzzle = generated.puzzle();
+			assertTrue(sudoku.isSolved(generated.solution()));
+			assertTrue(counter.isUnique(sudoku, puzzle));
+
+			for (final var cell : puzzle.getCells()) {
+				if (!cell.isEmpty()) {
+					final var value = cell.getValue();
+					cell.setValue(null);
+					assertEquals(2, counter.countSolutions(sudoku, puzzle, 2));
+					cell.setValue(value);
+				}
+			}
+		});
+	}
+
+	@Test
+	void streamsAreDeterministic() {
+		final var sequential = generator.stream(SEED)
+			.limit(10)
+			.map(generated -> generated.puzzle().toString())
+			.toList();
+		final var parallel = generator.parallelStream(SEED)
+			.limit(10)
+			.map(generated -> generated.puzzle().toString())
+			.toList();
+
+		assertEquals(sequential, parallel);
+		assertEquals(sequential.get(3), generator.generate(SEED, 3).puzzle().toString());
+	}
+
+	@Test
+	void streamFiltersByDifficulty() {
+		generator.stream(SEED, Difficulty.EASY)
+			.limit(3)
+			.forEach(generated -> {
+				assertEquals(Difficulty.EASY, generated.difficulty());
+				assertEquals(Difficulty.EASY, generator.rate(generated.puzzle()));
+			});
+	}
+
+}
@@ -9,6 +9,9 @@ import com.google.common.testing.NullPointerTester;
 import com.tagadvance.geometry.Dimension;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -29,13 +32,25 @@ class SudokuSolverTest {
 		final var scopeFactory = new SquareRootScopeFactory();
 		final var scopes = scopeFactory.createScopes(grid);
 		final var sudoku = new CompositeSudoku<>(values, scopes);
+		final var packedPuzzles = readPuzzles(new PackedGrid(size)).toList();
 
-		return Stream.of(new SimpleSudokuSolver(), new ForkJoinSudokuSolver())
-			.flatMap(
-				solver -> puzzles.stream().map(puzzle -> new Object[]{solver, sudoku, puzzle}));
+		final var bitmaskFactory = SudokuBuilder.newBuilder().createBitmaskSudokuFactory();
+		final var bitmaskSudoku = bitmaskFactory.createSudoku();
+		final var bitmaskPuzzles = readPuzzles(bitmaskFactory.createEmptyGrid()).toList();
+
+		return Stream.of(new SimpleSudokuSolver(), new ForkJoinSudokuSolver(), new DlxSudokuSolver(),
+				new PropagatingSudokuSolver(), new TrailSudokuSolver(),
+				new TrailSudokuSolver(ForkJoinPool.commonPool(), TrailSudokuSolver.DEFAULT_MAX_FORK_DEPTH),
+				SimpleSudokuSolver.shuffled(0), new RestartingSudokuSolver(0), new SatSudokuSolver(),
+				new PortfolioSudokuSolver(List.of(new SimpleSudokuSolver(), new DlxSudokuSolver())))
+			.flatMap(solver -> Stream.of(
+					puzzles.stream().map(puzzle -> new Object[]{solver, sudoku, puzzle}),
+					packedPuzzles.stream().map(puzzle -> new Object[]{solver, sudoku, puzzle}),
+					bitmaskPuzzles.stream().map(puzzle -> new Object[]{solver, bitmaskSudoku, puzzle}))
+				.flatMap(Function.identity()));
 	}
 
-	private static Stream<Grid<Integer>> readPuzzles(final Grid<Integer> grid) throws IOException {
+	static Stream<Grid<Integer>> readPuzzles(final Grid<Integer> grid) throws IOException {
 		final var parser = new IntegerSudokuParser();
 
 		try (final var is = SudokuSolverTest.class.getResourceAsStream("/puzzles.txt")) {
@@ -0,0 +1,99 @@
+package com.tagadvance.sudoku;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.google.common.collect.ImmutableSet;
+import com.tagadvance.geometry.Dimension;
+import com.tagadvance.geometry.Rectangle;
+import java.util.List;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+class SudokuTopologyTest {
+
+	@Test
+	void peersExcludeTheCellAndAreSorted() {
+		final var size = new Dimension(9, 9);
+		final var topology = SudokuTopology.compile(size,
+			new SquareRootScopeFactory().<Integer>createScopes(new FixedSizeGrid<>(size)));
+
+		assertEquals(81, topology.getCellCount());
+		assertEquals(27, topology.getScopeCount());
+		assertArrayEquals(new int[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 18, 19, 20, 27, 36, 45, 54, 63,
+			72}, topology.getPeers(0));
+		for (int cell = 0; cell < topology.getCellCount(); cell++) {
+			assertEquals(20, topology.getPeers(cell).length);
+		}
+	}
+
+	@Test
+	void compileRejectsScopesOutsideOfGrid() {
+		final List<Scope<Integer>> scopes = List.of(
+			new RectangleScope<>(new Rectangle(0, 0, 5, 1)));
+
+		assertThrows(IllegalArgumentException.class,
+			() -> SudokuTopology.compile(new Dimension(4, 4), scopes));
+	}
+
+	@Test
+	void topologiesOfTheSameLayoutAreEqual() {
+		final var factory = SudokuBuilder.newBuilder().createClassicSudokuFactory();
+		final var size = new Dimension(9, 9);
+		final var topology = SudokuTopology.of(factory.createSudoku(), size);
+		final var other = SudokuTopology.of(factory.createSudoku(), size);
+
+		assertEquals(topology, other);
+		assertEquals(topology.hashCode(), other.hashCode());
+		assertNotEquals(topology, SudokuTopology.compile(size, List.<Scope<Integer>>of(
+			new RectangleScope<>(new Rectangle(0, 0, 9, 1)))));
+	}
+
+	@Test
+	void cellsAreAddressedByIndex() {
+		final var size = new Dimension(9, 9);
+		final List<Grid<Integer>> grids = List.of(new FixedSizeGrid<>(size), new PackedGrid(size));
+		for (final var grid : grids) {
+			for (int index = 0; index < 81; index++) {
+				final var cell = grid.getCellAt(index);
+				assertSame(grid.getCellAt(index % 9, index / 9), cell);
+				assertEquals(index, grid.indexOf(cell));
+			}
+			assertEquals(-1, grid.indexOf(grid.copy().getCellAt(0)));
+		}
+	}
+
+	@Test
+	void cellsOfLargerGridsAreNotFound() {
+		final var small = new Dimension(4, 4);
+		final var large = new Dimension(9, 9);
+
+		assertEquals(-1, new FixedSizeGrid<Integer>(small).indexOf(
+			new FixedSizeGrid<Integer>(large).getCellAt(80)));
+		assertEquals(-1, new PackedGrid(small).indexOf(new PackedGrid(large).getCellAt(80)));
+	}
+
+	@Test
+	void compositeSudokuReadsPeersOfCell() {
+		final var values = IntStream.rangeClosed(1, 4)
+			.boxed()
+			.collect(ImmutableSet.toImmutableSet());
+		final var size = new Dimension(4, 4);
+		final var sudoku = new CompositeSudoku<>(values,
+			new SquareRootScopeFactory().<Integer>createScopes(new FixedSizeGrid<>(size)));
+
+		final var grid = new FixedSizeGrid<Integer>(size);
+		grid.getCellAt(1, 0).setValue(1);
+		grid.getCellAt(0, 3).setValue(2);
+		grid.getCellAt(1, 1).setValue(3);
+		grid.getCellAt(3, 3).setValue(4);
+
+		assertEquals(ImmutableSet.of(4), sudoku.getPotentialValuesForCell(grid, grid.getCellAt(0)));
+		assertEquals(ImmutableSet.of(1, 2, 3),
+			sudoku.getPotentialValuesForCell(grid, grid.getCellAt(2, 2)));
+	}
+
+}
@@ -0,0 +1,139 @@
+package com.tagadvance.sudoku;
+
+import static com.tagadvance.sudoku.TestPuzzles.SEVENTEEN_CLUES;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.common.collect.ImmutableSet;
+import com.tagadvance.geometry.Dimension;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+class SymmetryCanonicalizerTest {
+
+	private static final SymmetryCanonicalizer CANONICALIZER = new SymmetryCanonicalizer();
+
+	static Stream<String> createPuzzles() {
+		return Stream.of(
+			"?4?6??2?3153?????????3??????158??9??23?1?5?46??9??452??????8?????????6593?1??9?7?",
+			SEVENTEEN_CLUES,
+			"534678912672195348198342567859761423426853791713924856961537284287419635345286179");
+	}
+
+	private static int[] parse(final String puzzle) {
+		final var values = new int[puzzle.length()];
+		for (int i = 0; i < values.length; i++) {
+			final var c = puzzle.charAt(i);
+			values[i] = c >= '1' && c <= '9' ? c - '0' : 0;
+		}
+
+		return values;
+	}
+
+	/**
+	 * @return a permutation of rows or columns that keeps each band or stack together
+	 */
+	private static List<Integer> shuffleLines(final Random random) {
+		final var bands = new ArrayList<>(List.of(0, 1, 2));
+		Collections.shuffle(bands, random);
+		final var lines = new ArrayList<Integer>();
+		for (final var band : bands) {
+			final var rows = new ArrayList<>(List.of(0, 1, 2));
+			Collections.shuffle(rows, random);
+			rows.forEach(row -> lines.add(band * 3 + row));
+		}
+
+		return lines;
+	}
+
+	private static GridTransform randomTransform(final Random random) {
+		final var rows = shuffleLines(random);
+		final var columns = shuffleLines(random);
+		final var transposed = random.nextBoolean();
+		final var cellMap = new int[81];
+		for (int y = 0; y < 9; y++) {
+			for (int x = 0; x < 9; x++) {
+				final int row = rows.get(y), column = columns.get(x);
+				cellMap[y * 9 + x] = transposed ? column * 9 + row : row * 9 + column;
+			}
+		}
+
+		final var digits = new ArrayList<>(List.of(1, 2, 3, 4, 5, 6, 7, 8, 9));
+		Collections.shuffle(digits, random);
+		digits.add(0, 0);
+
+		return new GridTransform(cellMap, digits.stream().mapToInt(Integer::intValue).toArray());
+	}
+
+	@ParameterizedTest
+	@MethodSource("createPuzzles")
+	void equivalentGridsHaveTheSameCanonicalForm(final String puzzle) {
+		final var topology = SudokuTopology.of(
+			SudokuBuilder.newBuilder().createBitmaskSudokuFactory().createSudoku(),
+			new Dimension(9, 9));
+		final var values = parse(puzzle);
+		final var canonical = CANONICALIZER.canonicalize(topology, 9, values).apply(values);
+
+		final var random = new Random(puzzle.hashCode());
+		for (int i = 0; i < 20; i++) {
+			final var transformed = randomTransform(random).apply(values);
+			final var transform = CANONICALIZER.canonicalize(topology, 9, transformed);
+
+			assertArrayEquals(canonical, transform.apply(transformed));
+			assertArrayEquals(transformed, transform.revert(canonical));
+		}
+	}
+
+	@Test
+	void canonicalFormIsItsOwnCanonicalForm() {
+		final var grid = new PackedGrid(new Dimension(9, 9));
+		new IntegerSudokuParser().populateSudokuFromString(grid,
+			"?4?6??2?3153?????????3??????158??9??23?1?5?46??9??452??????8?????????6593?1??9?7?");
+
+		final var canonical = CANONICALIZER.canonicalize(grid).apply(grid);
+		final var again = CANONICALIZER.canonicalize(canonical).apply(canonical);
+
+		assertEquals(canonical.toString(), again.toString());
+		// values are labelled in the order they first appear
+		int next = 1;
+		for (int i = 0; i < 81; i++) {
+			final var value = canonical.getCellAt(i).getValue();
+			if (value != null && value >= next) {
+				assertEquals(next++, value);
+			}
+		}
+	}
+
+	@Test
+	void otherLayoutsAreOnlyRelabelled() {
+		final var size = new Dimension(9, 9);
+		final var values = IntStream.rangeClosed(1, 9)
+			.boxed()
+			.collect(ImmutableSet.toImmutableSet());
+		final var rowsOnly = new SquareRootScopeFactory().<Integer>createScopes(new FixedSizeGrid<>(size))
+			.stream()
+			.filter(scope -> scope.getCellIndices(size)[1] == scope.getCellIndices(size)[0] + 1)
+			.collect(ImmutableSet.toImmutableSet());
+		final var topology = SudokuTopology.of(new CompositeSudoku<>(values, rowsOnly), size);
+
+		assertFalse(SymmetryCanonicalizer.isStandardLayout(topology));
+		assertTrue(SymmetryCanonicalizer.isStandardLayout(SudokuTopology.of(
+			new CompositeSudoku<>(values, new SquareRootScopeFactory().createScopes(
+				new FixedSizeGrid<>(size))), size)));
+
+		final var grid = parse(
+			"?4?6??2?3153?????????3??????158??9??23?1?5?46??9??452??????8?????????6593?1??9?7?");
+		assertEquals(new RelabellingCanonicalizer().canonicalize(topology, 9, grid),
+			CANONICALIZER.canonicalize(topology, 9, grid));
+	}
+
+}
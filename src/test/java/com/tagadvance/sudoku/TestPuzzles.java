@@ -0,0 +1,37 @@
+package com.tagadvance.sudoku;
+
+/**
+ * Puzzles shared by the solver tests. The puzzles in {@code puzzles.txt} are read by
+ * {@link SudokuSolverTest#readPuzzles(Grid)}.
+ */
+final class TestPuzzles {
+
+	/**
+	 * a 17 clue puzzle that takes plain backtracking long enough to exercise budgets, listeners and forking
+	 */
+	static final String SEVENTEEN_CLUES = "???????1?4?????????2???????????5?4?7??8???3????1?9????3??4??2???5?1????????8?6???";
+
+	private TestPuzzles() {
+	}
+
+	/**
+	 * @param factory
+	 * @return a new grid from {@code factory} holding {@link #SEVENTEEN_CLUES}
+	 */
+	static Grid<Integer> parse(final SudokuBuilder.SudokuFactory<Integer> factory) {
+		return parse(factory, SEVENTEEN_CLUES);
+	}
+
+	/**
+	 * @param factory
+	 * @param puzzle
+	 * @return a new grid from {@code factory} holding {@code puzzle}
+	 */
+	static Grid<Integer> parse(final SudokuBuilder.SudokuFactory<Integer> factory, final String puzzle) {
+		final var grid = factory.createEmptyGrid();
+		new IntegerSudokuParser().populateSudokuFromString(grid, puzzle);
+
+		return grid;
+	}
+
+}
@@ -0,0 +1,102 @@
+package com.tagadvance.sudoku;
+
+import static com.tagadvance.sudoku.TestPuzzles.SEVENTEEN_CLUES;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class TrailSudokuSolverTest {
+
+	static Stream<Integer> createParameters() {
+		return Stream.of(0, 1, TrailSudokuSolver.DEFAULT_MAX_FORK_DEPTH, 64);
+	}
+
+	@ParameterizedTest
+	@MethodSource("createParameters")
+	void solveOnCallerSuppliedPool(final int maxForkDepth) {
+		final var factory = SudokuBuilder.newBuilder().createBitmaskSudokuFactory();
+		final var sudoku = factory.createSudoku();
+		final var grid = factory.createEmptyGrid();
+		new IntegerSudokuParser().populateSudokuFromString(grid, SEVENTEEN_CLUES);
+
+		final var pool = new ForkJoinPool(2);
+		try {
+			final var solver = new TrailSudokuSolver(pool, maxForkDepth);
+			assertTrue(sudoku.isSolved(solver.solve(sudoku, grid)));
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	void solutionMatchesOtherSolvers() {
+		final var factory = SudokuBuilder.newBuilder().createBitmaskSudokuFactory();
+		final var sudoku = factory.createSudoku();
+		final var grid = factory.createEmptyGrid();
+		new IntegerSudokuParser().populateSudokuFromString(grid, SEVENTEEN_CLUES);
+
+		final var expected = new DlxSudokuSolver().solve(sudoku, grid);
+		final var solution = new TrailSudokuSolver().solve(sudoku, grid);
+
+		for (final var point : grid.getSize().stream().toList()) {
+			assertEquals(expected.getCellAt(point).getValue(), solution.getCellAt(point).getValue());
+		}
+	}
+
+	@Test
+	void unsolvableGridLeavesNothingBehind() {
+		final var factory = SudokuBuilder.newBuilder().createBitmaskSudokuFactory();
+		final var sudoku = factory.createSudoku();
+		final var grid = factory.createEmptyGrid();
+		// the first row may only hold 9 in its last cell, which the column already holds
+		new IntegerSudokuParser().populateSudokuFromString(grid,
+			"12345678?" + "????????9");
+
+		final var result = new TrailSudokuSolver().solve(sudoku, grid, SolveLimits.NONE,
+			CancellationToken.NONE);
+
+		assertNull(result.solution());
+		assertEquals(SolveResult.Status.UNSOLVABLE, result.status());
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = {16, 25, 36, 49, 64})
+	void largeGridsAreSolved(final int size) {
+		final var solver = new TrailSudokuSolver();
+		final var factory = SudokuBuilder.newBuilder().createBitmaskSudokuFactory(size);
+		final var sudoku = factory.createSudoku();
+		final var grid = factory.createEmptyGrid();
+
+		// a shifted pattern with a third of its cells emptied, written one token per cell
+		final var blockSize = (int) Math.sqrt(size);
+		final var random = new Random(size);
+		final var puzzle = new StringBuilder();
+		for (int y = 0; y < size; y++) {
+			for (int x = 0; x < size; x++) {
+				final var value = (blockSize * (y % blockSize) + y / blockSize + x) % size + 1;
+				puzzle.append(random.nextInt(3) == 0 ? "." : value).append(' ');
+			}
+		}
+		new IntegerSudokuParser(true).populateSudokuFromString(grid, puzzle.toString());
+
+		final var solution = solver.solve(sudoku, grid);
+
+		assertTrue(sudoku.isSolved(solution));
+	}
+
+	@Test
+	void constructorRejectsNegativeForkDepth() {
+		final var pool = ForkJoinPool.commonPool();
+		assertThrows(IllegalArgumentException.class, () -> new TrailSudokuSolver(pool, -1));
+	}
+
+}
@@ -0,0 +1,100 @@
+package com.tagadvance.sudoku.cli;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class SolveCommandTest {
+
+	private static final String EASY = "?4?6??2?3153?????????3??????158??9??23?1?5?46??9??452??????8?????????6593?1??9?7?";
+
+	private static final String EASY_SOLUTION = "748651293153982764962347185415826937237195846689734521596478312874213659321569478";
+
+	private static final String HARD = "8??72????529??6????674??9?????5???1?1?2???6?9?8???2?????5??834????2??896????47??2";
+
+	private static final String INPUT = "# comment\n" + EASY + "\n\n11\r\n" + HARD + "\n" + EASY;
+
+	private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+	private final ByteArrayOutputStream err = new ByteArrayOutputStream();
+
+	@ParameterizedTest
+	@ValueSource(strings = {"trail", "dlx", "propagating", "forkjoin", "simple"})
+	void solutionsAreWrittenInInputOrder(final String solver) {
+		final var status = command(INPUT).run("--solver", solver, "--threads", "3");
+
+		assertEquals(0, status, err.toString());
+		final var lines = out.toString(StandardCharsets.UTF_8).lines().toList();
+		assertEquals(4, lines.size());
+		assertEquals(EASY_SOLUTION, lines.get(0));
+		assertEquals(SolveCommand.UNSOLVABLE, lines.get(1));
+		assertEquals(81, lines.get(2).length());
+		assertEquals(EASY_SOLUTION, lines.get(3));
+		assertTrue(err.toString().startsWith("solved 4 puzzles (1 unsolvable)"), err.toString());
+	}
+
+	@Test
+	void fileIsSolved() throws IOException {
+		final var file = Files.createTempFile("puzzles", ".txt");
+		try {
+			Files.write(file, List.of(EASY, HARD));
+
+			assertEquals(0, command("").run(file.toString()));
+			final var lines = out.toString(StandardCharsets.UTF_8).lines().toList();
+			assertEquals(2, lines.size());
+			assertEquals(EASY_SOLUTION, lines.get(0));
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	@Test
+	void fileAndStandardInputAreReadAlike() throws IOException {
+		// spaces inside a line are empty cells, as any character that is not a value is
+		final var puzzle = HARD.replace('?', ' ');
+		final var file = Files.createTempFile("puzzles", ".txt");
+		try {
+			Files.write(file, List.of(puzzle));
+
+			assertEquals(0, command("").run(file.toString()));
+			assertEquals(0, command(puzzle).run("-"));
+			final var lines = out.toString(StandardCharsets.UTF_8).lines().toList();
+			assertEquals(2, lines.size());
+			assertEquals(81, lines.get(0).length());
+			assertEquals(lines.get(0), lines.get(1));
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	@Test
+	void invalidArgumentsPrintUsage() {
+		assertEquals(2, command("").run("--solver", "unknown"));
+		assertEquals(2, command("").run("--threads"));
+		assertEquals(2, command("").run("--threads", "0"));
+		assertEquals(2, command("").run("--size", "65"));
+		assertEquals(2, command("").run("a", "b"));
+		assertTrue(err.toString().contains("usage: solve"));
+	}
+
+	@Test
+	void missingFileFails() {
+		assertEquals(1, command("").run("does-not-exist.txt"));
+	}
+
+	private SolveCommand command(final String input) {
+		return new SolveCommand(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)), out,
+			new PrintStream(err, true, StandardCharsets.UTF_8));
+	}
+
+}